@@ -4,19 +4,18 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.media.MediaPlayer;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Vibrator;
 import android.view.View;
 
 import com.gamesbykevin.breakout.R;
+import com.gamesbykevin.breakout.audio.AudioEngine;
 import com.gamesbykevin.breakout.util.UtilityHelper;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import java.lang.reflect.Type;
-import java.util.HashMap;
 
 /**
  * Created by Kevin on 5/22/2017.
@@ -40,8 +39,28 @@ public abstract class BaseActivity extends Activity {
     //our vibrate object
     private static Vibrator vibrator;
 
-    //collection of music
-    private static HashMap<Integer, MediaPlayer> SOUND;
+    //plays our sound effects and music
+    private static AudioEngine AUDIO;
+
+    //keep the sound setting of our audio engine current, a strong reference is needed for the listener to stay registered
+    private static final SharedPreferences.OnSharedPreferenceChangeListener SOUND_LISTENER = new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            if (AUDIO != null && key.equals(SOUND_KEY))
+                AUDIO.setEnabled(sharedPreferences.getBoolean(key, true));
+        }
+    };
+
+    //the shared preferences key of the sound setting
+    private static String SOUND_KEY;
+
+    /**
+     * The most times the same effect can be heard at once
+     */
+    public static final int VOICES_BALL = 4;
+    public static final int VOICES_WALL = 3;
+    public static final int VOICES_LASER = 2;
+    public static final int VOICES_PADDLE = 2;
 
     //the intent used to open web urls
     private Intent intent;
@@ -87,31 +106,36 @@ public abstract class BaseActivity extends Activity {
             this.vibrator = (Vibrator)getSystemService(Context.VIBRATOR_SERVICE);
 
         //if null
-        if (SOUND == null) {
-
-            //create new list
-            SOUND = new HashMap<>();
-            loadSound(R.raw.ballbounce);
-            loadSound(R.raw.ballbouncesolid);
-            loadSound(R.raw.complete);
-            loadSound(R.raw.firepickup);
-            loadSound(R.raw.gameover);
-            loadSound(R.raw.laser);
-            loadSound(R.raw.loseball);
-            loadSound(R.raw.menu);
-            loadSound(R.raw.newlife);
-            loadSound(R.raw.paddlecatch);
-            loadSound(R.raw.paddlecollision);
-            loadSound(R.raw.powerup);
-            loadSound(R.raw.theme);
-            loadSound(R.raw.wallcollision);
+        if (AUDIO == null) {
+
+            //create our audio engine
+            AUDIO = new AudioEngine();
+
+            //short effects, the ones heard most often can overlap
+            AUDIO.addEffect(this, R.raw.ballbounce, VOICES_BALL);
+            AUDIO.addEffect(this, R.raw.ballbouncesolid, VOICES_BALL);
+            AUDIO.addEffect(this, R.raw.firepickup, AudioEngine.DEFAULT_VOICES);
+            AUDIO.addEffect(this, R.raw.laser, VOICES_LASER);
+            AUDIO.addEffect(this, R.raw.loseball, AudioEngine.DEFAULT_VOICES);
+            AUDIO.addEffect(this, R.raw.newlife, AudioEngine.DEFAULT_VOICES);
+            AUDIO.addEffect(this, R.raw.paddlecatch, AudioEngine.DEFAULT_VOICES);
+            AUDIO.addEffect(this, R.raw.paddlecollision, VOICES_PADDLE);
+            AUDIO.addEffect(this, R.raw.powerup, AudioEngine.DEFAULT_VOICES);
+            AUDIO.addEffect(this, R.raw.wallcollision, VOICES_WALL);
+
+            //songs
+            AUDIO.addSong(this, R.raw.complete);
+            AUDIO.addSong(this, R.raw.gameover);
+            AUDIO.addSong(this, R.raw.menu);
+            AUDIO.addSong(this, R.raw.theme);
+
+            //cache the sound setting and keep it current
+            SOUND_KEY = getString(R.string.sound_file_key);
+            AUDIO.setEnabled(getBooleanValue(R.string.sound_file_key));
+            getSharedPreferences().registerOnSharedPreferenceChangeListener(SOUND_LISTENER);
         }
     }
 
-    private void loadSound(final int resId) {
-        SOUND.put(resId, MediaPlayer.create(this, resId));
-    }
-
     private void storeDefaultPreferences() {
 
         //get the editor so we can change the shared preferences
@@ -184,14 +208,6 @@ public abstract class BaseActivity extends Activity {
      */
     public void vibrate(long milliseconds, boolean ignoreSetting) {
 
-        if (ignoreSetting) {
-            //if we ignore the shared preferences setting vibrate anyways
-            vibrator.vibrate(milliseconds);
-        } else if (!ignoreSetting && getBooleanValue(R.string.vibrate_file_key)) {
-            //if we want to honor the shared preferences setting and it is enabled
-            vibrator.vibrate(milliseconds);
-        }
-
         //only vibrate if the setting is turned on
         if (ignoreSetting || getBooleanValue(R.string.vibrate_file_key)) {
             //vibrate the phone for the specified duration
@@ -199,41 +215,22 @@ public abstract class BaseActivity extends Activity {
         }
     }
 
+    /**
+     * Play the song on a loop, any other song is paused
+     * @param resId The resource id of the song
+     */
     public void playSong(final int resId) {
-        stopSound(R.raw.theme);
-        stopSound(R.raw.menu);
-        stopSound(R.raw.complete);
-        stopSound(R.raw.gameover);
-        playSound(resId, false, true);
+        if (AUDIO != null)
+            AUDIO.playSong(resId);
     }
 
+    /**
+     * Play the sound effect, this returns right away and is safe to call from the game thread
+     * @param resId The resource id of the effect
+     */
     public void playSoundEffect(final int resId) {
-        playSound(resId, false, false);
-    }
-
-    public void playSound(final int resId, boolean restart, boolean loop) {
-
-        try {
-            //if there is no sound, we can't play it
-            if (SOUND == null || SOUND.isEmpty())
-                return;
-
-            //we can't play if the sound is not enabled
-            if (!getBooleanValue(R.string.sound_file_key))
-                return;
-
-            //if restarting go to beginning of sound
-            if (restart)
-                SOUND.get(resId).seekTo(0);
-
-            //do we want our sound to loop
-            SOUND.get(resId).setLooping(loop);
-
-            //resume playing
-            SOUND.get(resId).start();
-        } catch (Exception e) {
-            UtilityHelper.handleException(e);
-        }
+        if (AUDIO != null)
+            AUDIO.playEffect(resId);
     }
 
     /**
@@ -242,13 +239,13 @@ public abstract class BaseActivity extends Activity {
     public void dispose() {
 
         try {
+            //stop, kill all sound
+            destroySound();
+
             //set null
             preferences = null;
             vibrator = null;
             GSON = null;
-
-            //stop, kill all sound
-            destroySound();
         } catch (Exception e) {
             UtilityHelper.handleException(e);
         }
@@ -256,35 +253,23 @@ public abstract class BaseActivity extends Activity {
     }
 
     private void destroySound() {
-        if (SOUND != null) {
-            for (Integer resId : SOUND.keySet()) {
-                stopSound(resId);
-                SOUND.get(resId).release();
-            }
-
-            SOUND.clear();
-            SOUND = null;
-        }
-    }
+        if (AUDIO != null) {
 
-    public void stopSound() {
-        if (SOUND != null) {
-            for (Integer key : SOUND.keySet()) {
-                stopSound(key);
-            }
+            //we no longer need to know when the setting changes
+            if (getSharedPreferences() != null)
+                getSharedPreferences().unregisterOnSharedPreferenceChangeListener(SOUND_LISTENER);
+
+            AUDIO.release();
+            AUDIO = null;
         }
     }
 
-    public void stopSound(final int resId) {
-        try {
-            if (SOUND != null && !SOUND.isEmpty() && SOUND.get(resId) != null) {
-                //get the song and stop if playing
-                if (SOUND.get(resId).isPlaying() || SOUND.get(resId).isLooping())
-                    SOUND.get(resId).pause();
-            }
-        } catch (Exception e) {
-            UtilityHelper.handleException(e);
-        }
+    /**
+     * Stop all sound effects and pause all songs
+     */
+    public void stopSound() {
+        if (AUDIO != null)
+            AUDIO.stop();
     }
 
     /**
@@ -2,6 +2,7 @@ package com.gamesbykevin.breakout.activity;
 
 import android.content.Context;
 import android.content.Intent;
+import android.content.res.AssetFileDescriptor;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
@@ -28,12 +29,14 @@ import com.gamesbykevin.breakout.util.StatDescription;
 import com.gamesbykevin.breakout.util.UtilityHelper;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.Exchanger;
 
 import javax.microedition.khronos.opengles.GL10;
@@ -50,11 +53,6 @@ public class GameActivity extends BaseActivity implements AdapterView.OnItemClic
     //our open GL surface view
     private GLSurfaceView glSurfaceView;
 
-    /**
-     * Create a random object which the seed as the current time stamp
-     */
-    private static Random RANDOM;
-
     //Our game manager class
     private static Game GAME;
 
@@ -107,9 +105,21 @@ public class GameActivity extends BaseActivity implements AdapterView.OnItemClic
         //call parent
         super.onCreate(savedInstanceState);
 
-        //all the levels in the game
-        if (LEVELS == null)
-            LEVELS = new Levels(this);
+        //all the levels in the game, only loaded once
+        if (LEVELS == null) {
+            try {
+                LEVELS = loadLevels();
+            } catch (Exception e) {
+                UtilityHelper.handleException(e);
+            }
+
+            //we can't play without the levels, leave instead of failing later on
+            if (LEVELS == null) {
+                GAME = null;
+                finish();
+                return;
+            }
+        }
 
         //track our level progress
         STATISTICS = new Statistics(this, LEVELS.getSize());
@@ -171,6 +181,28 @@ public class GameActivity extends BaseActivity implements AdapterView.OnItemClic
         levelSelectGrid.setSelection(STATISTICS.getIndex());
     }
 
+
+    /**
+     * Map the level pack straight from the apk, the levels are decoded when they are played
+     * @return The levels in the game
+     * @throws IOException If there was an issue reading the level pack
+     */
+    private Levels loadLevels() throws IOException {
+
+        //the level pack is stored uncompressed so we can map it (see aaptOptions)
+        final AssetFileDescriptor descriptor = getAssets().openFd(Levels.FILE_NAME);
+        final FileInputStream inputStream = new FileInputStream(descriptor.getFileDescriptor());
+
+        try {
+            //the mapping stays valid after the file is closed
+            final FileChannel channel = inputStream.getChannel();
+            return new Levels(channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength()));
+        } finally {
+            inputStream.close();
+            descriptor.close();
+        }
+    }
+
     @Override
     public void onItemClick(final AdapterView<?> arg0, final View view, final int position, final long id)
     {
@@ -184,26 +216,6 @@ public class GameActivity extends BaseActivity implements AdapterView.OnItemClic
         STEP = Step.Reset;
     }
 
-    /**
-     * Get our random object.<br>
-     * If object is null a new instance will be instantiated
-     * @return Random object used to generate random events
-     */
-    public static Random getRandomObject() {
-
-        //create the object if null
-        if (RANDOM == null) {
-
-            //get the current timestamp
-            final long time = System.nanoTime();
-
-            //create our Random object
-            RANDOM = new Random(time);
-        }
-
-        return RANDOM;
-    }
-
     @Override
     protected void onStart() {
 
@@ -0,0 +1,307 @@
+package com.gamesbykevin.breakout.audio;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.MediaPlayer;
+import android.media.SoundPool;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.util.SparseArray;
+
+import com.gamesbykevin.breakout.util.UtilityHelper;
+
+/**
+ * Play the sound effects and songs.<br>
+ * Short effects are played through a SoundPool so they start quickly and can overlap themselves,
+ * only the songs use a MediaPlayer. Every call only posts a message, the audio work is done on our own thread
+ * so the thread updating the game never waits on audio.<br>
+ * Add every effect and song before playing anything
+ */
+public class AudioEngine implements Handler.Callback {
+
+    /**
+     * The most effects that can be heard at the same time
+     */
+    public static final int MAX_STREAMS = 8;
+
+    /**
+     * The voices used if none are specified
+     */
+    public static final int DEFAULT_VOICES = 1;
+
+    //the messages handled on our audio thread
+    private static final int MSG_PLAY_EFFECT = 0;
+    private static final int MSG_PLAY_SONG = 1;
+    private static final int MSG_STOP = 2;
+    private static final int MSG_RELEASE = 3;
+
+    //the thread where all audio work is done
+    private final HandlerThread thread;
+
+    //used to post work to our audio thread
+    private final Handler handler;
+
+    //plays our short effects
+    private final SoundPool soundPool;
+
+    //our effects by resource id
+    private final SparseArray<Effect> effects;
+
+    //our songs by resource id
+    private final SparseArray<MediaPlayer> songs;
+
+    //is sound enabled, cached so we don't read the shared preferences every time
+    private volatile boolean enabled = true;
+
+    //the song we want playing, so it can be resumed when sound is enabled again
+    private volatile int song = 0;
+
+    public AudioEngine() {
+
+        //create the lists
+        this.effects = new SparseArray<>();
+        this.songs = new SparseArray<>();
+
+        //the constructor is deprecated in api 21, but the builder is not available in our min sdk
+        this.soundPool = new SoundPool(MAX_STREAMS, AudioManager.STREAM_MUSIC, 0);
+
+        //start our audio thread
+        this.thread = new HandlerThread("Audio");
+        this.thread.start();
+        this.handler = new Handler(this.thread.getLooper(), this);
+    }
+
+    /**
+     * Add a short sound effect
+     * @param context Object used to access the resource
+     * @param resId The resource id of the effect
+     * @param voices The most times this effect can be heard at the same time, the oldest is stopped when exceeded
+     */
+    public void addEffect(final Context context, final int resId, final int voices) {
+        this.effects.put(resId, new Effect(this.soundPool.load(context, resId, 1), voices));
+    }
+
+    /**
+     * Add a song
+     * @param context Object used to access the resource
+     * @param resId The resource id of the song
+     */
+    public void addSong(final Context context, final int resId) {
+        this.songs.put(resId, MediaPlayer.create(context, resId));
+    }
+
+    /**
+     * Is sound enabled?
+     * @return true if sound will be played, false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enable or disable sound, when disabled everything playing is stopped
+     * @param enabled true if sound will be played, false otherwise
+     */
+    public void setEnabled(final boolean enabled) {
+
+        //nothing changed
+        if (this.enabled == enabled)
+            return;
+
+        this.enabled = enabled;
+
+        if (enabled) {
+            //resume the song we want playing
+            if (this.song != 0)
+                playSong(this.song);
+        } else {
+            stop();
+        }
+    }
+
+    /**
+     * Play the sound effect
+     * @param resId The resource id of the effect
+     */
+    public void playEffect(final int resId) {
+        if (this.enabled)
+            this.handler.obtainMessage(MSG_PLAY_EFFECT, resId, 0).sendToTarget();
+    }
+
+    /**
+     * Play the song on a loop, any other song is paused
+     * @param resId The resource id of the song
+     */
+    public void playSong(final int resId) {
+
+        //remember the song we want playing
+        this.song = resId;
+
+        if (this.enabled)
+            this.handler.obtainMessage(MSG_PLAY_SONG, resId, 0).sendToTarget();
+    }
+
+    /**
+     * Stop all effects and pause all songs
+     */
+    public void stop() {
+        this.handler.sendEmptyMessage(MSG_STOP);
+    }
+
+    /**
+     * Stop everything, release all resources and end our audio thread
+     */
+    public void release() {
+        this.handler.sendEmptyMessage(MSG_RELEASE);
+    }
+
+    @Override
+    public boolean handleMessage(final Message message) {
+
+        try {
+            switch (message.what) {
+
+                case MSG_PLAY_EFFECT:
+                    onPlayEffect(message.arg1);
+                    return true;
+
+                case MSG_PLAY_SONG:
+                    onPlaySong(message.arg1);
+                    return true;
+
+                case MSG_STOP:
+                    onStop();
+                    return true;
+
+                case MSG_RELEASE:
+                    onRelease();
+                    return true;
+            }
+        } catch (Exception e) {
+            UtilityHelper.handleException(e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Play the effect on our audio thread
+     * @param resId The resource id of the effect
+     */
+    private void onPlayEffect(final int resId) {
+
+        //we can't play what wasn't added
+        final Effect effect = this.effects.get(resId);
+
+        if (effect == null)
+            return;
+
+        //if every voice is used stop the oldest, stopping a stream that already finished does nothing
+        if (effect.streams[effect.next] != 0)
+            this.soundPool.stop(effect.streams[effect.next]);
+
+        //play the effect, the stream id is 0 if the effect hasn't finished loading
+        effect.streams[effect.next] = this.soundPool.play(effect.soundId, 1.0f, 1.0f, 1, 0, 1.0f);
+
+        //the next voice we will use
+        effect.next = (effect.next + 1) % effect.streams.length;
+    }
+
+    /**
+     * Play the song on our audio thread
+     * @param resId The resource id of the song
+     */
+    private void onPlaySong(final int resId) {
+
+        //pause the other songs
+        for (int i = 0; i < this.songs.size(); i++) {
+            if (this.songs.keyAt(i) != resId)
+                pause(this.songs.valueAt(i));
+        }
+
+        //we can't play what wasn't added
+        final MediaPlayer mediaPlayer = this.songs.get(resId);
+
+        if (mediaPlayer == null)
+            return;
+
+        //resume playing on a loop
+        mediaPlayer.setLooping(true);
+        mediaPlayer.start();
+    }
+
+    /**
+     * Stop everything on our audio thread
+     */
+    private void onStop() {
+
+        //stop every effect
+        for (int i = 0; i < this.effects.size(); i++) {
+
+            final Effect effect = this.effects.valueAt(i);
+
+            for (int j = 0; j < effect.streams.length; j++) {
+                if (effect.streams[j] != 0)
+                    this.soundPool.stop(effect.streams[j]);
+
+                effect.streams[j] = 0;
+            }
+        }
+
+        //pause every song
+        for (int i = 0; i < this.songs.size(); i++) {
+            pause(this.songs.valueAt(i));
+        }
+    }
+
+    /**
+     * Release everything on our audio thread
+     */
+    private void onRelease() {
+
+        //stop everything first
+        onStop();
+
+        for (int i = 0; i < this.songs.size(); i++) {
+            if (this.songs.valueAt(i) != null)
+                this.songs.valueAt(i).release();
+        }
+
+        this.songs.clear();
+        this.effects.clear();
+        this.soundPool.release();
+
+        //no more messages will be handled
+        this.thread.quit();
+    }
+
+    /**
+     * Pause the song if it is playing
+     * @param mediaPlayer The song
+     */
+    private static void pause(final MediaPlayer mediaPlayer) {
+        if (mediaPlayer != null && mediaPlayer.isPlaying())
+            mediaPlayer.pause();
+    }
+
+    /**
+     * A sound effect loaded in our sound pool
+     */
+    private static class Effect {
+
+        //the id of the sound in our sound pool
+        private final int soundId;
+
+        //the streams playing this effect, one per voice
+        private final int[] streams;
+
+        //the voice we will use next
+        private int next = 0;
+
+        private Effect(final int soundId, final int voices) {
+            this.soundId = soundId;
+            this.streams = new int[Math.max(DEFAULT_VOICES, voices)];
+        }
+    }
+}
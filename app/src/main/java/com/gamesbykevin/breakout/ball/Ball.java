@@ -1,17 +1,12 @@
 package com.gamesbykevin.breakout.ball;
 
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.brick.Brick;
 import com.gamesbykevin.breakout.common.ICommon;
 import com.gamesbykevin.breakout.entity.Entity;
-import com.gamesbykevin.breakout.opengl.OpenGLSurfaceView;
-import com.gamesbykevin.breakout.opengl.Textures;
+import com.gamesbykevin.breakout.simulation.World;
 import com.gamesbykevin.breakout.wall.Wall;
 
-import javax.microedition.khronos.opengles.GL10;
-
-import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.FPS;
-import static com.gamesbykevin.breakout.opengl.Textures.TEXTURE_ID_FIREBALL;
+import static com.gamesbykevin.breakout.simulation.World.FPS;
 
 public final class Ball extends Entity implements ICommon 
 {
@@ -28,17 +23,22 @@ public final class Ball extends Entity implements ICommon
 	/**
 	 * The starting x-coordinate for the ball
 	 */
-	public static final int START_X = (OpenGLSurfaceView.WIDTH / 2);
+	public static final int START_X = (World.WIDTH / 2);
 	
 	/**
 	 * The starting y-coordinate for the ball
 	 */
-	public static final int START_Y = (OpenGLSurfaceView.HEIGHT / 2) - HEIGHT;
+	public static final int START_Y = (World.HEIGHT / 2) - HEIGHT;
 	
 	/**
 	 * The animation dimension on the sprite sheet
 	 */
 	public static final int DIMENSIONS = 64;
+
+	/**
+	 * The number of different ball animations
+	 */
+	public static final int TOTAL_ANIMATIONS = 6;
 	
 	/**
 	 * The maximum speed allowed
@@ -72,6 +72,9 @@ public final class Ball extends Entity implements ICommon
 	//store the x-offset
 	private int offsetX;
 
+	//which ball animation do we display
+	private int animation = 0;
+
 	//how much do we change the angle every update
 	private static final float ANGLE_CHANGE = 18.0f;
 
@@ -106,6 +109,24 @@ public final class Ball extends Entity implements ICommon
 		return this.offsetX;
 	}
 	
+	/**
+	 * Assign the animation
+	 * @param animation The index of the ball animation we want to display
+	 */
+	public void setAnimation(final int animation)
+	{
+		this.animation = animation;
+	}
+
+	/**
+	 * Get the animation
+	 * @return The index of the ball animation we want to display
+	 */
+	public int getAnimation()
+	{
+		return this.animation;
+	}
+
 	/**
 	 * Flag the ball frozen
 	 * @param frozen true if you intend to pause the ball, false otherwise
@@ -301,10 +322,13 @@ public final class Ball extends Entity implements ICommon
 		
 		//flag fire false
 		setFire(false);
+
+		//the paddle hasn't changed the angle yet, otherwise a re-used ball keeps the angle from the last attempt
+		setXRatio(1.0);
 	}
 	
 	@Override
-	public void update(GameActivity activity)
+	public void update(final World world)
 	{
 		//if not frozen, lets move the ball
 		if (!isFrozen())
@@ -342,7 +366,7 @@ public final class Ball extends Entity implements ICommon
 		//make sure the ball stays in bounds
 		if (getDX() > 0)
 		{
-			if (getX() + getWidth() >= OpenGLSurfaceView.WIDTH - Wall.WIDTH)
+			if (getX() + getWidth() >= World.WIDTH - Wall.WIDTH)
 				setDX(-getDX());
 		}
 		else if (getDX() < 0)
@@ -362,36 +386,8 @@ public final class Ball extends Entity implements ICommon
 		if (!isHidden())
 		{
 			//if the ball goes off the screen let's flag it hidden etc....
-			if (getY() >= OpenGLSurfaceView.HEIGHT)
+			if (getY() >= World.HEIGHT)
 				setHidden(true);
 		}
 	}
-
-	public void render(GL10 openGL) {
-
-		//don't show if we are hiding
-		if (isHidden())
-			return;
-
-		//do we render a fireball
-		if (hasFire()) {
-
-			//save the texture id
-			final int textureId = getTextureId();
-
-			//assign the correct texture
-			super.setTextureId(TEXTURE_ID_FIREBALL);
-
-			//render the fireball
-			super.render(openGL);
-
-			//restore original value
-			super.setTextureId(textureId);
-
-		} else {
-
-			//render the ball
-			super.render(openGL);
-		}
-	}
 }
\ No newline at end of file
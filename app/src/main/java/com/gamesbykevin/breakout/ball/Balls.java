@@ -2,23 +2,16 @@ package com.gamesbykevin.breakout.ball;
 
 import java.util.ArrayList;
 
-import com.gamesbykevin.breakout.R;
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.brick.Brick;
 import com.gamesbykevin.breakout.brick.Bricks;
 import com.gamesbykevin.breakout.common.ICommon;
 import com.gamesbykevin.breakout.entity.Entity;
 import com.gamesbykevin.breakout.paddle.Paddle;
-import com.gamesbykevin.breakout.util.UtilityHelper;
+import com.gamesbykevin.breakout.random.Rng;
+import com.gamesbykevin.breakout.simulation.Event;
+import com.gamesbykevin.breakout.simulation.World;
 
-import javax.microedition.khronos.opengles.GL10;
-
-import static com.gamesbykevin.breakout.activity.GameActivity.getGame;
-import static com.gamesbykevin.breakout.activity.GameActivity.getRandomObject;
-import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.FPS;
-import static com.gamesbykevin.breakout.opengl.Textures.IDS;
-import static com.gamesbykevin.breakout.opengl.Textures.TEXTURE_ID_FIREBALL;
-import static com.gamesbykevin.breakout.opengl.Textures.TOTAL_BALLS;
+import static com.gamesbykevin.breakout.simulation.World.FPS;
 
 public class Balls extends Entity implements ICommon
 {
@@ -38,13 +31,44 @@ public class Balls extends Entity implements ICommon
 	 */
 	private static final int SPEED_UP_BALLS_DELAY = (FPS * 45);
 	
-	//different sound effects we can play
-	private boolean soundBrickCollisionSolid, soundBrickCollision, soundWallCollision, soundLoseBall;
+	//object used to generate random events
+	private final Rng random;
+
+	/**
+	 * How do we detect ball and brick collision
+	 */
+	public enum Collision
+	{
+		//move the ball then check the bricks around it for overlap
+		Overlap,
+
+		//sweep the ball along its motion and bounce off the earliest brick hit
+		Swept
+	}
+
+	/**
+	 * The collision we are using
+	 */
+	public static Collision COLLISION = Collision.Swept;
+
+	/**
+	 * The most bricks a ball can bounce off in a single step
+	 */
+	public static final int MAX_BOUNCES = 4;
+
+	//returned when the ball won't hit the brick during the step
+	private static final double NO_HIT = Double.MAX_VALUE;
+
+	//the normal of the last time of impact calculated
+	private boolean normalX, normalY;
 	
-	public Balls() {
+	public Balls(final Rng random) {
 
 		//call parent constructor
 		super(Ball.WIDTH, Ball.HEIGHT);
+
+		//store our random object
+		this.random = random;
 		
 		//create new list of balls
 		this.balls = new ArrayList<Ball>();
@@ -209,7 +233,7 @@ public class Balls extends Entity implements ICommon
 			return;
 		
 		//pick random x-offset
-		final double xOffset = -Ball.WIDTH + getRandomObject().nextInt(Ball.WIDTH * 2);
+		final double xOffset = -Ball.WIDTH + this.random.nextInt(Ball.WIDTH * 2);
 		
 		//first see if we can reuse an existing ball
 		for (int i = 0; i < getBalls().size(); i++)
@@ -228,8 +252,11 @@ public class Balls extends Entity implements ICommon
 			ball.setY(y);
 			
 			//choose random velocity
-			ball.setDX(getRandomObject().nextBoolean() ? Ball.SPEED_MIN : -Ball.SPEED_MIN);
+			ball.setDX(this.random.nextBoolean() ? Ball.SPEED_MIN : -Ball.SPEED_MIN);
 			ball.setDY(-Ball.SPEED_MIN);
+
+			//assign a random animation, same as a new ball so the random sequence doesn't depend on which balls are re-used
+			ball.setAnimation(this.random.nextInt(Ball.TOTAL_ANIMATIONS));
 			
 			//make sure ball is no longer hidden
 			ball.setHidden(false);
@@ -246,31 +273,21 @@ public class Balls extends Entity implements ICommon
 		ball.setY(y);
 		
 		//choose random velocity
-		ball.setDX(getRandomObject().nextBoolean() ? Ball.SPEED_MIN : -Ball.SPEED_MIN);
+		ball.setDX(this.random.nextBoolean() ? Ball.SPEED_MIN : -Ball.SPEED_MIN);
 		ball.setDY(-Ball.SPEED_MIN);
 
-		//assign a random texture id
-		ball.setTextureId(IDS[getRandomObject().nextInt(TOTAL_BALLS)]);
+		//assign a random animation
+		ball.setAnimation(this.random.nextInt(Ball.TOTAL_ANIMATIONS));
 
 		//add to list
 		getBalls().add(ball);
 	}
 	
 	@Override
-	public void update(GameActivity activity)
+	public void update(final World world)
 	{
-		//set the length
-		final int rowMax = getGame().getBricks().getBricks().length;
-		final int colMax = getGame().getBricks().getBricks()[0].length;
-		
 		if (getBalls() != null)
 		{
-			//flag all false to start
-			soundBrickCollisionSolid = false;
-			soundBrickCollision = false;
-			soundWallCollision = false;
-			soundLoseBall = false;
-			
 			//update all balls
 			for (int i = 0; i < getBalls().size(); i++)
 			{
@@ -281,39 +298,17 @@ public class Balls extends Entity implements ICommon
 				if (ball.isHidden())
 					continue;
 				
-				//update ball
-				ball.update(activity);
-
-				//get our location
-				int middleCol = (int)(ball.getX() - Bricks.START_X) / Brick.WIDTH_NORMAL;
-				int middleRow = (int)(ball.getY() - Bricks.START_Y) / Brick.HEIGHT_NORMAL;
+				//where does the ball start this step
+				final double startX = ball.getX();
+				final double startY = ball.getY();
 
-				//calculate the bricks we are near to check for collision
-				for (int row = middleRow - 1; row <= middleRow + 1; row++) {
-					for (int col = middleCol - 1; col <= middleCol + 1; col++) {
-
-						//make sure in bounds
-						if (col < 0 || col >= colMax)
-							continue;
-						if (row < 0 || row >= rowMax)
-							continue;
-
-						//if there was ball/brick collision no need to check the other bricks
-						if (checkBrickCollision(ball, getGame().getBricks().getBricks()[row][col]))
-						{
-							//count the number of bricks destroyed so we can tell if the game is complete
-							if (!getGame().getBricks().getBricks()[row][col].isSolid())
-								getGame().getBricks().setDestroyed(getGame().getBricks().getDestroyed() + 1);
-
-							//move to the end
-							row = rowMax;
-							col = colMax;
+				//update ball
+				ball.update(world);
 
-							//no need to check the other bricks since the ball already hit
-							break;
-						}
-					}
-				}
+				if (COLLISION == Collision.Swept)
+					sweep(world, ball, startX, startY);
+				else
+					checkOverlap(world, ball);
 
 				final boolean hidden = ball.isHidden();
 				final double dx = ball.getDX();
@@ -323,10 +318,10 @@ public class Balls extends Entity implements ICommon
 				ball.verifyBounds();
 				
 				if (dx != ball.getDX() || dy != ball.getDY())
-					soundWallCollision = true;
+					world.notify(Event.WallHit);
 				
 				if (!hidden && ball.isHidden())
-					soundLoseBall = true;
+					world.notify(Event.BallLost);
 			}
 			
 			//keep track of the elapsed frames
@@ -344,98 +339,348 @@ public class Balls extends Entity implements ICommon
 					getBalls().get(i).speedUp();
 				}
 			}
-			
-			//play sound effects accordingly
-			if (soundBrickCollisionSolid)
-				activity.playSoundEffect(R.raw.ballbouncesolid);
-			if (soundBrickCollision)
-				activity.playSoundEffect(R.raw.ballbounce);
-			if (soundWallCollision)
-				activity.playSoundEffect(R.raw.wallcollision);
-			if (soundLoseBall)
-				activity.playSoundEffect(R.raw.loseball);
 		}
 	}
 	
+	/**
+	 * Check the bricks around the ball for overlap and bounce off the first one found
+	 * @param world The world we are simulating
+	 * @param ball The ball that was moved this step
+	 */
+	private void checkOverlap(final World world, final Ball ball)
+	{
+		//set the length
+		final int rowMax = world.getBricks().getRows();
+		final int colMax = world.getBricks().getCols();
+
+		//get our location
+		int middleCol = (int)(ball.getX() - Bricks.START_X) / Brick.WIDTH_NORMAL;
+		int middleRow = (int)(ball.getY() - Bricks.START_Y) / Brick.HEIGHT_NORMAL;
+
+		//calculate the bricks we are near to check for collision
+		for (int row = middleRow - 1; row <= middleRow + 1; row++) {
+			for (int col = middleCol - 1; col <= middleCol + 1; col++) {
+
+				//make sure in bounds
+				if (col < 0 || col >= colMax)
+					continue;
+				if (row < 0 || row >= rowMax)
+					continue;
+
+				//if there was ball/brick collision no need to check the other bricks
+				if (checkBrickCollision(world, ball, row, col))
+				{
+					//no need to check the other bricks since the ball already hit
+					return;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Check the ball and brick to see if we have collision
+	 * @param world The world we are simulating
 	 * @param ball The ball we want to check
-	 * @param brick The brick we want to check
+	 * @param row The row of the brick we want to check
+	 * @param col The column of the brick we want to check
 	 * @return true if collision, false otherwise
 	 */
-	private boolean checkBrickCollision(final Ball ball, final Brick brick)
+	private boolean checkBrickCollision(final World world, final Ball ball, final int row, final int col)
 	{
-		if (!brick.isDead())
+		final int index = world.getBricks().getIndex(row, col);
+
+		if (world.getBricks().isAlive(index))
 		{
+			//the location of the brick
+			final double bx = Bricks.getBrickX(col);
+			final double by = Bricks.getBrickY(row);
+
 			//if this ball has collision with the current brick
-			if (ball.hasCollision(brick))
+			if (ball.hasCollision(bx, by, Brick.WIDTH_NORMAL, Brick.HEIGHT_NORMAL))
 			{
-				//mark the collision
-				brick.markCollision();
-
-				//if the brick is solid just bounce the ball off it as long as we aren't fire
-				if (!ball.hasFire() && brick.isSolid())
+				//apply the hit, fire goes through the brick
+				if (hitBrick(world, ball, index))
 				{
-					//flag true to play sound
-					soundBrickCollisionSolid = true;
-					
 					//flip y-velocity
 					ball.setDY(-ball.getDY());
-					
-					//calculate the middle coordinate of the ball
-					final double my = ball.getY() + (ball.getHeight() / 2);
-					
-					//get the end points of the brick
-					final double bl = brick.getX();
-					final double br = brick.getX() + brick.getWidth();
-					
-					//make sure close enough
-					if (my > brick.getY() && my < brick.getY() + brick.getHeight())
+
+					//we guess if a solid brick was hit on the side
+					if (world.getBricks().isSolid(index))
 					{
-						//depending on x-coordinate may want to change x-velocity
-						if (ball.getX() + ball.getWidth() >= br)
-						{
-							ball.setDX(-ball.getDX());
-						}
-						else if (ball.getX() <= bl)
+						//calculate the middle coordinate of the ball
+						final double my = ball.getY() + (ball.getHeight() / 2);
+
+						//get the end points of the brick
+						final double bl = bx;
+						final double br = bx + Brick.WIDTH_NORMAL;
+
+						//make sure close enough
+						if (my > by && my < by + Brick.HEIGHT_NORMAL)
 						{
-							ball.setDX(-ball.getDX());
+							//depending on x-coordinate may want to change x-velocity
+							if (ball.getX() + ball.getWidth() >= br)
+							{
+								ball.setDX(-ball.getDX());
+							}
+							else if (ball.getX() <= bl)
+							{
+								ball.setDX(-ball.getDX());
+							}
 						}
 					}
 				}
-				else
+
+				//we have collision
+				return true;
+			}
+		}
+		
+		//either the brick was dead or no collision so return false
+		return false;
+	}
+
+	/**
+	 * Move the ball from the start of the step along its motion, bouncing off the earliest brick hit each time.<br>
+	 * Only the cells covered by the motion are checked, at the max speed that is no more than the 3x3 cells of the overlap check
+	 * @param world The world we are simulating
+	 * @param ball The ball we want to move
+	 * @param x The x-coordinate at the start of the step
+	 * @param y The y-coordinate at the start of the step
+	 */
+	private void sweep(final World world, final Ball ball, double x, double y)
+	{
+		//a frozen ball doesn't move
+		if (ball.isFrozen())
+			return;
+
+		final Bricks bricks = world.getBricks();
+		final int rowMax = bricks.getRows();
+		final int colMax = bricks.getCols();
+		final double w = ball.getWidth();
+		final double h = ball.getHeight();
+
+		//how much of the step is remaining
+		double remaining = 1.0;
+
+		for (int bounce = 0; bounce <= MAX_BOUNCES && remaining > 0; bounce++)
+		{
+			//the motion for the rest of the step
+			final double vx = ball.getXRatio() * ball.getDX() * remaining;
+			final double vy = ball.getDY() * remaining;
+
+			//the cells covered by the ball during the motion
+			final int colStart = Math.max(0, (int)Math.floor((Math.min(x, x + vx) - Bricks.START_X) / Brick.WIDTH_NORMAL));
+			final int colEnd = Math.min(colMax - 1, (int)Math.floor((Math.max(x, x + vx) + w - Bricks.START_X) / Brick.WIDTH_NORMAL));
+			final int rowStart = Math.max(0, (int)Math.floor((Math.min(y, y + vy) - Bricks.START_Y) / Brick.HEIGHT_NORMAL));
+			final int rowEnd = Math.min(rowMax - 1, (int)Math.floor((Math.max(y, y + vy) + h - Bricks.START_Y) / Brick.HEIGHT_NORMAL));
+
+			//the earliest brick hit
+			int target = -1;
+			double earliest = NO_HIT;
+			boolean targetX = false, targetY = false;
+
+			//if there are no bricks in these rows skip checking each cell
+			final boolean alive = bricks.hasAlive(rowStart, rowEnd);
+
+			for (int row = rowStart; alive && row <= rowEnd; row++)
+			{
+				for (int col = colStart; col <= colEnd; col++)
 				{
-					//flag true to play sound
-					soundBrickCollision = true;
+					final int index = bricks.getIndex(row, col);
 
-					//fireball will destroy every brick
-					if (ball.hasFire()) {
+					if (!bricks.isAlive(index))
+						continue;
 
-						//make the brick dead because nothing can stop fire
-						while (!brick.isDead()) {
-							brick.markCollision();
-						}
+					final double time = getTimeOfImpact(x, y, w, h, vx, vy, Bricks.getBrickX(col), Bricks.getBrickY(row));
 
-					} else {
+					if (time == NO_HIT)
+						continue;
 
-						//if the ball is not a fire ball flip the y-velocity
-						ball.setDY(-ball.getDY());
+					//fire goes through every brick in the way
+					if (ball.hasFire())
+					{
+						hitBrick(world, ball, index);
+						continue;
 					}
 
-					//if the brick contains a power up we will add it
-					if (brick.hasPowerup())
-						getGame().getPowerups().add(brick);
+					if (time < earliest)
+					{
+						earliest = time;
+						target = index;
+						targetX = this.normalX;
+						targetY = this.normalY;
+					}
 				}
-				
-				//we have collision
-				return true;
 			}
+
+			//nothing hit, finish the motion
+			if (target < 0)
+			{
+				x += vx;
+				y += vy;
+				break;
+			}
+
+			//move to the point of impact
+			x += vx * earliest;
+			y += vy * earliest;
+
+			//hit the brick and bounce off the side we hit
+			if (hitBrick(world, ball, target))
+			{
+				if (targetX)
+					ball.setDX(-ball.getDX());
+				if (targetY)
+					ball.setDY(-ball.getDY());
+			}
+
+			//the rest of the step continues with the new velocity
+			remaining *= (1.0 - earliest);
 		}
-		
-		//either the brick was dead or no collision so return false
-		return false;
+
+		//assign the final location
+		ball.setX(x);
+		ball.setY(y);
 	}
-	
+
+	/**
+	 * Calculate when the moving ball will first touch the brick (swept aabb).<br>
+	 * The normal of the side hit is stored in normalX, normalY (both for a corner)
+	 * @param x x-coordinate of the ball
+	 * @param y y-coordinate of the ball
+	 * @param w width of the ball
+	 * @param h height of the ball
+	 * @param vx x-motion of the ball
+	 * @param vy y-motion of the ball
+	 * @param bx x-coordinate of the brick we are checking
+	 * @param by y-coordinate of the brick we are checking
+	 * @return The fraction of the motion (0.0 - 1.0) when the ball touches the brick, NO_HIT if it doesn't
+	 */
+	private double getTimeOfImpact(final double x, final double y, final double w, final double h, final double vx, final double vy, final double bx, final double by)
+	{
+		//the brick grown by the size of the ball, so we only need to trace the corner of the ball
+		final double minX = bx - w, maxX = bx + Brick.WIDTH_NORMAL;
+		final double minY = by - h, maxY = by + Brick.HEIGHT_NORMAL;
+
+		//when do we enter and exit the brick on each axis
+		final double entryX, exitX, entryY, exitY;
+
+		if (vx > 0)
+		{
+			entryX = (minX - x) / vx;
+			exitX = (maxX - x) / vx;
+		}
+		else if (vx < 0)
+		{
+			entryX = (maxX - x) / vx;
+			exitX = (minX - x) / vx;
+		}
+		else
+		{
+			//not moving, we have to be inside already
+			if (x <= minX || x >= maxX)
+				return NO_HIT;
+
+			entryX = Double.NEGATIVE_INFINITY;
+			exitX = Double.POSITIVE_INFINITY;
+		}
+
+		if (vy > 0)
+		{
+			entryY = (minY - y) / vy;
+			exitY = (maxY - y) / vy;
+		}
+		else if (vy < 0)
+		{
+			entryY = (maxY - y) / vy;
+			exitY = (minY - y) / vy;
+		}
+		else
+		{
+			//not moving, we have to be inside already
+			if (y <= minY || y >= maxY)
+				return NO_HIT;
+
+			entryY = Double.NEGATIVE_INFINITY;
+			exitY = Double.POSITIVE_INFINITY;
+		}
+
+		//we touch once we have entered on both axis
+		final double entry = Math.max(entryX, entryY);
+		final double exit = Math.min(exitX, exitY);
+
+		//no hit if we never overlap or don't reach it this step
+		if (entry >= exit || exit <= 0 || entry > 1 || entry == Double.NEGATIVE_INFINITY)
+			return NO_HIT;
+
+		//the side we hit is the last axis we entered on
+		this.normalX = (entryX >= entryY);
+		this.normalY = (entryY >= entryX);
+
+		//we already overlap at the start (a new ball can appear on a brick)
+		if (entry < 0)
+		{
+			//only hit the brick while moving further in, otherwise we let the ball leave
+			if (this.normalX && (vx > 0) != (x + (w / 2) < bx + (Brick.WIDTH_NORMAL / 2)))
+				return NO_HIT;
+			if (this.normalY && (vy > 0) != (y + (h / 2) < by + (Brick.HEIGHT_NORMAL / 2)))
+				return NO_HIT;
+
+			return 0;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Apply a hit to the brick, the velocity of the ball is not changed here
+	 * @param world The world we are simulating
+	 * @param ball The ball that hit the brick
+	 * @param index The index of the brick that was hit
+	 * @return true if the ball should bounce off the brick, false if it goes through (fire)
+	 */
+	private boolean hitBrick(final World world, final Ball ball, final int index)
+	{
+		final Bricks bricks = world.getBricks();
+
+		//mark the collision
+		bricks.markCollision(index);
+
+		//if the brick is solid just bounce the ball off it as long as we aren't fire
+		if (!ball.hasFire() && bricks.isSolid(index))
+		{
+			//notify the ball bounced off a solid brick
+			world.notify(Event.SolidBrickHit);
+			return true;
+		}
+
+		//notify the ball hit a brick
+		world.notify(Event.BrickHit);
+
+		//fireball will destroy every brick
+		if (ball.hasFire())
+		{
+			//make the brick dead because nothing can stop fire
+			while (bricks.isAlive(index))
+			{
+				bricks.markCollision(index);
+			}
+		}
+
+		//if the brick contains a power up we will add it
+		if (bricks.hasPowerup(index))
+			world.getPowerups().add(bricks.getBrick(index));
+
+		//count the number of bricks destroyed so we can tell if the game is complete
+		if (!bricks.isSolid(index))
+		{
+			bricks.setDestroyed(bricks.getDestroyed() + 1);
+			world.notify(Event.BrickDestroyed);
+		}
+
+		return !ball.hasFire();
+	}
+
 	@Override
 	public void reset() 
 	{
@@ -457,39 +702,4 @@ public class Balls extends Entity implements ICommon
 		//reset frames count
 		frames = 0;
 	}
-
-	@Override
-	public void render(final GL10 openGL)
-	{
-		if (getBalls() != null)
-		{
-			//render all balls
-			for (int i = 0; i < getBalls().size(); i++)
-			{
-				try {
-					if (i >= getBalls().size())
-						continue;
-
-					Ball ball = getBalls().get(i);
-
-					if (ball.isHidden())
-						continue;
-
-					super.setX(ball);
-					super.setY(ball);
-
-					if (ball.hasFire()) {
-						super.setTextureId(TEXTURE_ID_FIREBALL);
-					} else {
-						super.setTextureId(ball.getTextureId());
-					}
-
-					super.render(openGL);
-
-				} catch (Exception e) {
-					UtilityHelper.handleException(e);
-				}
-			}
-		}
-	}
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.gamesbykevin.breakout.bot;
+
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.replay.Recorder;
+import com.gamesbykevin.breakout.simulation.Event;
+import com.gamesbykevin.breakout.simulation.IEventListener;
+import com.gamesbykevin.breakout.simulation.Input;
+import com.gamesbykevin.breakout.simulation.World;
+
+import static com.gamesbykevin.breakout.simulation.World.FPS;
+
+/**
+ * Let the {@link Bot} play a level from start to finish without rendering.<br>
+ * There are no lives, a lost ball is put back on the paddle, so the level ends when it is cleared,
+ * when it stalls or when we run out of time. The numbers of the last level played are kept until the next one.<br>
+ * Each instance owns its world, so separate instances can play on separate threads
+ */
+public class Autoplay implements IEventListener
+{
+	/**
+	 * The most steps we play a level (10 minutes)
+	 */
+	public static final int MAX_STEPS = (FPS * 60 * 10);
+
+	/**
+	 * The level is stalled if no brick is destroyed for this many steps (1 minute)
+	 */
+	public static final int STALL_STEPS = (FPS * 60);
+
+	/**
+	 * How a level ended
+	 */
+	public enum Result
+	{
+		//every breakable brick was destroyed
+		Cleared,
+
+		//no brick was destroyed for STALL_STEPS
+		Stalled,
+
+		//we reached MAX_STEPS while still making progress
+		Timeout
+	}
+
+	//the world we play in
+	private final World world;
+
+	//who is playing
+	private final Bot bot;
+
+	//the input of each step
+	private final Input input;
+
+	//the number of steps played
+	private int steps = 0;
+
+	//the number of balls that fell off the screen
+	private int ballsLost = 0;
+
+	//the number of times a ball bounced off or was caught by the paddle
+	private int paddleHits = 0;
+
+	//the number of power ups collected
+	private int powerups = 0;
+
+	//the most balls, lasers, power ups and particles alive at once
+	private int peak = 0;
+
+	public Autoplay()
+	{
+		this.world = new World(0);
+		this.world.subscribe(this);
+		this.bot = new Bot(0);
+		this.input = new Input();
+	}
+
+	@Override
+	public void onEvent(final Event event, final int count)
+	{
+		switch (event)
+		{
+			case BallLost:
+				this.ballsLost += count;
+				break;
+
+			case PaddleHit:
+			case PaddleCatch:
+				this.paddleHits += count;
+				break;
+
+			case PowerupCollected:
+			case FireballCollected:
+			case ExtraLife:
+				this.powerups += count;
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Play the level
+	 * @param levels Object containing every level layout
+	 * @param level The index of the level we want to play
+	 * @param seed The seed of the world and the bot
+	 * @return How the level ended
+	 */
+	public Result play(final Levels levels, final int level, final long seed)
+	{
+		return play(levels, level, seed, true, null, null);
+	}
+
+	/**
+	 * Play the level
+	 * @param levels Object containing every level layout
+	 * @param level The index of the level we want to play
+	 * @param seed The seed of the world and the bot
+	 * @param powerups false to remove every power up from the bricks, true to play the level as is
+	 * @param recorder If not null the input of every step is recorded
+	 * @param times If not null the time of every step is stored here (nanoseconds), it needs room for {@link #MAX_STEPS}
+	 * @return How the level ended
+	 */
+	public Result play(final Levels levels, final int level, final long seed, final boolean powerups, final Recorder recorder, final long[] times)
+	{
+		world.reset(levels, level, seed);
+		bot.reset(seed);
+		input.reset();
+
+		if (recorder != null)
+			recorder.begin(level, seed);
+
+		//take the power ups away to see how much the level depends on them
+		if (!powerups)
+		{
+			final Bricks bricks = world.getBricks();
+
+			for (int index = 0; index < bricks.getRows() * bricks.getCols(); index++)
+			{
+				bricks.setPowerup(index, false);
+			}
+		}
+
+		this.steps = 0;
+		this.ballsLost = 0;
+		this.paddleHits = 0;
+		this.powerups = 0;
+		this.peak = 0;
+
+		int progress = 0, destroyed = 0;
+
+		for (; this.steps < MAX_STEPS; this.steps++)
+		{
+			if (world.isComplete())
+				return Result.Cleared;
+
+			//if no brick was destroyed for too long we are stuck
+			if (this.steps - progress > STALL_STEPS)
+				return Result.Stalled;
+
+			//the release and restart only last one step
+			input.clearEdges();
+
+			//put a new ball on the paddle
+			if (world.isLost())
+				input.setRestart(true);
+
+			bot.update(world, input);
+
+			if (recorder != null)
+				recorder.record(input);
+
+			//only time the simulation
+			final long start = (times != null) ? System.nanoTime() : 0;
+			input.apply(world);
+			world.step();
+
+			if (times != null)
+				times[this.steps] = System.nanoTime() - start;
+
+			world.dispatchEvents();
+
+			this.peak = Math.max(this.peak, world.getEntities());
+
+			if (world.getBricks().getDestroyed() != destroyed)
+			{
+				destroyed = world.getBricks().getDestroyed();
+				progress = this.steps;
+			}
+		}
+
+		return (world.isComplete()) ? Result.Cleared : Result.Timeout;
+	}
+
+	/**
+	 * Get the world
+	 * @return The world of the last level played
+	 */
+	public World getWorld()
+	{
+		return this.world;
+	}
+
+	public int getSteps()
+	{
+		return this.steps;
+	}
+
+	public int getBallsLost()
+	{
+		return this.ballsLost;
+	}
+
+	public int getPaddleHits()
+	{
+		return this.paddleHits;
+	}
+
+	public int getPowerups()
+	{
+		return this.powerups;
+	}
+
+	/**
+	 * Get the peak
+	 * @return The most balls, lasers, power ups and particles alive at once
+	 */
+	public int getPeak()
+	{
+		return this.peak;
+	}
+}
@@ -0,0 +1,158 @@
+package com.gamesbykevin.breakout.bot;
+
+import com.gamesbykevin.breakout.ball.Ball;
+import com.gamesbykevin.breakout.paddle.Paddle;
+import com.gamesbykevin.breakout.random.Rng;
+import com.gamesbykevin.breakout.simulation.Input;
+import com.gamesbykevin.breakout.simulation.World;
+import com.gamesbykevin.breakout.wall.Wall;
+
+import static com.gamesbykevin.breakout.simulation.World.FPS;
+
+/**
+ * Plays the game by moving the paddle under the lowest ball that is falling.<br>
+ * The landing x-coordinate is predicted by following the ball off the side walls,
+ * the paddle is placed so the ball hits off center and leaves at an angle instead of bouncing straight up and down forever.<br>
+ * The bot has its own random sequence so it doesn't change what happens in the world
+ */
+public class Bot
+{
+	/**
+	 * How many steps we wait before letting go of a frozen ball
+	 */
+	public static final int RELEASE_DELAY = (FPS / 2);
+
+	//the closest and furthest from the middle of the paddle we try to hit the ball (ratio of the paddle width)
+	private static final double OFFSET_MIN = 0.15, OFFSET_MAX = 0.40;
+
+	//picks where on the paddle we hit the ball
+	private final Rng random;
+
+	//where on the paddle we hit the ball (-OFFSET_MAX - OFFSET_MAX)
+	private double offset = 0;
+
+	//was the ball we follow falling last step
+	private boolean falling = false;
+
+	//how many steps a ball has been frozen
+	private int frozen = 0;
+
+	/**
+	 * Create the bot
+	 * @param seed The seed of the bot, the same seed makes the same choices
+	 */
+	public Bot(final long seed)
+	{
+		this.random = new Rng(seed);
+		reset(seed);
+	}
+
+	/**
+	 * Start over for a new attempt
+	 * @param seed The seed of the bot, the same seed makes the same choices
+	 */
+	public void reset(final long seed)
+	{
+		this.random.setSeed(seed);
+		this.offset = 0;
+		this.falling = false;
+		this.frozen = 0;
+	}
+
+	/**
+	 * Decide the input for the next step
+	 * @param world The world we are playing
+	 * @param input Where we store the input, the release is only set, never cleared
+	 */
+	public void update(final World world, final Input input)
+	{
+		final Paddle paddle = world.getPaddle();
+
+		Ball target = null;
+		boolean hasFrozen = false;
+
+		//find the lowest ball that is falling
+		for (int i = 0; i < world.getBalls().getBalls().size(); i++)
+		{
+			final Ball ball = world.getBalls().getBalls().get(i);
+
+			if (ball.isHidden())
+				continue;
+
+			if (ball.isFrozen())
+			{
+				hasFrozen = true;
+				continue;
+			}
+
+			if (ball.getDY() > 0 && (target == null || ball.getY() > target.getY()))
+				target = ball;
+		}
+
+		//let go of frozen balls after a moment
+		if (hasFrozen)
+		{
+			if (++this.frozen >= RELEASE_DELAY)
+			{
+				input.setRelease(true);
+				this.frozen = 0;
+			}
+		}
+		else
+		{
+			this.frozen = 0;
+		}
+
+		//nothing falling, stay where we are
+		if (target == null)
+		{
+			this.falling = false;
+			input.setTouch((float)(paddle.getX() + (paddle.getWidth() / 2)), false, Paddle.TOUCH_POWER_100);
+			return;
+		}
+
+		//every time a ball starts falling pick a new spot on the paddle to hit it with
+		if (!this.falling)
+		{
+			final double magnitude = OFFSET_MIN + (random.nextDouble() * (OFFSET_MAX - OFFSET_MIN));
+			this.offset = random.nextBoolean() ? magnitude : -magnitude;
+			this.falling = true;
+		}
+
+		//where will the middle of the ball be when it reaches the paddle
+		final double landing = getLanding(target, paddle.getY()) + (target.getWidth() / 2);
+
+		//move the middle of the paddle so the ball lands off center
+		input.setTouch((float)(landing - (this.offset * paddle.getWidth())), true, Paddle.TOUCH_POWER_100);
+	}
+
+	/**
+	 * Predict the x-coordinate of the ball when it reaches the y-coordinate
+	 * @param ball The ball we follow, it has to be falling
+	 * @param y The y-coordinate we want the ball at
+	 * @return The x-coordinate of the ball after bouncing off the side walls
+	 */
+	public static double getLanding(final Ball ball, final double y)
+	{
+		//the range of the ball x-coordinate between the walls
+		final double min = Wall.WIDTH;
+		final double max = World.WIDTH - Wall.WIDTH - ball.getWidth();
+		final double range = max - min;
+
+		//how many steps until we reach the y-coordinate
+		final double steps = Math.max(0, (y - ball.getHeight() - ball.getY()) / ball.getDY());
+
+		//where the ball would be without any walls
+		final double x = (ball.getX() - min) + (ball.getXRatio() * ball.getDX() * steps);
+
+		//fold the path back between the walls
+		double folded = x % (range * 2);
+
+		if (folded < 0)
+			folded += range * 2;
+		if (folded > range)
+			folded = (range * 2) - folded;
+
+		return min + folded;
+	}
+}
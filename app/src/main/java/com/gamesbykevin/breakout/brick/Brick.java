@@ -1,146 +1,156 @@
 package com.gamesbykevin.breakout.brick;
 
-import com.gamesbykevin.breakout.activity.GameActivity;
-import com.gamesbykevin.breakout.entity.Entity;
-import com.gamesbykevin.breakout.common.ICommon;
+import static com.gamesbykevin.breakout.simulation.World.FPS;
 
-import javax.microedition.khronos.opengles.GL10;
-
-import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.FPS;
-import static com.gamesbykevin.breakout.opengl.Textures.getTextureIdParticle;
-
-public final class Brick extends Entity implements ICommon
+/**
+ * A view of a single brick on the board, the state of the brick is stored in {@link Bricks}
+ */
+public final class Brick
 {
-	//is the brick dead?
-	private boolean dead = false;
-	
-	//is this brick not meant to be destroyed?
-	private boolean solid = false;
-	
-	//will this brick become a power up
-	private boolean powerup = false;
-	
-	//how many frames has the brick been dead
-	private int frames = FRAMES_PARTICLE_LIMIT + 1;
-	
 	/**
-	 * The number of frames to show the particles before we hide
+	 * The number of steps to show the particles of a destroyed brick
 	 */
-	private static final int FRAMES_PARTICLE_LIMIT = (FPS / 4);
-	
+	public static final int PARTICLE_LIFETIME = (FPS / 4);
+
 	/**
 	 * The size of a single particle
 	 */
-	private static final int PARTICLE_DIMENSION = 10;
+	public static final int PARTICLE_DIMENSION = 10;
 
 	/**
-	 * How fast the particles move
+	 * How fast the particles move on each axis
 	 */
-	private static final int PARTICLE_SPEED = (PARTICLE_DIMENSION / 2);
-	
+	public static final int PARTICLE_SPEED = (PARTICLE_DIMENSION / 2);
+
 	/**
 	 * Animation width of a brick
 	 */
 	public static final int WIDTH_ANIMATION = 40;
-	
+
 	/**
 	 * Animation height of a brick
 	 */
 	public static final int HEIGHT_ANIMATION = 20;
-	
+
 	/**
 	 * Default width of a brick
 	 */
 	public static final int WIDTH_NORMAL = 40;
-	
+
 	/**
 	 * Default height of a brick
 	 */
 	public static final int HEIGHT_NORMAL = 20;
-	
+
 	/**
 	 * The number of times a solid brick can be hit before it is dead
 	 */
-	private static final int COLLISIONS_LIMIT_SOLID = 3;
-	
+	static final byte COLLISIONS_LIMIT_SOLID = 3;
+
 	/**
 	 * The number of times a non-solid brick can be hit before it is dead
 	 */
-	private static final int COLLISIONS_LIMIT = 1;
-	
-	
-	//the number of collisions required before the brick is dead
-	private int collisions;
+	static final byte COLLISIONS_LIMIT = 1;
+
+	//the bricks we are a view of
+	private final Bricks bricks;
 
-	//the particle id when the  brick is dead
-	private int particleTextureId = 0;
+	//our index on the board (row * cols + col)
+	private final int index;
 
 	/**
 	 * Default Constructor
+	 * @param bricks The bricks we are a view of
+	 * @param index Our index on the board (row * cols + col)
 	 */
-	protected Brick()
+	protected Brick(final Bricks bricks, final int index)
 	{
-		super(WIDTH_NORMAL, HEIGHT_NORMAL);
+		this.bricks = bricks;
+		this.index = index;
 	}
-	
-	@Override
-	public final void reset() 
+
+	/**
+	 * Reset the brick so it is alive, breakable and without a power up
+	 */
+	public void reset()
 	{
-		//flag dead false
-		setDead(false);
-		
-		//flag solid false
-		setSolid(false);
-
-		//flag power up false
-		setPowerup(false);
-		
-		//make sure it doesn't have any particles (yet :))
-		removeParticles();
+		bricks.reset(this.index);
 	}
-	
+
 	/**
-	 * Add particle effects
+	 * Get the index
+	 * @return Our index on the board (row * cols + col)
 	 */
-	public void addParticles()
+	public int getIndex()
 	{
-		//reset frame count
-		this.frames = 0;
-
-		//pick a texture id
-		assignParticleTextureId();
+		return this.index;
 	}
 
-	public float getTransparency() {
-
-		//if the brick is solid we have to calculate transparency
-		if (isSolid()) {
-			return ((float)collisions / (float)COLLISIONS_LIMIT_SOLID);
-		} else {
-			return 1.0f;
-		}
+	/**
+	 * Get the row
+	 * @return The row of the brick on the board
+	 */
+	public int getRow()
+	{
+		return this.index / bricks.getCols();
 	}
-	
+
 	/**
-	 * Remove the particles for this brick
+	 * Get the col
+	 * @return The column of the brick on the board
 	 */
-	public void removeParticles()
+	public int getCol()
+	{
+		return this.index % bricks.getCols();
+	}
+
+	public double getX()
+	{
+		return Bricks.getBrickX(getCol());
+	}
+
+	public double getY()
+	{
+		return Bricks.getBrickY(getRow());
+	}
+
+	public double getWidth()
+	{
+		return WIDTH_NORMAL;
+	}
+
+	public double getHeight()
 	{
-		//exceed frame limit
-		this.frames = FRAMES_PARTICLE_LIMIT;
+		return HEIGHT_NORMAL;
 	}
-	
+
+	public float getTransparency() {
+		return bricks.getTransparency(this.index);
+	}
+
 	/**
 	 * Flag the brick dead
 	 * @param dead true if dead, false otherwise
 	 */
 	public void setDead(final boolean dead)
 	{
-		this.dead = dead;
+		bricks.setDead(this.index, dead);
 	}
 
-	public void assignParticleTextureId() {
-		this.particleTextureId = getTextureIdParticle();
+	/**
+	 * Assign the animation
+	 * @param key The brick animation we want to display
+	 */
+	public void setKey(final Bricks.Key key) {
+		bricks.setKey(this.index, key);
+	}
+
+	/**
+	 * Get the animation
+	 * @return The brick animation we want to display
+	 */
+	public Bricks.Key getKey() {
+		return bricks.getKey(this.index);
 	}
 
 	/**
@@ -149,49 +159,39 @@ public final class Brick extends Entity implements ICommon
 	 */
 	public boolean isDead()
 	{
-		return this.dead;
+		return !bricks.isAlive(this.index);
 	}
-	
+
 	public void setPowerup(final boolean powerup)
 	{
-		this.powerup = powerup;
+		bricks.setPowerup(this.index, powerup);
 	}
-	
+
 	/**
 	 * Is this brick a power up?
 	 * @return true = yes, false = no;
 	 */
 	public boolean hasPowerup()
 	{
-		return this.powerup;
+		return bricks.hasPowerup(this.index);
 	}
-	
+
 	/**
 	 * Flag if the brick can be broken
 	 * @param solid true if solid and can't be broken, false otherwise
 	 */
 	public void setSolid(final boolean solid)
 	{
-		this.solid = solid;
-		
-		//if the brick is solid assign the collisions
-		if (isSolid())
-		{
-			setCollisions(COLLISIONS_LIMIT_SOLID);
-		}
-		else
-		{
-			setCollisions(COLLISIONS_LIMIT);
-		}
+		bricks.setSolid(this.index, solid);
 	}
-	
+
 	/**
 	 * Is the brick solid?
 	 * @return true if solid and can't be broken, false otherwise
 	 */
 	public boolean isSolid()
 	{
-		return this.solid;
+		return bricks.isSolid(this.index);
 	}
 
 	/**
@@ -200,103 +200,23 @@ public final class Brick extends Entity implements ICommon
 	 */
 	public void setCollisions(final int collisions)
 	{
-		this.collisions = collisions; 
+		bricks.setCollisions(this.index, collisions);
 	}
-	
+
 	/**
 	 * Get the collisions
 	 * @return The number of collisions remaining
 	 */
 	public int getCollisions()
 	{
-		return this.collisions;
+		return bricks.getCollisions(this.index);
 	}
-	
+
 	/**
 	 * Mark collision for the ball
 	 */
 	public void markCollision()
 	{
-		setCollisions(getCollisions() - 1);
-		
-		//if there are no more collisions remaining
-		if (getCollisions() <= 0)
-		{
-			//flag dead
-			setDead(true);
-			
-			//add particles
-			addParticles();
-		}
-	}
-
-	@Override
-	public void dispose() 
-	{
-		super.dispose();
-	}
-
-	@Override
-	public void update(GameActivity activity)
-	{
-		//do we need to do anything here
-	}
-
-	@Override
-	public void render(GL10 openGL)
-	{
-		//if dead render particles
-		if (isDead())
-		{
-			//only render the particles for a limited number of frames
-			if (frames <= FRAMES_PARTICLE_LIMIT)
-			{
-				//increase the frames
-				frames++;
-
-				//assign the particle texture id
-				super.setTextureId(particleTextureId);
-
-				//store values
-				final double x = getX();
-				final double y = getY();
-				final double w = getWidth();
-				final double h = getHeight();
-				
-				//the middle coordinate
-				final double mx = x + (w / 2);
-				final double my = y + (h / 2);
-				
-				//assign dimension for the particle
-				super.setWidth(PARTICLE_DIMENSION);
-				super.setHeight(PARTICLE_DIMENSION);
-				
-				//place particle and then render (nw)
-				super.setX(mx - (frames * PARTICLE_SPEED));
-				super.setY(my - (frames * PARTICLE_SPEED));
-				super.render(openGL);
-				
-				//place particle and then render (ne)
-				super.setX(mx + (frames * PARTICLE_SPEED));
-				super.setY(my - (frames * PARTICLE_SPEED));
-				super.render(openGL);
-				
-				//place particle and then render (sw)
-				super.setX(mx - (frames * PARTICLE_SPEED));
-				super.setY(my + (frames * PARTICLE_SPEED));
-				super.render(openGL);
-				
-				//place particle and then render (se)
-				super.setX(mx + (frames * PARTICLE_SPEED));
-				super.setY(my + (frames * PARTICLE_SPEED));
-				super.render(openGL);
-				
-				//restore values
-				super.setX(x);
-				super.setY(y);
-				super.setWidth(w);
-				super.setHeight(h);
-			}
-		}
+		bricks.markCollision(this.index);
 	}
-}
\ No newline at end of file
+}
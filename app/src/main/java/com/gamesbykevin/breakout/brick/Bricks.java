@@ -1,17 +1,19 @@
 package com.gamesbykevin.breakout.brick;
 
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.common.ICommon;
 import com.gamesbykevin.breakout.entity.Entity;
-import com.gamesbykevin.breakout.util.UtilityHelper;
+import com.gamesbykevin.breakout.particle.Emitter;
+import com.gamesbykevin.breakout.particle.Particles;
+import com.gamesbykevin.breakout.simulation.World;
 
-import javax.microedition.khronos.opengles.GL10;
+import java.util.Arrays;
 
+/**
+ * The board of bricks.<br>
+ * Each brick is stored in parallel arrays indexed by row * cols + col, a {@link Brick} is only a view of one index
+ */
 public class Bricks extends Entity implements ICommon
 {
-	//array list of bricks
-	private Brick[][] bricks;
-	
 	/**
 	 * The different animations for each brick
 	 */
@@ -30,8 +32,6 @@ public class Bricks extends Entity implements ICommon
 		//the code that we can match to this key
 		private final String code;
 
-		private int textureId = 0;
-
 		private Key(final int x, final int y, final String code)
 		{
 			//assign animation coordinates
@@ -42,14 +42,6 @@ public class Bricks extends Entity implements ICommon
 			this.code = code;
 		}
 
-		public void setTextureId(int textureId) {
-			this.textureId = textureId;
-		}
-
-		public int getTextureId() {
-			return this.textureId;
-		}
-
 		/**
 		 * Do we have a matching code?
 		 * @param code The code we want to check
@@ -119,8 +111,54 @@ public class Bricks extends Entity implements ICommon
 	 */
 	public static final int START_Y = 20;
 
-	//is the brick board complete?
-	private boolean complete = false;
+	/**
+	 * The particles added when a brick is destroyed, they fly out diagonally from the middle of the brick
+	 */
+	public static final Emitter EMITTER = new Emitter(4, (float)(Brick.PARTICLE_SPEED * Math.sqrt(2)), Brick.PARTICLE_LIFETIME, Brick.PARTICLE_DIMENSION, 0, Particles.TOTAL_TEXTURES);
+
+	/**
+	 * The flag for a brick that is dead
+	 */
+	private static final byte FLAG_DEAD = 1;
+
+	/**
+	 * The flag for a brick that can't be broken
+	 */
+	private static final byte FLAG_SOLID = 2;
+
+	/**
+	 * The flag for a brick that will become a power up
+	 */
+	private static final byte FLAG_POWERUP = 4;
+
+	/**
+	 * The key of a brick with no animation assigned
+	 */
+	private static final byte KEY_NONE = -1;
+
+	//every key so we can look them up by ordinal
+	private static final Key[] KEYS = Key.values();
+
+	//the size of the board
+	private int rows = 0, cols = 0;
+
+	//one bit per brick (row * cols + col), set while the brick is alive, so we can check many bricks at once
+	private long[] alive;
+
+	//the animation (key ordinal) of each brick
+	private byte[] keys;
+
+	//the number of collisions remaining before each brick is dead
+	private byte[] collisions;
+
+	//the dead, solid and power up flags of each brick
+	private byte[] flags;
+
+	//a view of each brick, so we can hand out a brick without creating one
+	private Brick[] views;
+
+	//the number of live breakable and solid bricks
+	private int breakable = 0, solid = 0;
 
 	//how many bricks do we begin with
 	private int beginTotal = 0;
@@ -128,26 +166,38 @@ public class Bricks extends Entity implements ICommon
 	//how many have we destroyed
 	private int destroyed = 0;
 
+	//changed every time a brick looks different
+	private int version = 0;
+
+	//where we add the particles when a brick is destroyed, can be null
+	private final Particles particles;
+
+	/**
+	 * Create the bricks without any particles
+	 */
 	public Bricks()
+	{
+		this(null);
+	}
+
+	/**
+	 * Create the bricks
+	 * @param particles Where we add the particles when a brick is destroyed
+	 */
+	public Bricks(final Particles particles)
 	{
 		super(Brick.WIDTH_NORMAL, Brick.HEIGHT_NORMAL);
+
+		//store our particles
+		this.particles = particles;
 	}
 	
 	@Override
 	public final void reset() 
 	{
-		if (this.bricks != null) {
-
-			//only create new if size changed
-			if (this.bricks.length != getRow() || this.bricks[0].length != getCol())
-				this.bricks = new Brick[(int) getRow()][(int) getCol()];
-		} else {
-			//create a new array list for the bricks
-			this.bricks = new Brick[(int) getRow()][(int) getCol()];
-		}
-
-		//flag brick board as not complete
-		this.complete = false;
+		//only create new if size changed
+		if (this.views == null || this.rows != getRow() || this.cols != getCol())
+			create();
 
 		//the size of the bricks
 		final int width = Brick.WIDTH_NORMAL, height = Brick.HEIGHT_NORMAL;
@@ -159,47 +209,437 @@ public class Bricks extends Entity implements ICommon
 		//reset the number of destroyed bricks back to 0
 		setDestroyed(0);
 
-		//create a brick at every position and mark dead (to start)
-		for (int row = 0; row < getBricks().length; row++)
+		//make sure all bricks are dead (to start)
+		Arrays.fill(this.alive, 0L);
+		this.breakable = 0;
+		this.solid = 0;
+
+		//reset every brick
+		Arrays.fill(this.flags, FLAG_DEAD);
+		Arrays.fill(this.collisions, Brick.COLLISIONS_LIMIT);
+		this.version++;
+	}
+
+	/**
+	 * Create the arrays for every brick on a board of the current size
+	 */
+	private void create()
+	{
+		this.rows = (int) getRow();
+		this.cols = (int) getCol();
+
+		final int size = this.rows * this.cols;
+
+		this.alive = new long[(size + 63) >>> 6];
+		this.keys = new byte[size];
+		this.collisions = new byte[size];
+		this.flags = new byte[size];
+		this.views = new Brick[size];
+
+		//no animation is assigned yet
+		Arrays.fill(this.keys, KEY_NONE);
+
+		for (int index = 0; index < size; index++)
 		{
-			for (int col = 0; col < getBricks()[0].length; col++)
-			{
-				//if a brick does not exist we will create it
-				if (getBricks()[row][col] == null)
-					getBricks()[row][col] = new Brick();
+			this.views[index] = new Brick(this, index);
+		}
+	}
+
+	/**
+	 * Get the rows
+	 * @return The number of rows on the board
+	 */
+	public int getRows()
+	{
+		return this.rows;
+	}
+
+	/**
+	 * Get the cols
+	 * @return The number of columns on the board
+	 */
+	public int getCols()
+	{
+		return this.cols;
+	}
+
+	/**
+	 * Get the index
+	 * @param row Row
+	 * @param col Column
+	 * @return The index of the brick (row * cols + col)
+	 */
+	public int getIndex(final int row, final int col)
+	{
+		return (row * this.cols) + col;
+	}
+
+	/**
+	 * Get the brick
+	 * @param row Row
+	 * @param col Column
+	 * @return A view of the brick at the location
+	 */
+	public Brick getBrick(final int row, final int col)
+	{
+		return this.views[getIndex(row, col)];
+	}
+
+	/**
+	 * Get the brick
+	 * @param index The index of the brick (row * cols + col)
+	 * @return A view of the brick
+	 */
+	public Brick getBrick(final int index)
+	{
+		return this.views[index];
+	}
+
+	/**
+	 * Reset the brick so it is alive, breakable and without a power up
+	 * @param index The index of the brick
+	 */
+	public void reset(final int index)
+	{
+		//flag dead false
+		setDead(index, false);
+
+		//flag solid false
+		setSolid(index, false);
+
+		//flag power up false
+		setPowerup(index, false);
+	}
+
+	/**
+	 * Get the x-coordinate of a brick
+	 * @param col Column
+	 * @return The x-coordinate of every brick in the column
+	 */
+	public static double getBrickX(final int col)
+	{
+		return START_X + (col * Brick.WIDTH_NORMAL);
+	}
+
+	/**
+	 * Get the y-coordinate of a brick
+	 * @param row Row
+	 * @return The y-coordinate of every brick in the row
+	 */
+	public static double getBrickY(final int row)
+	{
+		return START_Y + (row * Brick.HEIGHT_NORMAL);
+	}
 
-				//assign correct position
-				getBricks()[row][col].setX(START_X + (col * width));
-				getBricks()[row][col].setY(START_Y + (row * height));
+	/**
+	 * Is the brick alive?
+	 * @param index The index of the brick
+	 * @return true if the brick is not dead, false otherwise
+	 */
+	public boolean isAlive(final int index)
+	{
+		return (this.flags[index] & FLAG_DEAD) == 0;
+	}
 
-				//ensure correct dimensions are assigned
-				getBricks()[row][col].setWidth(width);
-				getBricks()[row][col].setHeight(height);
+	/**
+	 * Is the brick alive?
+	 * @param row Row
+	 * @param col Column
+	 * @return true if the brick is not dead, false otherwise
+	 */
+	public boolean isAlive(final int row, final int col)
+	{
+		return isAlive(getIndex(row, col));
+	}
 
-				//reset brick
-				getBricks()[row][col].reset();
+	/**
+	 * Flag the brick dead
+	 * @param index The index of the brick
+	 * @param dead true if dead, false otherwise
+	 */
+	public void setDead(final int index, final boolean dead)
+	{
+		//nothing changed
+		if (isAlive(index) != dead)
+			return;
 
-				//make sure all bricks are dead
-				getBricks()[row][col].setDead(true);
+		this.version++;
+
+		if (dead)
+		{
+			this.flags[index] |= FLAG_DEAD;
+			this.alive[index >>> 6] &= ~(1L << index);
+
+			if (isSolid(index))
+				this.solid--;
+			else
+				this.breakable--;
+		}
+		else
+		{
+			this.flags[index] &= ~FLAG_DEAD;
+			this.alive[index >>> 6] |= (1L << index);
+
+			if (isSolid(index))
+				this.solid++;
+			else
+				this.breakable++;
+		}
+	}
+
+	/**
+	 * Is the brick solid?
+	 * @param index The index of the brick
+	 * @return true if solid and can't be broken, false otherwise
+	 */
+	public boolean isSolid(final int index)
+	{
+		return (this.flags[index] & FLAG_SOLID) != 0;
+	}
+
+	/**
+	 * Flag if the brick can be broken, the collisions are assigned to match
+	 * @param index The index of the brick
+	 * @param solid true if solid and can't be broken, false otherwise
+	 */
+	public void setSolid(final int index, final boolean solid)
+	{
+		//a live brick moves between the breakable and solid counts
+		if (isSolid(index) != solid && isAlive(index))
+		{
+			if (solid)
+			{
+				this.breakable--;
+				this.solid++;
 			}
+			else
+			{
+				this.solid--;
+				this.breakable++;
+			}
+		}
+
+		if (solid)
+		{
+			this.flags[index] |= FLAG_SOLID;
+			this.collisions[index] = Brick.COLLISIONS_LIMIT_SOLID;
+		}
+		else
+		{
+			this.flags[index] &= ~FLAG_SOLID;
+			this.collisions[index] = Brick.COLLISIONS_LIMIT;
+		}
+
+		this.version++;
+	}
+
+	/**
+	 * Is this brick a power up?
+	 * @param index The index of the brick
+	 * @return true = yes, false = no;
+	 */
+	public boolean hasPowerup(final int index)
+	{
+		return (this.flags[index] & FLAG_POWERUP) != 0;
+	}
+
+	/**
+	 * Flag the brick as a power up
+	 * @param index The index of the brick
+	 * @param powerup true = yes, false = no;
+	 */
+	public void setPowerup(final int index, final boolean powerup)
+	{
+		if (powerup)
+			this.flags[index] |= FLAG_POWERUP;
+		else
+			this.flags[index] &= ~FLAG_POWERUP;
+	}
+
+	/**
+	 * Get the animation
+	 * @param index The index of the brick
+	 * @return The brick animation we want to display, null if none is assigned
+	 */
+	public Key getKey(final int index)
+	{
+		return (this.keys[index] == KEY_NONE) ? null : KEYS[this.keys[index]];
+	}
+
+	/**
+	 * Assign the animation
+	 * @param index The index of the brick
+	 * @param key The brick animation we want to display
+	 */
+	public void setKey(final int index, final Key key)
+	{
+		this.keys[index] = (key == null) ? KEY_NONE : (byte)key.ordinal();
+		this.version++;
+	}
+
+	/**
+	 * Get the collisions
+	 * @param index The index of the brick
+	 * @return The number of collisions remaining
+	 */
+	public int getCollisions(final int index)
+	{
+		return this.collisions[index];
+	}
+
+	/**
+	 * Assign the collisions
+	 * @param index The index of the brick
+	 * @param collisions The number of collisions remaining before the brick is dead
+	 */
+	public void setCollisions(final int index, final int collisions)
+	{
+		this.collisions[index] = (byte)collisions;
+		this.version++;
+	}
+
+	/**
+	 * Mark collision for the brick, once there are no more collisions remaining the brick is dead
+	 * @param index The index of the brick
+	 */
+	public void markCollision(final int index)
+	{
+		this.collisions[index]--;
+
+		//a solid brick fades with each hit
+		this.version++;
+
+		//if there are no more collisions remaining
+		if (this.collisions[index] <= 0)
+		{
+			//flag dead
+			setDead(index, true);
+
+			//add particles
+			if (this.particles != null)
+				this.particles.emit(EMITTER, getBrickX(index % this.cols) + (Brick.WIDTH_NORMAL / 2), getBrickY(index / this.cols) + (Brick.HEIGHT_NORMAL / 2));
+		}
+	}
+
+	/**
+	 * Get the transparency
+	 * @param index The index of the brick
+	 * @return The transparency to draw the brick, a solid brick fades with each hit
+	 */
+	public float getTransparency(final int index)
+	{
+		//if the brick is solid we have to calculate transparency
+		if (isSolid(index)) {
+			return ((float)this.collisions[index] / (float)Brick.COLLISIONS_LIMIT_SOLID);
+		} else {
+			return 1.0f;
+		}
+	}
+
+	/**
+	 * Get the version, a renderer can keep a copy of the board until it changes
+	 * @return A number that changes every time a brick is added, removed or looks different
+	 */
+	public int getVersion()
+	{
+		return this.version;
+	}
+
+	/**
+	 * Are any bricks alive in the rows?
+	 * @param rowStart The first row to check
+	 * @param rowEnd The last row to check (inclusive)
+	 * @return true if at least one brick in the rows is not dead, false otherwise
+	 */
+	public boolean hasAlive(final int rowStart, final int rowEnd)
+	{
+		if (rowStart > rowEnd)
+			return false;
+
+		//the range of bits covering the rows
+		final int from = rowStart * this.cols;
+		final int to = (rowEnd + 1) * this.cols;
+
+		//the words containing the first and last bit
+		final int first = from >>> 6;
+		final int last = (to - 1) >>> 6;
+
+		//masks to ignore the bits before and after our range
+		final long firstMask = -1L << from;
+		final long lastMask = -1L >>> -to;
+
+		if (first == last)
+			return (this.alive[first] & firstMask & lastMask) != 0;
+
+		if ((this.alive[first] & firstMask) != 0)
+			return true;
+
+		for (int i = first + 1; i < last; i++)
+		{
+			if (this.alive[i] != 0)
+				return true;
+		}
+
+		return (this.alive[last] & lastMask) != 0;
+	}
+
+	/**
+	 * Get the next live brick
+	 * @param from The index of the brick to start checking at
+	 * @return The index of the first live brick at or after the index, -1 if there are none
+	 */
+	public int nextAlive(final int from)
+	{
+		int word = from >>> 6;
+
+		if (word >= this.alive.length)
+			return -1;
+
+		//ignore the bricks before our index
+		long bits = this.alive[word] & (-1L << from);
+
+		while (bits == 0)
+		{
+			if (++word == this.alive.length)
+				return -1;
+
+			bits = this.alive[word];
+		}
+
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Get the lowest live brick in the column
+	 * @param col Column
+	 * @return The row of the live brick closest to the paddle, -1 if the column is empty
+	 */
+	public int getLowestAlive(final int col)
+	{
+		for (int row = this.rows - 1; row >= 0; row--)
+		{
+			if (isAlive(row, col))
+				return row;
 		}
+
+		return -1;
 	}
 
 	/**
-	 * Get the bricks array
-	 * @return The array of bricks in play
+	 * Do we have a board?
+	 * @return true if the bricks have been created, false otherwise
 	 */
-	public Brick[][] getBricks()
+	public boolean hasBricks()
 	{
-		return this.bricks;
+		return (this.views != null);
 	}
 
 	/**
 	 * Is the brick board complete?
-	 * @return true if all bricks are flagged dead, false otherwise
+	 * @return true if all breakable bricks are flagged dead, false otherwise
 	 */
 	public boolean isComplete() {
-		return this.complete;
+		return (hasBricks() && this.breakable == 0);
 	}
 
 	/**
@@ -208,24 +648,16 @@ public class Bricks extends Entity implements ICommon
 	 */
 	public int getCount()
 	{
-		//track the count
-		int count = 0;
-		
-		for (int row = 0; row < getBricks().length; row++)
-		{
-			for (int col = 0;  col < getBricks()[0].length; col++)
-			{
-				if (getBricks()[row][col] != null)
-				{
-					//if the brick is not dead and not solid, add to the count
-					if (!getBricks()[row][col].isDead() && !getBricks()[row][col].isSolid())
-						count++;
-				}
-			}
-		}
-		
-		//return our result
-		return count;
+		return this.breakable;
+	}
+
+	/**
+	 * Count the number of solid bricks
+	 * @return The total number of solid bricks that are not flagged dead
+	 */
+	public int getSolidCount()
+	{
+		return this.solid;
 	}
 	
 	@Override
@@ -233,16 +665,14 @@ public class Bricks extends Entity implements ICommon
 	{
 		super.dispose();
 
-		if (getBricks() != null) {
-			for (int row = 0; row < getBricks().length; row++) {
-				for (int col = 0; col < getBricks()[0].length; col++) {
-					if (getBricks()[row][col] != null)
-						getBricks()[row][col] = null;
-				}
-			}
-		}
-		
-		this.bricks = null;
+		this.alive = null;
+		this.keys = null;
+		this.collisions = null;
+		this.flags = null;
+		this.views = null;
+		this.rows = 0;
+		this.cols = 0;
+		this.version++;
 	}
 
 	/**
@@ -274,75 +704,8 @@ public class Bricks extends Entity implements ICommon
 	}
 
 	@Override
-	public void update(GameActivity activity)
+	public void update(final World world)
 	{
-		//if the number of destroyed bricks
-		if (getDestroyed() == getBeginTotal())
-			this.complete = true;
-	}
-	
-	@Override
-	public void render(final GL10 openGL)
-	{
-		//can't render the bricks if they are not there
-		if (getBricks() == null)
-			return;
-
-		for (int row = 0; row < getBricks().length; row++)
-		{
-			for (int col = 0; col < getBricks()[0].length; col++)
-			{
-				try {
-					//just make sure we are still in bounds
-					if (row >= getBricks().length)
-						continue;
-					if (col >= getBricks()[0].length)
-						continue;
-
-					//get the current brick
-					final Brick brick = getBricks()[row][col];
-
-					//skip if it does not exist
-					if (brick == null)
-						continue;
-
-					//get the bricks texture
-					super.setTextureId(brick.getTextureId());
-
-					//is the brick dead?
-					if (!brick.isDead()) {
-
-						//has the board been completed
-						this.complete = false;
-
-						//position brick
-						super.setX(brick.getX());
-						super.setY(brick.getY());
-
-						//if the brick is solid apply transparency
-						if (brick.isSolid()) {
-
-							//assign the correct transparency
-							openGL.glColor4f(1.0f, 1.0f, 1.0f, brick.getTransparency());
-
-							//render the brick
-							super.render(openGL);
-
-							//now stop transparency so everything else rendered after doesn't suffer
-							openGL.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
-
-						} else {
-							//render brick
-							super.render(openGL);
-						}
-					} else {
-						//render brick particles (if exist)
-						brick.render(openGL);
-					}
-				} catch (Exception e) {
-					UtilityHelper.handleException(e);
-				}
-			}
-		}
+		//nothing to update, completion is tracked as the bricks die
 	}
 }
\ No newline at end of file
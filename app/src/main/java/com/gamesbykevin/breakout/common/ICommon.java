@@ -1,25 +1,18 @@
 package com.gamesbykevin.breakout.common;
 
 import com.gamesbykevin.androidframework.resources.Disposable;
-import com.gamesbykevin.breakout.activity.GameActivity;
-
-import javax.microedition.khronos.opengles.GL10;
+import com.gamesbykevin.breakout.simulation.World;
 
 public interface ICommon extends Disposable
 {
 	/**
 	 * Update the entity
+	 * @param world The world we are simulating
 	 */
-	public void update(GameActivity activity);
+	public void update(final World world);
 
 	/**
 	 * Logic to reset
 	 */
 	public void reset();
-	
-	/**
-	 * Render the entity
-	 * @param openGL Object used to render pixels
-	 */
-	public void render(final GL10 openGL);
-}
\ No newline at end of file
+}
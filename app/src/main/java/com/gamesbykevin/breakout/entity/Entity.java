@@ -1,35 +1,27 @@
 package com.gamesbykevin.breakout.entity;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.FloatBuffer;
+import com.gamesbykevin.androidframework.base.Cell;
+import com.gamesbykevin.androidframework.resources.Disposable;
 
-import javax.microedition.khronos.opengles.GL10;
-
-public class Entity extends com.gamesbykevin.androidframework.base.Entity
+public class Entity extends Cell implements Disposable
 {
 	//is the power up hidden
 	private boolean hidden = false;
 
-	private FloatBuffer vertexBuffer;
-	private FloatBuffer textureBuffer;
+	//location of the entity
+	private double x, y;
+
+	//dimensions of the entity
+	private double w, h;
 
-	private float[] vertices = {
-			0.0f, 0.0f, 0.0f,
-			0.0f, 1.0f, 0.0f,
-			1.0f, 0.0f, 0.0f,
-			1.0f, 1.0f, 0.0f
-	};
+	//velocity of the entity
+	private double dx, dy;
 
-	private float[] textures = {
-			0.0f, 0.0f,
-			0.0f, 1.0f,
-			1.0f, 0.0f,
-			1.0f, 1.0f
-	};
+	//location at the previous step so the render can interpolate between steps
+	private double previousX, previousY;
 
-	//texture id so we know what to render
-	private int textureId;
+	//was the entity hidden at the previous step
+	private boolean previousHidden = true;
 
 	//current facing angle of the entity
 	private float angle = 0.0f;
@@ -43,26 +35,96 @@ public class Entity extends com.gamesbykevin.androidframework.base.Entity
 	public Entity(final int width, final int height)
 	{
 		super();
-		
+
 		//assign dimensions
-		super.setWidth(width);
-		
+		setWidth(width);
+
 		//assign dimensions
-		super.setHeight(height);
+		setHeight(height);
+	}
+
+	public void setX(final Entity entity) {
+		setX(entity.getX());
+	}
+
+	public void setX(final double x) {
+		this.x = x;
+	}
+
+	public double getX() {
+		return this.x;
+	}
+
+	public void setY(final Entity entity) {
+		setY(entity.getY());
+	}
+
+	public void setY(final double y) {
+		this.y = y;
+	}
+
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Store the current location as the previous step.<br>
+	 * This is done at the start of each step, and whenever the entity is moved outside of a step
+	 */
+	public void storePrevious() {
+		this.previousX = this.x;
+		this.previousY = this.y;
+		this.previousHidden = this.hidden;
+	}
+
+	/**
+	 * Get the x-coordinate between the previous and current step
+	 * @param alpha How far we are between the steps (0.0 - 1.0)
+	 * @return The interpolated x-coordinate, if the entity just appeared the current x-coordinate
+	 */
+	public double getX(final float alpha) {
+		return (this.previousHidden) ? this.x : this.previousX + ((this.x - this.previousX) * alpha);
+	}
+
+	/**
+	 * Get the y-coordinate between the previous and current step
+	 * @param alpha How far we are between the steps (0.0 - 1.0)
+	 * @return The interpolated y-coordinate, if the entity just appeared the current y-coordinate
+	 */
+	public double getY(final float alpha) {
+		return (this.previousHidden) ? this.y : this.previousY + ((this.y - this.previousY) * alpha);
+	}
 
-		//create our vertices buffer
-		ByteBuffer vbb = ByteBuffer.allocateDirect(vertices.length * 4);
-		vbb.order(ByteOrder.nativeOrder());
-		vertexBuffer = vbb.asFloatBuffer();
-		vertexBuffer.put(vertices);
-		vertexBuffer.position(0);
+	public void setWidth(final double w) {
+		this.w = w;
+	}
+
+	public double getWidth() {
+		return this.w;
+	}
+
+	public void setHeight(final double h) {
+		this.h = h;
+	}
+
+	public double getHeight() {
+		return this.h;
+	}
+
+	public void setDX(final double dx) {
+		this.dx = dx;
+	}
 
-		//create our texture buffer
-		ByteBuffer tbb = ByteBuffer.allocateDirect(textures.length * 4);
-		tbb.order(ByteOrder.nativeOrder());
-		textureBuffer = tbb.asFloatBuffer();
-		textureBuffer.put(textures);
-		textureBuffer.position(0);
+	public double getDX() {
+		return this.dx;
+	}
+
+	public void setDY(final double dy) {
+		this.dy = dy;
+	}
+
+	public double getDY() {
+		return this.dy;
 	}
 
 	public void setRotation(final boolean rotation) {
@@ -89,7 +151,7 @@ public class Entity extends com.gamesbykevin.androidframework.base.Entity
 	{
 		this.hidden = hidden;
 	}
-	
+
 	/**
 	 * Is the entity hidden
 	 * @return true if we don't want to interact/display with this entity
@@ -99,14 +161,6 @@ public class Entity extends com.gamesbykevin.androidframework.base.Entity
 		return this.hidden;
 	}
 
-	public void setTextureId(final int textureId) {
-		this.textureId = textureId;
-	}
-
-	public int getTextureId() {
-		return this.textureId;
-	}
-
 	/**
 	 * Is there collision?
 	 * @param entity The entity we want to check collision with
@@ -114,90 +168,36 @@ public class Entity extends com.gamesbykevin.androidframework.base.Entity
 	 */
 	public boolean hasCollision(final Entity entity)
 	{
-		//if this entity is not located in range of the other entity we can't have collision 
-		if (getX() + getWidth() < entity.getX())
+		return hasCollision(entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight());
+	}
+
+	/**
+	 * Is there collision?
+	 * @param x x-coordinate of the area we want to check collision with
+	 * @param y y-coordinate of the area we want to check collision with
+	 * @param w width of the area
+	 * @param h height of the area
+	 * @return true if this entity intersects the area, false otherwise
+	 */
+	public boolean hasCollision(final double x, final double y, final double w, final double h)
+	{
+		//if this entity is not located in range of the area we can't have collision
+		if (getX() + getWidth() < x)
 			return false;
-		if (getX() > entity.getX() + entity.getWidth())
+		if (getX() > x + w)
 			return false;
-		if (getY() + getHeight() < entity.getY())
+		if (getY() + getHeight() < y)
 			return false;
-		if (getY() > entity.getY() + entity.getHeight())
+		if (getY() > y + h)
 			return false;
-		
+
 		//we have collision
 		return true;
 	}
-	
+
 	@Override
 	public void dispose()
 	{
-		super.dispose();
-	}
-	
-	public void render(GL10 gl, double x, double y, double w, double h, int textureId) {
-		setX(x);
-		setY(y);
-		setWidth(w);
-		setHeight(h);
-		setTextureId(textureId);
-		render(gl);
-	}
-
-	public void render(GL10 gl) {
-
-		//don't render if hidden
-		if (isHidden())
-			return;
-
-		//get the coordinates
-		float x = (float)getX();
-		float y = (float)getY();
-		float w = (float)getWidth();
-		float h = (float)getHeight();
-
-		//use for quick transformations so it will only apply to this object
-		gl.glPushMatrix();
-
-		//if an angle is set rotate it
-		if (hasRotation()) {
-
-			//3. now move it back to complete the operation
-			gl.glTranslatef(x + (w/2), y + (h/2), 0.0f);
-
-			//2. now rotate the angle
-			gl.glRotatef(getAngle(), 0.0f, 0.0f, 1.0f);
-
-			//1. reset to origin as this open gl operation is done first (open gl operations done in reverse)
-			gl.glTranslatef( -(w/2), -(h/2), 0.0f);
-		} else {
-
-			//assign render coordinates
-			gl.glTranslatef(x, y, 0.0f);
-		}
-
-		//assign dimensions
-		gl.glScalef(w, h, 0.0f);
-
-		//enable texture rendering
-		gl.glEnable(GL10.GL_TEXTURE_2D);
-
-		//assign texture we want to use
-		gl.glBindTexture(GL10.GL_TEXTURE_2D, getTextureId());
-
-		//enable client state for our render
-		gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
-		gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
-
-		//provide our array of vertex coordinates
-		gl.glVertexPointer(3, GL10.GL_FLOAT, 0, vertexBuffer);
-
-		//coordinates on texture we want to render
-		gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, textureBuffer);
-
-		//render our texture based on the texture and vertex coordinates
-		gl.glDrawArrays(GL10.GL_TRIANGLE_STRIP, 0, vertices.length / 3);
-
-		//after rendering remove the transformation since we only needed it for this object
-		gl.glPopMatrix();
+		//nothing to recycle here
 	}
-}
\ No newline at end of file
+}
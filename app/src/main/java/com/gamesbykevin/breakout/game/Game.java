@@ -1,5 +1,6 @@
 package com.gamesbykevin.breakout.game;
 
+import android.content.Context;
 import android.view.MotionEvent;
 
 import com.gamesbykevin.breakout.R;
@@ -8,13 +9,21 @@ import com.gamesbykevin.breakout.ball.Balls;
 import com.gamesbykevin.breakout.brick.Bricks;
 import com.gamesbykevin.breakout.activity.GameActivity.Screen;
 import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.opengl.Snapshot;
 import com.gamesbykevin.breakout.paddle.Paddle;
 import com.gamesbykevin.breakout.powerup.Powerups;
+import com.gamesbykevin.breakout.random.Rng;
+import com.gamesbykevin.breakout.replay.Recorder;
+import com.gamesbykevin.breakout.simulation.Input;
+import com.gamesbykevin.breakout.simulation.Event;
+import com.gamesbykevin.breakout.simulation.IEventListener;
+import com.gamesbykevin.breakout.simulation.World;
 import com.gamesbykevin.breakout.util.StatDescription;
 import com.gamesbykevin.breakout.util.UtilityHelper;
 
-import javax.microedition.khronos.opengles.GL10;
+import java.io.FileOutputStream;
 
+import static com.gamesbykevin.breakout.activity.GameActivity.LEVELS;
 import static com.gamesbykevin.breakout.activity.GameActivity.STATISTICS;
 import static com.gamesbykevin.breakout.game.GameHelper.GAME_OVER_FRAMES_DELAY;
 import static com.gamesbykevin.breakout.game.GameHelper.GET_READY_FRAMES_LIMIT;
@@ -27,27 +36,32 @@ import static com.gamesbykevin.breakout.opengl.OpenGLRenderer.LOADED;
 /**
  * Created by Kevin on 7/19/2017.
  */
-public class Game {
+public class Game implements IEventListener {
 
-    //the collection of bricks
-    private Bricks bricks;
+    //the simulation containing the bricks, balls, paddle and power ups
+    private World world;
 
-    //the paddle in the game
-    private Paddle paddle;
+    //object for rendering a number
+    private StatDescription stat;
 
-    //the balls in the game
-    private Balls balls;
+    private final GameActivity activity;
 
-    //the power ups in the game
-    private Powerups powerups;
+    //picks the seed of each level attempt
+    private final Rng seeds;
+
+    /**
+     * The file containing the input of the last attempt that was won or lost
+     */
+    public static final String REPLAY_FILE_NAME = "last.replay";
 
-    //the object containing the levels
-    private Levels levels;
+    //the input received on the ui thread since the last step
+    private final Input pending;
 
-    //object for rendering a number
-    private StatDescription stat;
+    //the input applied to the current step
+    private final Input input;
 
-    private final GameActivity activity;
+    //records the input of the current attempt
+    private final Recorder recorder;
 
     //are we pressing on the screen
     private boolean press = false;
@@ -74,6 +88,14 @@ public class Game {
         //store activity reference
         this.activity = activity;
 
+        //every run is different, but each attempt can be replayed from its seed
+        this.seeds = new Rng(System.nanoTime());
+
+        //create our input and recorder
+        this.pending = new Input();
+        this.input = new Input();
+        this.recorder = new Recorder();
+
         //default to loading
         STEP = Step.Loading;
     }
@@ -95,8 +117,10 @@ public class Game {
 
     public void resume() {
 
-        //un freeze the balls
-        getBalls().setFrozen(false);
+        //un freeze the balls on the next step
+        synchronized (pending) {
+            pending.setRelease(true);
+        }
 
         //remove tap display
         GameHelper.TAP_START = false;
@@ -107,6 +131,23 @@ public class Game {
 
     public void reset() {
         GameHelper.resetLevel();
+
+        //a release or restart from the last attempt doesn't carry over
+        synchronized (pending) {
+            pending.clearEdges();
+        }
+
+        //start recording the new attempt
+        recorder.begin(STATISTICS.getIndex(), getWorld().getSeed());
+    }
+
+    /**
+     * Put the ball back on the paddle on the next step because the player lost a life
+     */
+    public void restart() {
+        synchronized (pending) {
+            pending.setRestart(true);
+        }
     }
 
     public void update() {
@@ -119,25 +160,11 @@ public class Game {
                 //if the textures have finished loading
                 if (LOADED) {
 
-                    //create new bricks container
-                    if (this.bricks == null)
-                        this.bricks = new Bricks();
-
-                    //create new paddle
-                    if (this.paddle == null)
-                        this.paddle = new Paddle();
-
-                    //create the balls
-                    if (this.balls == null)
-                        this.balls = new Balls();
-
-                    //create the power ups
-                    if (this.powerups == null)
-                        this.powerups = new Powerups();
-
-                    //create and load the levels
-                    if (this.levels == null)
-                        this.levels = new Levels(activity);
+                    //create the world
+                    if (this.world == null) {
+                        this.world = new World(nextSeed());
+                        this.world.subscribe(this);
+                    }
 
                     //if loaded display level select screen
                     activity.setScreen(Screen.LevelSelect);
@@ -166,17 +193,21 @@ public class Game {
 
             case Updating:
 
-                //update the bricks
-                getBricks().update(activity);
+                //take the input received since the last step
+                synchronized (pending) {
+                    input.copy(pending);
+                    pending.clearEdges();
+                }
 
-                //update the balls
-                getBalls().update(activity);
+                //record the input so the attempt can be replayed
+                recorder.record(input);
 
-                //update the paddle
-                getPaddle().update(activity);
+                //apply the input, then advance the simulation
+                input.apply(getWorld());
+                getWorld().step();
 
-                //update the power ups
-                getPowerups().update(activity);
+                //now that the step is done react to what happened (sound, vibration, lives)
+                getWorld().dispatchEvents();
 
                 //if the game is over, move to the next step
                 if (GameHelper.isGameOver()) {
@@ -191,6 +222,9 @@ public class Game {
                         STATISTICS.update(true);
                         STATISTICS.save();
 
+                        //the attempt is over
+                        saveReplay();
+
                         //play sound
                         activity.playSong(R.raw.complete);
 
@@ -209,8 +243,12 @@ public class Game {
                         getStatDescription().setDescription(lives);
 
                         //no more lives
-                        if (getStatDescription().getStatValue() <= 0)
+                        if (getStatDescription().getStatValue() <= 0) {
                             activity.playSong(R.raw.gameover);
+
+                            //the attempt is over
+                            saveReplay();
+                        }
                     }
 
                     //move to game over step
@@ -277,27 +315,89 @@ public class Game {
         }
     }
 
+    @Override
+    public void onEvent(final Event event, final int count) {
+
+        switch (event) {
+
+            case BrickHit:
+                activity.playSoundEffect(R.raw.ballbounce);
+                break;
+
+            case SolidBrickHit:
+                activity.playSoundEffect(R.raw.ballbouncesolid);
+                break;
+
+            case WallHit:
+                activity.playSoundEffect(R.raw.wallcollision);
+                break;
+
+            case BallLost:
+                activity.playSoundEffect(R.raw.loseball);
+                break;
+
+            case PaddleHit:
+                activity.playSoundEffect(R.raw.paddlecollision);
+
+                //vibrate when a ball hits the paddle
+                activity.vibrate();
+                break;
+
+            case PaddleCatch:
+                activity.playSoundEffect(R.raw.paddlecollision);
+                activity.playSoundEffect(R.raw.paddlecatch);
+                break;
+
+            case LaserFired:
+                activity.playSoundEffect(R.raw.laser);
+                break;
+
+            case PowerupCollected:
+                activity.playSoundEffect(R.raw.powerup);
+                break;
+
+            case FireballCollected:
+                activity.playSoundEffect(R.raw.firepickup);
+                break;
+
+            case ExtraLife:
+                //add a life for each one collected
+                getStatDescription().setDescription(getStatDescription().getStatValue() + count);
+
+                //play sound effect
+                activity.playSoundEffect(R.raw.newlife);
+                break;
+        }
+    }
+
+    /**
+     * Write the input of the current attempt so it can be replayed to reproduce a problem
+     */
+    private void saveReplay() {
+
+        //nothing to save if we aren't recording
+        if (!recorder.isRecording())
+            return;
+
+        try {
+            final FileOutputStream outputStream = activity.openFileOutput(REPLAY_FILE_NAME, Context.MODE_PRIVATE);
+
+            try {
+                recorder.writeTo(outputStream);
+            } finally {
+                outputStream.close();
+            }
+        } catch (Exception e) {
+            UtilityHelper.handleException(e);
+        }
+    }
+
     public void dispose() {
 
-        if (levels != null)
-            levels.dispose();
-        if (bricks != null)
-            bricks.dispose();
-        if (paddle != null)
-            paddle.dispose();
-        if (balls != null)
-            balls.dispose();
-        if (powerups != null)
-            powerups.dispose();
-        if (bricks != null)
-            bricks.dispose();
-
-        levels = null;
-        bricks = null;
-        paddle = null;
-        balls = null;
-        powerups = null;
-        bricks = null;
+        if (world != null)
+            world.dispose();
+
+        world = null;
     }
 
     public boolean onTouchEvent(final int action, final float x, final float y) {
@@ -358,11 +458,31 @@ public class Game {
     public void updateTilt(float destinationX, boolean touch, float velocityRatio) {
 
         //can't do anything if the paddle doesn't exist
-        if (getPaddle() == null)
+        if (getWorld() == null || getPaddle() == null)
             return;
 
-        //update the paddle accordingly
-        getPaddle().touch(destinationX, touch, velocityRatio);
+        //the paddle is updated at the start of the next step
+        synchronized (pending) {
+            pending.setTouch(destinationX, touch, velocityRatio);
+        }
+    }
+
+    /**
+     * Get the world
+     * @return The simulation containing the bricks, balls, paddle and power ups
+     */
+    public World getWorld()
+    {
+        return this.world;
+    }
+
+    /**
+     * Get the next seed
+     * @return The seed of the random events for a new level attempt
+     */
+    public long nextSeed()
+    {
+        return this.seeds.nextLong();
     }
 
     /**
@@ -371,7 +491,7 @@ public class Game {
      */
     public Levels getLevels()
     {
-        return this.levels;
+        return LEVELS;
     }
 
     /**
@@ -380,7 +500,7 @@ public class Game {
      */
     public Powerups getPowerups()
     {
-        return this.powerups;
+        return getWorld().getPowerups();
     }
 
     /**
@@ -389,7 +509,7 @@ public class Game {
      */
     public Balls getBalls()
     {
-        return this.balls;
+        return getWorld().getBalls();
     }
 
     /**
@@ -398,7 +518,7 @@ public class Game {
      */
     public Bricks getBricks()
     {
-        return this.bricks;
+        return getWorld().getBricks();
     }
 
     /**
@@ -407,16 +527,16 @@ public class Game {
      */
     public Paddle getPaddle()
     {
-        return this.paddle;
+        return getWorld().getPaddle();
     }
 
-    public void render(GL10 openGL) {
+    public void render(Snapshot snapshot) {
 
         //don't display if we are still loading
         if (STEP == Step.Loading)
             return;
 
         //render everything on screen
-        GameHelper.render(openGL);
+        GameHelper.render(snapshot);
     }
 }
\ No newline at end of file
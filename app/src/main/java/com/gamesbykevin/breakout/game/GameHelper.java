@@ -1,13 +1,13 @@
 package com.gamesbykevin.breakout.game;
 
 import com.gamesbykevin.breakout.game.Game.Step;
-import com.gamesbykevin.breakout.entity.Entity;
+import com.gamesbykevin.breakout.opengl.EntityRenderer;
+import com.gamesbykevin.breakout.opengl.Snapshot;
 import com.gamesbykevin.breakout.opengl.Textures;
 import com.gamesbykevin.breakout.util.StatDescription;
 import com.gamesbykevin.breakout.wall.Wall;
 
-import javax.microedition.khronos.opengles.GL10;
-
+import static com.gamesbykevin.breakout.activity.GameActivity.STATISTICS;
 import static com.gamesbykevin.breakout.activity.GameActivity.getGame;
 import static com.gamesbykevin.breakout.game.Game.STEP;
 import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.FPS;
@@ -82,8 +82,6 @@ public final class GameHelper
 		return LEVEL_DESCRIPTION;
 	}
 
-	private static Entity ENTITY = new Entity(0, 0);
-
     /**
      * Start the current assigned level all over 
      */
@@ -92,17 +90,8 @@ public final class GameHelper
 		//flag tap start so we display the notification
 		TAP_START = true;
 
-		//reset balls
-		getGame().getBalls().reset();
-		
-        //reset paddle and ball(s)
-		getGame().getBalls().add(getGame().getPaddle());
-    	
-        //hide power ups
-		getGame().getPowerups().reset();
-		
-        //populate the bricks accordingly
-		getGame().getLevels().populate(getGame().getBricks());
+		//reset the world for the current level
+		getGame().getWorld().reset(getGame().getLevels(), STATISTICS.getIndex(), getGame().nextSeed());
 	}
 
     /**
@@ -110,8 +99,8 @@ public final class GameHelper
      */
     protected final static void restartLevel()
     {
-        //reset paddle and ball(s)
-		getGame().getBalls().add(getGame().getPaddle());
+        //reset paddle and ball(s) on the next step, so it is part of the replay
+		getGame().restart();
     }
 
     /**
@@ -120,13 +109,13 @@ public final class GameHelper
     protected final static boolean isGameOver()
 	{
 		//if there are no more bricks to be broken the game is over
-		if (getGame().getBricks().isComplete()) {
+		if (getGame().getWorld().isComplete()) {
 			WIN = true;
 			return true;
 		}
 
 		//if we lost all of our balls the game is over (temporarily)
-		if (getGame().getBalls().getCount() < 1) {
+		if (getGame().getWorld().isLost()) {
 			WIN = false;
 			return true;
 		}
@@ -140,56 +129,55 @@ public final class GameHelper
 
     /**
      * Render the game accordingly
-     * @param openGL Place to write pixel data
+     * @param snapshot Snapshot of everything we want to draw
      * @throws Exception
      */
-    public static final void render(final GL10 openGL)
+    public static final void render(final Snapshot snapshot)
     {
-		//make sure we are supporting alpha for transparency
-		openGL.glEnable(GL10.GL_BLEND);
-		openGL.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
-
 		//render the background elements
-		ENTITY.render(openGL, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_ID_BACKGROUND);
-		ENTITY.render(openGL, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_ID_BORDER);
+		EntityRenderer.render(snapshot, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_BACKGROUND);
+		EntityRenderer.render(snapshot, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_BORDER);
 
 		//render the lives information
-		getStatDescription().render(openGL);
-		ENTITY.render(openGL, LIVES_X, LIVES_Y, LIVES_W, LIVES_H, Textures.TEXTURE_ID_WORD_LIVES);
+		getStatDescription().render(snapshot);
+		EntityRenderer.render(snapshot, LIVES_X, LIVES_Y, LIVES_W, LIVES_H, Textures.TEXTURE_WORD_LIVES);
 
 		//render the current level #
-		getLevelDescription().render(openGL);
-		ENTITY.render(openGL, LEVEL_TEXT_X, LEVEL_TEXT_Y, LEVEL_TEXT_W, LEVEL_TEXT_H, Textures.TEXTURE_ID_WORD_LEVEL);
+		getLevelDescription().render(snapshot);
+		EntityRenderer.render(snapshot, LEVEL_TEXT_X, LEVEL_TEXT_Y, LEVEL_TEXT_W, LEVEL_TEXT_H, Textures.TEXTURE_WORD_LEVEL);
 
 		//render the bricks
-		getGame().getBricks().render(openGL);
+		EntityRenderer.render(snapshot, getGame().getBricks());
+
+		//render the particles of the destroyed bricks
+		EntityRenderer.render(snapshot, getGame().getWorld().getParticles());
 
 		//render the power ups
-		getGame().getPowerups().render(openGL);
+		EntityRenderer.render(snapshot, getGame().getPowerups());
 
 		//render the balls
-		getGame().getBalls().render(openGL);
+		EntityRenderer.render(snapshot, getGame().getBalls());
 
 		//render the paddle
-		getGame().getPaddle().render(openGL);
+		EntityRenderer.render(snapshot, getGame().getPaddle());
 
 		//if game over step
 		if (STEP == Step.GameOver) {
 			if (WIN) {
 				//if we win display "Level Complete" text
-				ENTITY.render(openGL, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_ID_WORD_LEVEL_COMPLETED);
+				EntityRenderer.render(snapshot, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_WORD_LEVEL_COMPLETED);
 			} else {
 				if (getStatDescription().getStatValue() <= 0) {
 					//if no more lives, the game is over
-					ENTITY.render(openGL, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_ID_WORD_GAMEOVER);
+					EntityRenderer.render(snapshot, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_WORD_GAMEOVER);
 				} else {
 					//if we lose display "Ready" text
-					ENTITY.render(openGL, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_ID_WORD_READY);
+					EntityRenderer.render(snapshot, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_WORD_READY);
 				}
 			}
 		} else {
 			if (TAP_START)
-				ENTITY.render(openGL, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_ID_WORD_TAP_START);
+				EntityRenderer.render(snapshot, 0, 0, WIDTH, HEIGHT, Textures.TEXTURE_WORD_TAP_START);
 		}
     }
 }
\ No newline at end of file
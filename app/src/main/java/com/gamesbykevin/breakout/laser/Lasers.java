@@ -2,16 +2,13 @@ package com.gamesbykevin.breakout.laser;
 
 import java.util.ArrayList;
 
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.brick.Brick;
+import com.gamesbykevin.breakout.brick.Bricks;
 import com.gamesbykevin.breakout.common.ICommon;
 import com.gamesbykevin.breakout.entity.Entity;
 import com.gamesbykevin.breakout.paddle.Paddle;
-import com.gamesbykevin.breakout.util.UtilityHelper;
-
-import javax.microedition.khronos.opengles.GL10;
-
-import static com.gamesbykevin.breakout.activity.GameActivity.getGame;
+import com.gamesbykevin.breakout.simulation.Event;
+import com.gamesbykevin.breakout.simulation.World;
 
 public class Lasers extends Entity implements ICommon 
 {
@@ -59,7 +56,7 @@ public class Lasers extends Entity implements ICommon
 	}
 	
 	@Override
-	public void update(GameActivity activity)
+	public void update(final World world)
 	{
 		if (getLasers() != null)
 		{
@@ -74,41 +71,55 @@ public class Lasers extends Entity implements ICommon
 				laser.update();
 				
 				//set the length
-				final int rowMax = getGame().getBricks().getBricks().length;
-				final int colMax = getGame().getBricks().getBricks()[0].length;
-				
+				final Bricks bricks = world.getBricks();
+				final int rowMax = bricks.getRows();
+				final int colMax = bricks.getCols();
+
+				//only check the cells the laser overlaps, the extra row/col covers touching the edge of a brick
+				final int rowStart = Math.max(0, (int)Math.floor((laser.getY() - Bricks.START_Y) / Brick.HEIGHT_NORMAL) - 1);
+				final int rowEnd = Math.min(rowMax - 1, (int)Math.floor((laser.getY() + laser.getHeight() - Bricks.START_Y) / Brick.HEIGHT_NORMAL));
+				final int colStart = Math.max(0, (int)Math.floor((laser.getX() - Bricks.START_X) / Brick.WIDTH_NORMAL) - 1);
+				final int colEnd = Math.min(colMax - 1, (int)Math.floor((laser.getX() + laser.getWidth() - Bricks.START_X) / Brick.WIDTH_NORMAL));
+
+				//if there are no bricks in these rows there is nothing to hit
+				if (!bricks.hasAlive(rowStart, rowEnd))
+					continue;
+
 				//check if it hit any bricks etc.....
-				for (int row = 0; row < rowMax; row++)
+				for (int row = rowStart; row <= rowEnd; row++)
 				{
-					for (int col = 0; col < colMax; col++)
+					for (int col = colStart; col <= colEnd; col++)
 					{
 						//get the current brick
-						final Brick brick = getGame().getBricks().getBricks()[row][col];
+						final int index = bricks.getIndex(row, col);
 						
-						if (!brick.isDead())
+						if (bricks.isAlive(index))
 						{
 							//if the laser hit the brick
-							if (laser.hasCollision(brick))
+							if (laser.hasCollision(Bricks.getBrickX(col), Bricks.getBrickY(row), Brick.WIDTH_NORMAL, Brick.HEIGHT_NORMAL))
 							{
 								//flag laser hidden
 								laser.setHidden(true);
 								
 								//mark the collision
-								brick.markCollision();
+								bricks.markCollision(index);
 
 								//if the brick has been destroyed, track it
-								if (!brick.isSolid() && brick.isDead())
-									getGame().getBricks().setDestroyed(getGame().getBricks().getDestroyed() + 1);
+								if (!bricks.isSolid(index) && !bricks.isAlive(index))
+								{
+									bricks.setDestroyed(bricks.getDestroyed() + 1);
+									world.notify(Event.BrickDestroyed);
+								}
 
 								//if the brick contains a power up we will add it
-								if (brick.hasPowerup())
-									getGame().getPowerups().add(brick);
+								if (bricks.hasPowerup(index))
+									world.getPowerups().add(bricks.getBrick(index));
 								
 								//move to the end
-								row = rowMax;
-								col = colMax;
+								row = rowEnd;
+								col = colEnd;
 									
-								//no need to check the other bricks since the ball already hit
+								//no need to check the other bricks since the laser already hit
 								break;
 							}
 						}
@@ -170,40 +181,12 @@ public class Lasers extends Entity implements ICommon
 		}
 	}
 	
-	private ArrayList<Laser> getLasers()
+	/**
+	 * Get the list of lasers
+	 * @return The list of lasers fired by the paddle
+	 */
+	public ArrayList<Laser> getLasers()
 	{
 		return this.lasers;
 	}
-
-	public void render(GL10 openGL) {
-
-		if (getLasers() != null)
-		{
-			for (int i = 0; i < getLasers().size(); i++)
-			{
-				try {
-					if (i >= getLasers().size())
-						continue;
-
-					//get the current laser
-					Laser laser = getLasers().get(i);
-
-					//only render what is not hidden
-					if (laser.isHidden())
-						continue;
-
-					super.setX(laser);
-					super.setY(laser);
-					super.setTextureId(laser.getTextureId());
-					super.render(openGL);
-
-					//render the laser
-					//laser.render(openGL);
-
-				} catch (Exception e) {
-					UtilityHelper.handleException(e);
-				}
-			}
-		}
-	}
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.gamesbykevin.breakout.level;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Compile the level layouts from the text format into a compact binary pack.<br>
+ * This runs at build time (see app/build.gradle) so the game never has to parse the text file.<br>
+ * The pack is big endian and laid out as follows:<br>
+ * header: int magic, int version, int level count<br>
+ * offset table: int offset (from the start of the pack) for each level<br>
+ * each level: byte rows, byte cols, then one byte per cell (the brick code) row by row<br>
+ * This class only depends on the JDK so the build can use it as well
+ */
+public final class LevelPack
+{
+	/**
+	 * Identifies the file as a level pack ("BRKL")
+	 */
+	public static final int MAGIC = 0x42524B4C;
+
+	/**
+	 * The version of the pack format
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The size of the header (bytes)
+	 */
+	public static final int HEADER_SIZE = 12;
+
+	/**
+	 * The size of each entry in the offset table (bytes)
+	 */
+	public static final int OFFSET_SIZE = 4;
+
+	/**
+	 * The size of the rows and cols before the cells of each level (bytes)
+	 */
+	public static final int LEVEL_HEADER_SIZE = 2;
+
+	/**
+	 * The most rows or cols a level can have
+	 */
+	public static final int MAX_DIMENSION = 255;
+
+	/**
+	 * The name of the text file containing all the levels
+	 */
+	public static final String SOURCE_FILE_NAME = "levels.txt";
+
+	/**
+	 * Character that indicates new level begins
+	 */
+	public static final String LEVEL_SEPARATOR = "#";
+
+	/**
+	 * Character used to fill rows shorter than the widest row
+	 */
+	public static final char CELL_EMPTY = '_';
+
+	private LevelPack()
+	{
+		//no instances
+	}
+
+	/**
+	 * Compile the levels
+	 * @param inputStream The stream containing all the levels in the text format
+	 * @param outputStream Where we write the pack
+	 * @param maxRows The most rows a level can have, the rows of the board the levels are played on
+	 * @param maxCols The most cols a level can have, the cols of the board the levels are played on
+	 * @throws IOException If there was an issue reading the levels or a level is too large
+	 */
+	public static void compile(final InputStream inputStream, final OutputStream outputStream, final int maxRows, final int maxCols) throws IOException
+	{
+		if (maxRows < 1 || maxRows > MAX_DIMENSION || maxCols < 1 || maxCols > MAX_DIMENSION)
+			throw new IllegalArgumentException("The board has to be between 1x1 and " + MAX_DIMENSION + "x" + MAX_DIMENSION + ": " + maxRows + "x" + maxCols);
+
+		//the rows of every level
+		final ArrayList<ArrayList<String>> levels = read(inputStream);
+
+		DataOutputStream output = new DataOutputStream(outputStream);
+
+		//write the header
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeInt(levels.size());
+
+		//the first level starts after the offset table
+		int offset = HEADER_SIZE + (levels.size() * OFFSET_SIZE);
+
+		//write the offset table
+		for (int i = 0; i < levels.size(); i++)
+		{
+			output.writeInt(offset);
+			offset += LEVEL_HEADER_SIZE + (levels.get(i).size() * getCols(levels.get(i)));
+		}
+
+		//write each level
+		for (int i = 0; i < levels.size(); i++)
+		{
+			final ArrayList<String> level = levels.get(i);
+			final int cols = getCols(level);
+
+			if (level.size() > maxRows || cols > maxCols)
+				throw new IOException("Level " + i + " is too large: " + level.size() + "x" + cols + ", the board is " + maxRows + "x" + maxCols);
+
+			output.writeByte(level.size());
+			output.writeByte(cols);
+
+			for (int row = 0; row < level.size(); row++)
+			{
+				final String line = level.get(row);
+
+				for (int col = 0; col < cols; col++)
+				{
+					output.writeByte((col < line.length()) ? line.charAt(col) : CELL_EMPTY);
+				}
+			}
+		}
+
+		output.flush();
+	}
+
+	/**
+	 * Compile the levels in memory
+	 * @param inputStream The stream containing all the levels in the text format
+	 * @param maxRows The most rows a level can have, the rows of the board the levels are played on
+	 * @param maxCols The most cols a level can have, the cols of the board the levels are played on
+	 * @return Buffer containing the pack
+	 * @throws IOException If there was an issue reading the levels or a level is too large
+	 */
+	public static ByteBuffer compile(final InputStream inputStream, final int maxRows, final int maxCols) throws IOException
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		compile(inputStream, output, maxRows, maxCols);
+		return ByteBuffer.wrap(output.toByteArray());
+	}
+
+	/**
+	 * Read the rows of every level from the text format
+	 * @param inputStream The stream containing all the levels
+	 * @return List of levels, each level is a list of rows
+	 * @throws IOException If there was an issue reading the levels
+	 */
+	private static ArrayList<ArrayList<String>> read(final InputStream inputStream) throws IOException
+	{
+		ArrayList<ArrayList<String>> levels = new ArrayList<>();
+		ArrayList<String> level = new ArrayList<>();
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
+
+		//this will contain the current line of the text file
+		String line;
+
+		//read every line in our text file
+		while ((line = reader.readLine()) != null)
+		{
+			//if the line has the level separator add to the list
+			if (line.contains(LEVEL_SEPARATOR))
+			{
+				if (!level.isEmpty())
+					levels.add(level);
+
+				//now create a new level
+				level = new ArrayList<>();
+			}
+			else
+			{
+				//add line to level
+				level.add(line);
+			}
+		}
+
+		//close the reader
+		reader.close();
+
+		if (!level.isEmpty())
+			levels.add(level);
+
+		return levels;
+	}
+
+	/**
+	 * Get the cols
+	 * @param level The rows of the level
+	 * @return The length of the widest row
+	 */
+	private static int getCols(final ArrayList<String> level)
+	{
+		int cols = 0;
+
+		for (int row = 0; row < level.size(); row++)
+		{
+			cols = Math.max(cols, level.get(row).length());
+		}
+
+		return cols;
+	}
+}
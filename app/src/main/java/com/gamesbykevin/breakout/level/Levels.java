@@ -1,28 +1,29 @@
 package com.gamesbykevin.breakout.level;
 
-import android.content.Context;
-
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 import com.gamesbykevin.androidframework.resources.Disposable;
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.ball.Ball;
 import com.gamesbykevin.breakout.brick.Brick;
 import com.gamesbykevin.breakout.brick.Bricks;
 import com.gamesbykevin.breakout.brick.Bricks.Key;
-import com.gamesbykevin.breakout.util.UtilityHelper;
-
-import static com.gamesbykevin.breakout.activity.GameActivity.STATISTICS;
+import com.gamesbykevin.breakout.random.Rng;
 
 public class Levels implements Disposable
 {
-	//the list of levels
-	private ArrayList<Level> levels;
+	//the compiled level pack, see LevelPack
+	private ByteBuffer pack;
+
+	//the number of levels in the pack
+	private final int size;
 
-	//list of locations used for the bonus bricks
-	private ArrayList<Location> locations;
+	//locations used for the bonus bricks, each location is packed (see pack())
+	private int[] locations;
+
+	//the number of locations used for the bonus bricks
+	private int locationCount;
 
 	//array to avoid memory leak
 	private Key[] tmpKeys;
@@ -45,7 +46,7 @@ public class Levels implements Disposable
 	/**
 	 * Character that indicates new level begins
 	 */
-	public static final String LEVEL_SEPARATOR = "#";
+	public static final String LEVEL_SEPARATOR = LevelPack.LEVEL_SEPARATOR;
 	
 	/**
 	 * How many of the bricks should we flag as a bonus for normal sized bricks
@@ -55,93 +56,99 @@ public class Levels implements Disposable
 	//list to choose random keys from
 	private ArrayList<Bricks.Key> keys = new ArrayList<Bricks.Key>();
 
-	//the name of the file containing all the levels
-	private static final String FILE_NAME = "levels.txt";
+	/**
+	 * The number of brick codes in our lookup tables (the codes are ascii)
+	 */
+	private static final int CODES = 128;
+
+	//the different types of cells
+	private static final byte CELL_EMPTY = 0;
+	private static final byte CELL_UNBREAKABLE = 1;
+	private static final byte CELL_NO_COLOR = 2;
+	private static final byte CELL_KEY = 3;
+
+	//the type of cell for each brick code, unknown codes are empty
+	private static final byte[] CELLS = new byte[CODES];
+
+	//the key for each brick code of type CELL_KEY
+	private static final Key[] KEYS = new Key[CODES];
 
 	/**
-	 * Default Constructor
+	 * How many bits we shift the row when packing a location
 	 */
-	public Levels(Context context)
-	{
-		try {
-			//create list of levels
-			this.levels = new ArrayList<Level>();
+	private static final int LOCATION_SHIFT = 8;
 
-			//create a list of possible bonus bricks
-			this.locations = new ArrayList<Location>();
+	/**
+	 * Mask to get the col from a packed location
+	 */
+	private static final int LOCATION_MASK = (1 << LOCATION_SHIFT) - 1;
 
-			//load the levels
-			load(context);
-		} catch (Exception e) {
-			UtilityHelper.handleException(e);
-		}
-	}
-	
-	@Override
-	public void dispose() 
+	static
 	{
-		if (this.locations != null)
+		//the codes are not case sensitive
+		for (Key key : Key.values())
 		{
-			this.locations.clear();
-			this.locations = null;
-		}
-		
-		if (this.levels != null)
-		{
-			for (Level level : this.levels)
-			{
-				if (level != null)
-				{
-					level.dispose();
-					level = null;
-				}
-			}
-			
-			this.levels.clear();
-			this.levels = null;
+			map(key.getCode(), CELL_KEY, key);
 		}
+
+		//the special codes take priority over the keys
+		map(BRICK_BREAKABLE_NO_COLOR, CELL_NO_COLOR, null);
+		map(BRICK_UNBREAKABLE, CELL_UNBREAKABLE, null);
+		map(BRICK_EMPTY, CELL_EMPTY, null);
 	}
 
 	/**
-	 * Load the levels from what is found in the text file
+	 * Map the brick code (upper and lower case) in our lookup tables
+	 * @param code The brick code
+	 * @param cell The type of cell
+	 * @param key The key for the code, null if not a key
 	 */
-	private void load(Context context) throws Exception
+	private static void map(final String code, final byte cell, final Key key)
 	{
-		Level level = null;
+		final char upper = Character.toUpperCase(code.charAt(0));
+		final char lower = Character.toLowerCase(code.charAt(0));
 
-		BufferedReader reader = new BufferedReader(new InputStreamReader(context.getAssets().open(FILE_NAME)));
+		CELLS[upper] = cell;
+		CELLS[lower] = cell;
+		KEYS[upper] = key;
+		KEYS[lower] = key;
+	}
 
-		//this will contain the current line of the text file
-		String line;
+	/**
+	 * The name of the file containing all the levels, compiled from {@link LevelPack#SOURCE_FILE_NAME} at build time
+	 */
+	public static final String FILE_NAME = "levels.bin";
 
-		//read every line in our text file
-		while ((line = reader.readLine()) != null)
-		{
-			//if the line has the level separator add to the list
-			if (line.contains(LEVEL_SEPARATOR))
-			{
-				//add level to array list
-				if (!level.getKey().isEmpty())
-					getLevels().add(level);
-				
-				//now create a new object
-				level = new Level();
-			}
-			else
-			{
-				if (level == null)
-					level = new Level();
-				
-				//add line to level
-				level.getKey().add(line);
-			}
-		}
+	/**
+	 * Default Constructor, the levels are only decoded when populated
+	 * @param pack Buffer containing the compiled level pack
+	 * @throws IOException If the buffer is not a level pack we can read
+	 */
+	public Levels(final ByteBuffer pack) throws IOException
+	{
+		//make sure this is a pack we understand
+		if (pack.remaining() < LevelPack.HEADER_SIZE || pack.getInt(0) != LevelPack.MAGIC)
+			throw new IOException("Not a level pack");
+		if (pack.getInt(4) != LevelPack.VERSION)
+			throw new IOException("Level pack version not supported: " + pack.getInt(4));
 
-		//close the reader
-		reader.close();
+		//store our pack
+		this.pack = pack;
+
+		//how many levels are there
+		this.size = pack.getInt(8);
+
+		//create the possible bonus bricks large enough for a normal board
+		this.locations = new int[Bricks.ROWS_NORMAL * Bricks.COLS_NORMAL];
+	}
+	
+	@Override
+	public void dispose() 
+	{
+		this.locations = null;
+		this.locationCount = 0;
 
-		if (level != null && !level.getKey().isEmpty())
-			getLevels().add(level);
+		this.pack = null;
 	}
 
 	/**
@@ -150,12 +157,7 @@ public class Levels implements Disposable
 	 */
 	public int getSize()
 	{
-		return getLevels().size();
-	}
-	
-	protected ArrayList<Level> getLevels()
-	{
-		return this.levels;
+		return this.size;
 	}
 
 	private Key[] getTmpKeys() {
@@ -166,17 +168,30 @@ public class Levels implements Disposable
 	}
 
 	/**
-	 * Populate the bricks based on the current level setup
-	 * @param bricks
+	 * Populate the bricks based on the level setup.<br>
+	 * This is called on the game thread when a level is reset so nothing is allocated here
+	 * @param bricks Object containing bricks in play
+	 * @param index The index of the level we want to populate
+	 * @param random Object used to pick the colors and bonuses
 	 */
-	public void populate(final Bricks bricks)
+	public void populate(final Bricks bricks, final int index, final Rng random)
 	{
-		//get the current level
-		Level level = get();
-		
-		//clear the list of locations
-		getLocations().clear();
-		
+		//where does the level start in the pack
+		final int offset = getOffset(index);
+
+		//the size of the level
+		final int rows = pack.get(offset) & 0xFF;
+		final int cols = pack.get(offset + 1) & 0xFF;
+
+		//where do the cells start
+		final int start = offset + LevelPack.LEVEL_HEADER_SIZE;
+
+		//clear the locations, make sure we have room for every cell
+		this.locationCount = 0;
+
+		if (this.locations.length < rows * cols)
+			this.locations = new int[rows * cols];
+
 		//are there brick with no assigned color?
 		boolean noColor = false;
 		
@@ -188,114 +203,82 @@ public class Levels implements Disposable
 		//reset bricks
 		bricks.reset();
 
+		//the flat brick index only works if the level fits the board
+		if (rows > bricks.getRows() || cols > bricks.getCols())
+			throw new IllegalStateException("Level " + index + " is " + rows + "x" + cols + ", the board is " + bricks.getRows() + "x" + bricks.getCols());
+
 		//how many breakable brocks are we starting out with
 		int beginTotal = 0;
 
 		//check every row in the level
-		for (int row = 0; row < level.getKey().size(); row++)
+		for (int row = 0; row < rows; row++)
 		{
-			//make sure we stay in bounds
-			if (row >= level.getKey().size())
-				break;
-			
-			//get the current line
-			final String line = level.getKey().get(row);
-			
 			//check every column in the row
-			for (int col = 0; col < line.length(); col++)
+			for (int col = 0; col < cols; col++)
 			{
-				try
+				//where is the current character
+				final int cell = start + (row * cols) + col;
+
+				//the pack can't end in the middle of a level
+				if (cell >= pack.limit())
+					throw new IllegalStateException("Level " + index + " ends before row " + row + ", col " + col);
+
+				//check the current character
+				final int code = pack.get(cell) & 0xFF;
+
+				//the brick at this location
+				final int brick = bricks.getIndex(row, col);
+
+				//now determine if there is a brick here
+				switch ((code < CODES) ? CELLS[code] : CELL_EMPTY)
 				{
-					//check the current character
-					final String character = line.substring(col, col + 1); 
-					
-					//now determine if there is a brick here
-					if (character == null || character.equalsIgnoreCase(BRICK_EMPTY))
-					{
-						//if empty flag dead true
-						bricks.getBricks()[row][col].setDead(true);
-					}
-					else if (character.equalsIgnoreCase(BRICK_UNBREAKABLE))
-					{
+					case CELL_UNBREAKABLE:
 						//assign animation
-						bricks.getBricks()[row][col].setTextureId(Bricks.Key.Silver.getTextureId());
-						
+						bricks.setKey(brick, Bricks.Key.Silver);
+
 						//flag not dead
-						bricks.getBricks()[row][col].reset();
-						
+						bricks.reset(brick);
+
 						//flag the brick as solid so it can't be broken
-						bricks.getBricks()[row][col].setSolid(true);
-					}
-					else if (character.equalsIgnoreCase(BRICK_BREAKABLE_NO_COLOR))
-					{
+						bricks.setSolid(brick, true);
+						break;
+
+					case CELL_NO_COLOR:
 						//there are bricks here with no specified color
 						noColor = true;
-						
+
 						//assign animation
-						bricks.getBricks()[row][col].setTextureId(Bricks.Key.Purple.getTextureId());
-						
+						bricks.setKey(brick, Bricks.Key.Purple);
+
 						//flag not dead
-						bricks.getBricks()[row][col].reset();
-						
-						//add place as possible location 
-						getLocations().add(new Location(col, row));
+						bricks.reset(brick);
+
+						//add place as possible location
+						this.locations[this.locationCount++] = pack(col, row);
 
 						//add to the count
 						beginTotal++;
-					}
-					else
-					{
-						//check if we have a match
-						boolean match = false;
-
-						//check each color key to see if the character matches
-						for (int i = 0; i < getTmpKeys().length; i++)
-						{
-							Key key = getTmpKeys()[i];
-
-							//if we have a match
-							if (key.hasCode(character))
-							{
-								//flag match
-								match = true;
-							
-								//assign animation
-								bricks.getBricks()[row][col].setTextureId(key.getTextureId());
-								
-								//flag not dead
-								bricks.getBricks()[row][col].reset();
-								
-								//add place as possible location 
-								getLocations().add(new Location(col, row));
-
-								//add to the count
-								beginTotal++;
-
-								//exit for loop
-								break;
-							}
-						}
-						
-						//if there is no match, the brick is dead
-						if (!match)
-							bricks.getBricks()[row][col].setDead(true);
-					}
-				}
-				catch (Exception e)
-				{
-					//handle error
-					UtilityHelper.handleException(e);
+						break;
 
-					//print helpful info
-					System.out.println("Level Index: " + STATISTICS.getIndex());
-					
-					//print current row where error occurred
-					System.out.println(level.getKey().get(row));
+					case CELL_KEY:
+						//assign animation
+						bricks.setKey(brick, KEYS[code]);
 
-					//end loop
-					row = level.getKey().size();
-					col = line.length();
-					break;
+						//flag not dead
+						bricks.reset(brick);
+
+						//add place as possible location
+						this.locations[this.locationCount++] = pack(col, row);
+
+						//add to the count
+						beginTotal++;
+						break;
+
+					case CELL_EMPTY:
+					default:
+						//if empty flag dead true
+						bricks.setDead(brick, true);
+						break;
 				}
 			}
 
@@ -305,10 +288,21 @@ public class Levels implements Disposable
 		
 		//if there are bricks without an assigned color, populate all bricks with colors
 		if (noColor)
-			colorizeBricks(bricks);
+			colorizeBricks(bricks, random);
 		
 		//add random bonuses to the bricks
-		populateBonuses(bricks);
+		populateBonuses(bricks, random);
+	}
+
+	/**
+	 * Pack the location into a single int
+	 * @param col Column
+	 * @param row Row
+	 * @return The packed location
+	 */
+	private static int pack(final int col, final int row)
+	{
+		return (row << LOCATION_SHIFT) | col;
 	}
 	
 	/**
@@ -331,17 +325,17 @@ public class Levels implements Disposable
 	
 	/**
 	 * Get the key
+	 * @param random Object used to pick the key
 	 * @return A randomly chosen brick animation key from the remaining keys list
 	 */
-	private Bricks.Key getKey()
+	private Bricks.Key getKey(final Rng random)
 	{
 		//if our keys list is empty, populate it
 		if (this.keys.isEmpty())
 			populateKeys();
 		
 		//pick random index
-
-		final int index = GameActivity.getRandomObject().nextInt(this.keys.size());
+		final int index = random.nextInt(this.keys.size());
 		
 		//pick random animation key
 		Bricks.Key tmp = this.keys.get(index);
@@ -356,33 +350,34 @@ public class Levels implements Disposable
 	/**
 	 * Change the color of the bricks to make the board more diverse
 	 * @param bricks Object containing bricks in play
+	 * @param random Object used to pick the pattern and colors
 	 */
-	private void colorizeBricks(final Bricks bricks)
+	private void colorizeBricks(final Bricks bricks, final Rng random)
 	{
 		//our key reference
 		Bricks.Key key = null;
 		
 		//pick a random pattern to color the bricks
-		switch (GameActivity.getRandomObject().nextInt(4))
+		switch (random.nextInt(4))
 		{
 			//each row is a different color
 			case 0:
 
 				//check every row in the level
-				for (int row = 0; row < bricks.getBricks().length; row++)
+				for (int row = 0; row < bricks.getRows(); row++)
 				{
 					//check every column in the row
-					for (int col = 0; col < bricks.getBricks()[0].length; col++)
+					for (int col = 0; col < bricks.getCols(); col++)
 					{
 						if (key == null)
-							key = getKey();
+							key = getKey(random);
 						
 						//get the current brick
-						Brick brick = bricks.getBricks()[row][col];
+						final int brick = bricks.getIndex(row, col);
 						
-						//if the brick is not dead or hidden or solid, assign the key
-						if (!brick.isDead() && !brick.isHidden() && !brick.isSolid())
-							brick.setTextureId(key.getTextureId());
+						//if the brick is not dead or solid, assign the key
+						if (bricks.isAlive(brick) && !bricks.isSolid(brick))
+							bricks.setKey(brick, key);
 					}
 					
 					key = null;
@@ -393,20 +388,20 @@ public class Levels implements Disposable
 			case 1:
 
 				//check every column in the row
-				for (int col = 0; col < bricks.getBricks()[0].length; col++)
+				for (int col = 0; col < bricks.getCols(); col++)
 				{
 					//check every row in the level
-					for (int row = 0; row < bricks.getBricks().length; row++)
+					for (int row = 0; row < bricks.getRows(); row++)
 					{
 						if (key == null)
-							key = getKey();
+							key = getKey(random);
 						
 						//get the current brick
-						Brick brick = bricks.getBricks()[row][col];
+						final int brick = bricks.getIndex(row, col);
 						
-						//if the brick is not dead or hidden or solid, assign the key
-						if (!brick.isDead() && !brick.isHidden() && !brick.isSolid())
-							brick.setTextureId(key.getTextureId());
+						//if the brick is not dead or solid, assign the key
+						if (bricks.isAlive(brick) && !bricks.isSolid(brick))
+							bricks.setKey(brick, key);
 					}
 					
 					key = null;
@@ -417,20 +412,20 @@ public class Levels implements Disposable
 			case 2:
 			default:
 				//get animation key
-				key = getKey();
+				key = getKey(random);
 				
 				//check every column in the row
-				for (int col = 0; col < bricks.getBricks()[0].length; col++)
+				for (int col = 0; col < bricks.getCols(); col++)
 				{
 					//check every row in the level
-					for (int row = 0; row < bricks.getBricks().length; row++)
+					for (int row = 0; row < bricks.getRows(); row++)
 					{
 						//get the current brick
-						Brick brick = bricks.getBricks()[row][col];
+						final int brick = bricks.getIndex(row, col);
 						
-						//if the brick is not dead or hidden or solid, assign the key
-						if (!brick.isDead() && !brick.isHidden() && !brick.isSolid())
-							brick.setTextureId(key.getTextureId());
+						//if the brick is not dead or solid, assign the key
+						if (bricks.isAlive(brick) && !bricks.isSolid(brick))
+							bricks.setKey(brick, key);
 					}
 				}
 				break;
@@ -441,8 +436,9 @@ public class Levels implements Disposable
 	 * Flag a random number of bricks that are not dead to contain a bonus item.<br>
 	 * The number will be a ratio of the total number of bricks not dead and not solid
 	 * @param bricks Object containing bricks in play
+	 * @param random Object used to pick the bonus locations
 	 */
-	private void populateBonuses(final Bricks bricks)
+	private void populateBonuses(final Bricks bricks, final Rng random)
 	{
 		//# bricks that should be flagged as a bonus
 		final int limit = (int)(bricks.getCount() * BONUS_RATIO_NORMAL);
@@ -451,20 +447,21 @@ public class Levels implements Disposable
 		int count = 0;
 		
 		//continue to loop as long as there are locations to add a bonus
-		while (!getLocations().isEmpty())
+		while (this.locationCount > 0)
 		{
 			//pick random index
-			final int index = GameActivity.getRandomObject().nextInt(getLocations().size());
+			final int index = random.nextInt(this.locationCount);
 			
 			//get the random location
-			final int col = getLocations().get(index).getCol(); 
-			final int row = getLocations().get(index).getRow();
+			final int col = this.locations[index] & LOCATION_MASK;
+			final int row = this.locations[index] >>> LOCATION_SHIFT;
 			
 			//flag power up true
-			bricks.getBricks()[row][col].setPowerup(true);
+			bricks.setPowerup(bricks.getIndex(row, col), true);
 			
-			//now that option is no longer available
-			getLocations().remove(index);
+			//now that option is no longer available, keep the remaining locations in order
+			System.arraycopy(this.locations, index + 1, this.locations, index, this.locationCount - index - 1);
+			this.locationCount--;
 			
 			//add to count
 			count++;
@@ -475,76 +472,16 @@ public class Levels implements Disposable
 		}
 	}
 	
-	private ArrayList<Location> getLocations()
-	{
-		return this.locations;
-	}
-	
 	/**
-	 * Get the current level
-	 * @return The level object containing the level key
+	 * Get the offset
+	 * @param index The index of the level we want
+	 * @return The location of the level in the pack
 	 */
-	private Level get()
+	private int getOffset(final int index)
 	{
-		return getLevels().get(STATISTICS.getIndex());
-	}
-	
-	private class Level implements Disposable
-	{
-		//the key that makes up the level
-		private ArrayList<String> key;
-		
-		private Level()
-		{
-			//create new list for our level string
-			this.key = new ArrayList<String>();
-		}
-		
-		private ArrayList<String> getKey()
-		{
-			return this.key;
-		}
+		if (index < 0 || index >= getSize())
+			throw new IndexOutOfBoundsException("Level index: " + index + ", size: " + getSize());
 
-		@Override
-		public void dispose() 
-		{
-			this.key.clear();
-			this.key = null;
-		}
-	}
-	
-	/**
-	 * Location class, used to pick random locations for the bonuses
-	 */
-	private class Location
-	{
-		//the location of our location :)
-		private int col, row;
-		
-		private Location(final int col, final int row)
-		{
-			setCol(col);
-			setRow(row);
-		}
-		
-		private void setCol(final int col)
-		{
-			this.col = col;
-		}
-		
-		private void setRow(final int row)
-		{
-			this.row = row;
-		}
-		
-		private int getCol()
-		{
-			return this.col;
-		}
-		
-		private int getRow()
-		{
-			return this.row;
-		}
+		return pack.getInt(LevelPack.HEADER_SIZE + (index * LevelPack.OFFSET_SIZE));
 	}
-}
\ No newline at end of file
+}
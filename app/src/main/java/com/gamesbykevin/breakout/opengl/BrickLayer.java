@@ -0,0 +1,238 @@
+package com.gamesbykevin.breakout.opengl;
+
+/**
+ * Keep the bricks drawn in a texture so each frame only needs a single quad for the whole board.<br>
+ * The texture is a render target of the sprite batch, when the snapshot has a new copy of the cells
+ * we compare them to what is in the texture and only clear and draw the cells that changed.
+ * The texture is created at screen resolution so the composite is drawn 1:1 with the pixels.<br>
+ * If the sprite batch can't render into a texture, or {@link #CACHE} is false, every cell is drawn each frame like any other sprite
+ */
+public class BrickLayer {
+
+    /**
+     * Do we cache the bricks in a texture
+     */
+    public static final boolean CACHE = true;
+
+    //can we render into a texture
+    private boolean supported = true;
+
+    //our frame buffer [0] and the texture attached to it [1], 0 if not created
+    private final int[] ids = new int[2];
+
+    //the size of our texture (power of 2)
+    private int textureWidth = 0, textureHeight = 0;
+
+    //does our texture have to be created again at the new screen size
+    private boolean stale = false;
+
+    //the cells currently in our texture
+    private TextureRegion[] regions = new TextureRegion[0];
+    private float[] transparencies = new float[0];
+
+    //the grid currently in our texture
+    private int rows = 0, cols = 0;
+    private float x, y, cellWidth, cellHeight;
+
+    //the layer source and version currently in our texture, null if the texture has to be drawn from scratch
+    private Object source = null;
+    private int version = 0;
+
+    /**
+     * Our texture and frame buffer belonged to the previous context, call this when a new context is created
+     */
+    public void invalidate() {
+        this.ids[0] = 0;
+        this.ids[1] = 0;
+        this.supported = true;
+        this.stale = false;
+        this.source = null;
+    }
+
+    /**
+     * The screen size changed, the texture will be created again at the new resolution the next time we render
+     */
+    public void resize() {
+        this.stale = true;
+        this.source = null;
+    }
+
+    /**
+     * Draw the layer of the snapshot
+     * @param batch Object used to render pixels
+     * @param snapshot The snapshot containing the layer
+     */
+    public void render(final SpriteBatch batch, final Snapshot snapshot) {
+
+        //if we can't cache, draw every cell
+        if (!CACHE || !prepare(batch, snapshot)) {
+            renderCells(batch, snapshot);
+            return;
+        }
+
+        //the cells changed, update our texture
+        if (snapshot.getLayerSource() != this.source || snapshot.getLayerVersion() != this.version)
+            update(batch, snapshot);
+
+        //the part of the texture covered by the grid
+        final float w = cols * cellWidth, h = rows * cellHeight;
+
+        //the texture is upside down, drawing the top row at v = 0 puts it right side up again
+        batch.setColor(1.0f, 1.0f, 1.0f, 1.0f);
+        batch.draw(ids[1], x, y, w, h, 0.0f, 0.0f, (w * batch.getScaleX()) / textureWidth, (h * batch.getScaleY()) / textureHeight, 0.0f);
+    }
+
+    /**
+     * Draw every cell of the layer as its own sprite
+     * @param batch Object used to render pixels
+     * @param snapshot The snapshot containing the layer
+     */
+    private void renderCells(final SpriteBatch batch, final Snapshot snapshot) {
+
+        final float w = snapshot.getLayerCellWidth(), h = snapshot.getLayerCellHeight();
+
+        for (int row = 0; row < snapshot.getLayerRows(); row++) {
+            for (int col = 0; col < snapshot.getLayerCols(); col++) {
+
+                final int index = (row * snapshot.getLayerCols()) + col;
+                final TextureRegion region = snapshot.getLayerRegion(index);
+
+                //nothing in this cell
+                if (region == null)
+                    continue;
+
+                batch.setColor(1.0f, 1.0f, 1.0f, snapshot.getLayerTransparency(index));
+                batch.draw(region, snapshot.getLayerX() + (col * w), snapshot.getLayerY() + (row * h), w, h);
+            }
+        }
+
+        batch.setColor(1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+    /**
+     * Make sure we have a texture big enough for the layer
+     * @param batch Object used to render pixels
+     * @param snapshot The snapshot containing the layer
+     * @return true if we can render the layer into our texture, false otherwise
+     */
+    private boolean prepare(final SpriteBatch batch, final Snapshot snapshot) {
+
+        if (!this.supported || !batch.hasRenderTargets())
+            return false;
+
+        //the size of the layer on the screen
+        final int layerWidth = (int)Math.ceil(snapshot.getLayerCols() * snapshot.getLayerCellWidth() * batch.getScaleX());
+        final int layerHeight = (int)Math.ceil(snapshot.getLayerRows() * snapshot.getLayerCellHeight() * batch.getScaleY());
+
+        //our texture is big enough
+        if (!this.stale && this.ids[0] != 0 && layerWidth <= this.textureWidth && layerHeight <= this.textureHeight)
+            return true;
+
+        batch.deleteRenderTarget(ids);
+        this.stale = false;
+        this.source = null;
+        this.textureWidth = SpriteBatch.getPowerOfTwo(layerWidth);
+        this.textureHeight = SpriteBatch.getPowerOfTwo(layerHeight);
+
+        if (!batch.createRenderTarget(textureWidth, textureHeight, ids)) {
+
+            //don't try again on this context
+            batch.deleteRenderTarget(ids);
+            this.supported = false;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Draw the cells that changed into our texture
+     * @param batch Object used to render pixels
+     * @param snapshot The snapshot containing the layer
+     */
+    private void update(final SpriteBatch batch, final Snapshot snapshot) {
+
+        //if the grid moved or changed size draw everything
+        final boolean full = (this.source == null || rows != snapshot.getLayerRows() || cols != snapshot.getLayerCols() ||
+                x != snapshot.getLayerX() || y != snapshot.getLayerY() ||
+                cellWidth != snapshot.getLayerCellWidth() || cellHeight != snapshot.getLayerCellHeight());
+
+        if (full) {
+            this.rows = snapshot.getLayerRows();
+            this.cols = snapshot.getLayerCols();
+            this.x = snapshot.getLayerX();
+            this.y = snapshot.getLayerY();
+            this.cellWidth = snapshot.getLayerCellWidth();
+            this.cellHeight = snapshot.getLayerCellHeight();
+
+            //make room if the grid is bigger
+            if (rows * cols > regions.length) {
+                regions = new TextureRegion[rows * cols];
+                transparencies = new float[rows * cols];
+            }
+        }
+
+        //render into our texture, 1 pixel for each screen pixel, with the first cell at the origin
+        batch.beginRenderTarget(ids[0], textureWidth, textureHeight, x, y);
+
+        if (full) {
+
+            //start with an empty texture
+            batch.clearRenderTarget(0, 0, textureWidth, textureHeight);
+
+        } else {
+
+            //only empty the cells that changed
+            final float scaleX = batch.getScaleX(), scaleY = batch.getScaleY();
+
+            for (int index = 0; index < rows * cols; index++) {
+
+                if (!isChanged(snapshot, index))
+                    continue;
+
+                final int col = index % cols, row = index / cols;
+                final int x1 = Math.round(col * cellWidth * scaleX), x2 = Math.round((col + 1) * cellWidth * scaleX);
+                final int y1 = Math.round(row * cellHeight * scaleY), y2 = Math.round((row + 1) * cellHeight * scaleY);
+
+                batch.clearRenderTarget(x1, y1, x2 - x1, y2 - y1);
+            }
+        }
+
+        //the cells don't overlap, the render target writes the transparency into the texture instead of blending with the empty cell
+        for (int index = 0; index < rows * cols; index++) {
+
+            if (!full && !isChanged(snapshot, index))
+                continue;
+
+            final TextureRegion region = snapshot.getLayerRegion(index);
+
+            //remember what is in the cell
+            regions[index] = region;
+            transparencies[index] = snapshot.getLayerTransparency(index);
+
+            //an empty cell only needed to be cleared
+            if (region == null)
+                continue;
+
+            batch.setColor(1.0f, 1.0f, 1.0f, transparencies[index]);
+            batch.draw(region, x + ((index % cols) * cellWidth), y + ((index / cols) * cellHeight), cellWidth, cellHeight);
+        }
+
+        //go back to rendering the screen
+        batch.endRenderTarget();
+        batch.setColor(1.0f, 1.0f, 1.0f, 1.0f);
+
+        this.source = snapshot.getLayerSource();
+        this.version = snapshot.getLayerVersion();
+    }
+
+    /**
+     * Is the cell in the snapshot different from the cell in our texture
+     * @param snapshot The snapshot containing the layer
+     * @param index The index of the cell
+     * @return true if the cell has to be drawn again, false otherwise
+     */
+    private boolean isChanged(final Snapshot snapshot, final int index) {
+        return (regions[index] != snapshot.getLayerRegion(index) || transparencies[index] != snapshot.getLayerTransparency(index));
+    }
+}
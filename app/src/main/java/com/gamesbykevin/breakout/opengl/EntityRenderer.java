@@ -0,0 +1,187 @@
+package com.gamesbykevin.breakout.opengl;
+
+import com.gamesbykevin.breakout.ball.Ball;
+import com.gamesbykevin.breakout.ball.Balls;
+import com.gamesbykevin.breakout.brick.Brick;
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.entity.Entity;
+import com.gamesbykevin.breakout.laser.Laser;
+import com.gamesbykevin.breakout.laser.Lasers;
+import com.gamesbykevin.breakout.paddle.Paddle;
+import com.gamesbykevin.breakout.particle.Particles;
+import com.gamesbykevin.breakout.powerup.Powerup;
+import com.gamesbykevin.breakout.powerup.Powerups;
+
+import static com.gamesbykevin.breakout.opengl.Textures.TEXTURE_BALLS;
+import static com.gamesbykevin.breakout.opengl.Textures.TEXTURE_FIREBALL;
+import static com.gamesbykevin.breakout.opengl.Textures.TEXTURE_LASER;
+import static com.gamesbykevin.breakout.opengl.Textures.TEXTURE_PADDLE;
+import static com.gamesbykevin.breakout.opengl.Textures.getTextureBrick;
+import static com.gamesbykevin.breakout.opengl.Textures.getTextureParticle;
+import static com.gamesbykevin.breakout.opengl.Textures.getTexturePowerup;
+
+/**
+ * Render the simulation objects with open gl.<br>
+ * The game objects only contain state, the textures are chosen here and every sprite is added to the snapshot.<br>
+ * This is called on the same thread that updates the game, so the game state can't change while we read it
+ */
+public final class EntityRenderer
+{
+	/**
+	 * Render the texture region at the specified location
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param w width
+	 * @param h height
+	 * @param region The texture region we want to render
+	 */
+	public static void render(final Snapshot snapshot, double x, double y, double w, double h, TextureRegion region) {
+		snapshot.add(region, x, y, w, h);
+	}
+
+	/**
+	 * Render an entity that moves, it will be drawn between the previous and current step
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param entity The entity we want to render
+	 * @param w width
+	 * @param h height
+	 * @param region The texture region we want to render
+	 */
+	private static void render(final Snapshot snapshot, final Entity entity, double w, double h, TextureRegion region) {
+		//only entities that rotate (the fireball) are drawn at their angle
+		snapshot.add(region, entity.getX(0.0f), entity.getY(0.0f), entity.getX(), entity.getY(), w, h, entity.hasRotation() ? entity.getAngle() : 0.0f);
+	}
+
+	/**
+	 * Render the bricks, they are added as a layer of the snapshot instead of a sprite for each brick
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param bricks The bricks we want to render
+	 */
+	public static void render(final Snapshot snapshot, final Bricks bricks) {
+
+		//can't render the bricks if they are not there
+		if (!bricks.hasBricks())
+			return;
+
+		final int rows = bricks.getRows(), cols = bricks.getCols();
+
+		//the bricks are a layer that is only copied again when a brick changes
+		if (!snapshot.setLayer(bricks, bricks.getVersion(), rows, cols, Bricks.getBrickX(0), Bricks.getBrickY(0), Brick.WIDTH_NORMAL, Brick.HEIGHT_NORMAL))
+			return;
+
+		for (int index = 0; index < rows * cols; index++)
+		{
+			//a solid brick fades with each hit
+			if (bricks.isAlive(index))
+				snapshot.setLayerCell(index, getTextureBrick(bricks.getKey(index)), bricks.getTransparency(index));
+			else
+				snapshot.setLayerCell(index, null, 1.0f);
+		}
+	}
+
+	/**
+	 * Render the particles, they all come from the same texture so they are drawn together
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param particles The particles we want to render
+	 */
+	public static void render(final Snapshot snapshot, final Particles particles) {
+
+		for (int i = 0; i < particles.getCount(); i++)
+		{
+			//where was the particle at the previous step
+			final float x = particles.getX(i), y = particles.getY(i);
+			final float previousX = x - particles.getDX(i), previousY = y - particles.getDY(i);
+
+			snapshot.add(getTextureParticle(particles.getTexture(i)), previousX, previousY, x, y, particles.getDimension(i), particles.getDimension(i), 0.0f);
+		}
+	}
+
+	/**
+	 * Render the balls
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param balls The balls we want to render
+	 */
+	public static void render(final Snapshot snapshot, final Balls balls) {
+
+		if (balls.getBalls() == null)
+			return;
+
+		//render all balls
+		for (int i = 0; i < balls.getBalls().size(); i++)
+		{
+			Ball ball = balls.getBalls().get(i);
+
+			if (ball.isHidden())
+				continue;
+
+			//fireballs have their own texture
+			final TextureRegion texture = (ball.hasFire()) ? TEXTURE_FIREBALL : TEXTURE_BALLS[ball.getAnimation()];
+
+			render(snapshot, ball, Ball.WIDTH, Ball.HEIGHT, texture);
+		}
+	}
+
+	/**
+	 * Render the paddle and any lasers it has fired
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param paddle The paddle we want to render
+	 */
+	public static void render(final Snapshot snapshot, final Paddle paddle) {
+
+		//render the paddle
+		render(snapshot, paddle, paddle.getWidth(), paddle.getHeight(), TEXTURE_PADDLE);
+
+		//render any lasers
+		render(snapshot, paddle.getLasers());
+	}
+
+	/**
+	 * Render the lasers
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param lasers The lasers we want to render
+	 */
+	public static void render(final Snapshot snapshot, final Lasers lasers) {
+
+		if (lasers.getLasers() == null)
+			return;
+
+		for (int i = 0; i < lasers.getLasers().size(); i++)
+		{
+			//get the current laser
+			Laser laser = lasers.getLasers().get(i);
+
+			//only render what is not hidden
+			if (laser.isHidden())
+				continue;
+
+			//render the laser
+			render(snapshot, laser, Laser.WIDTH, Laser.HEIGHT, TEXTURE_LASER);
+		}
+	}
+
+	/**
+	 * Render the power ups
+	 * @param snapshot Snapshot of everything we want to draw
+	 * @param powerups The power ups we want to render
+	 */
+	public static void render(final Snapshot snapshot, final Powerups powerups) {
+
+		if (powerups.getPowerups() == null)
+			return;
+
+		//render all power ups
+		for (int i = 0; i < powerups.getPowerups().size(); i++) {
+
+			Powerup powerup = powerups.getPowerups().get(i);
+
+			if (powerup.isHidden())
+				continue;
+
+			//the texture depends on the type of power up and the current animation
+			final TextureRegion texture = getTexturePowerup(powerup.getKey(), powerup.getIndex());
+
+			render(snapshot, powerup, Powerup.WIDTH, Powerup.HEIGHT, texture);
+		}
+	}
+}
@@ -0,0 +1,410 @@
+package com.gamesbykevin.breakout.opengl;
+
+import android.opengl.GLES11Ext;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * Collect textured quads and draw them together with open gl es 1.x, the fallback when 2.0 isn't available.<br>
+ * Quads are written into a single preallocated buffer and only sent to open gl when the texture changes,
+ * the buffer is full, or the batch ends. So the number of draw calls depends on the texture changes not the number of sprites.<br>
+ * The quad indices never change, so they are shared by every sprite and uploaded once to a buffer object when supported.
+ * Render targets need the GL_OES_framebuffer_object extension
+ */
+public class GL10SpriteBatch extends SpriteBatch {
+
+    /**
+     * The most sprites we can hold before we have to flush
+     */
+    public static final int MAX_SPRITES = 512;
+
+    //each vertex is x, y, u, v, r, g, b, a
+    private static final int VERTEX_SIZE = 8;
+
+    //stride between each vertex in bytes
+    private static final int STRIDE = VERTEX_SIZE * FLOAT_BYTES;
+
+    //the extension we need for render targets
+    private static final String EXTENSION_FRAMEBUFFER = "GL_OES_framebuffer_object";
+
+    //the data we are building before we send it to open gl
+    private final float[] vertices;
+
+    //buffer sent to open gl
+    private final FloatBuffer vertexBuffer;
+
+    //order in which the vertices are drawn
+    private final ShortBuffer indexBuffer;
+
+    //the buffer object holding our indices on the gpu, 0 if not uploaded
+    private int indexBufferId = 0;
+
+    //the number of sprites in the current batch
+    private int count = 0;
+
+    //the texture of the current batch
+    private int textureId = -1;
+
+    //object used to render, only assigned between begin and end
+    private GL10 gl;
+
+    //did we check the extensions for this context
+    private boolean checked = false;
+
+    //are render targets supported
+    private boolean renderTargets = false;
+
+    public GL10SpriteBatch() {
+
+        //create the array for our vertex data
+        this.vertices = new float[MAX_SPRITES * VERTICES_PER_SPRITE * VERTEX_SIZE];
+
+        //create our vertex buffer
+        ByteBuffer vbb = ByteBuffer.allocateDirect(vertices.length * FLOAT_BYTES);
+        vbb.order(ByteOrder.nativeOrder());
+        this.vertexBuffer = vbb.asFloatBuffer();
+
+        //create our index buffer, this never changes
+        this.indexBuffer = createIndices(MAX_SPRITES);
+    }
+
+    @Override
+    public void onSurfaceCreated(final GL10 gl) {
+
+        //our buffer object belonged to the previous context
+        this.indexBufferId = 0;
+        this.checked = false;
+    }
+
+    @Override
+    public void onSurfaceChanged(final GL10 gl, final int width, final int height) {
+        super.onSurfaceChanged(gl, width, height);
+
+        //sets the current view port to the new size of the screen
+        gl.glViewport(0, 0, width, height);
+
+        //reset the projection matrix back to its default state
+        gl.glLoadIdentity();
+
+        //select the projection matrix
+        gl.glMatrixMode(GL10.GL_PROJECTION);
+
+        //set rendering dimensions
+        gl.glOrthof(0.0f, width, height, 0.0f, 1.0f, -1.0f);
+
+        //select the model view matrix
+        gl.glMatrixMode(GL10.GL_MODELVIEW);
+
+        //enable 2d textures
+        gl.glEnable(GL10.GL_TEXTURE_2D);
+
+        //enable smooth shading
+        gl.glEnableClientState(GL10.GL_SMOOTH);
+
+        //upload the geometry shared by every sprite
+        upload(gl);
+    }
+
+    /**
+     * Upload our indices to a buffer object so they aren't sent with every draw call.<br>
+     * This only needs to happen once per context, if buffer objects aren't supported we keep sending them from memory
+     * @param gl Object used for rendering textures
+     */
+    private void upload(final GL10 gl) {
+
+        //already uploaded, or buffer objects aren't supported
+        if (this.indexBufferId != 0 || !(gl instanceof GL11))
+            return;
+
+        final GL11 gl11 = (GL11)gl;
+
+        //create our buffer object
+        final int[] ids = new int[1];
+        gl11.glGenBuffers(1, ids, 0);
+
+        //copy our indices into it
+        indexBuffer.position(0);
+        gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, ids[0]);
+        gl11.glBufferData(GL11.GL_ELEMENT_ARRAY_BUFFER, indexBuffer.capacity() * SHORT_BYTES, indexBuffer, GL11.GL_STATIC_DRAW);
+        gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, 0);
+
+        this.indexBufferId = ids[0];
+    }
+
+    @Override
+    public void begin(final GL10 gl) {
+
+        //store our reference
+        this.gl = gl;
+
+        //reset the batch
+        this.count = 0;
+        this.textureId = -1;
+        this.drawCalls = 0;
+        this.glCalls = 0;
+        setColor(1.0f, 1.0f, 1.0f, 1.0f);
+
+        //clears the screen and depth buffer.
+        gl.glClear(GL10.GL_COLOR_BUFFER_BIT | GL10.GL_DEPTH_BUFFER_BIT);
+
+        //reset the projection matrix
+        gl.glLoadIdentity();
+
+        //scale to our game dimensions to match the users screen
+        gl.glScalef(scaleX, scaleY, 0.0f);
+        glCalls += 3;
+
+        //make sure we are supporting alpha for transparency
+        gl.glEnable(GL10.GL_BLEND);
+        gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
+
+        //enable texture rendering
+        gl.glEnable(GL10.GL_TEXTURE_2D);
+
+        //enable client state for our render
+        gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+        gl.glEnableClientState(GL10.GL_COLOR_ARRAY);
+        glCalls += 6;
+    }
+
+    @Override
+    public void end() {
+
+        //draw what is left
+        flush();
+
+        //we only needed the color array for our batch
+        gl.glDisableClientState(GL10.GL_COLOR_ARRAY);
+        glCalls++;
+
+        //remove our reference
+        this.gl = null;
+    }
+
+    @Override
+    public void draw(final int textureId, final double x, final double y, final double w, final double h,
+                     final float u1, final float v1, final float u2, final float v2, final float angle) {
+
+        //if the texture changed or we are full, draw what we have
+        if (textureId != this.textureId || count >= MAX_SPRITES) {
+            flush();
+            this.textureId = textureId;
+        }
+
+        //the corners of our quad
+        float x1 = (float)x, y1 = (float)y;
+        float x2 = (float)(x + w), y2 = (float)(y + h);
+
+        //where do we start writing
+        int index = count * VERTICES_PER_SPRITE * VERTEX_SIZE;
+
+        if (angle == 0.0f) {
+            index = put(index, x1, y1, u1, v1);
+            index = put(index, x1, y2, u1, v2);
+            index = put(index, x2, y1, u2, v1);
+            put(index, x2, y2, u2, v2);
+        } else {
+
+            //rotate each corner around the middle
+            final float mx = (float)(x + (w / 2)), my = (float)(y + (h / 2));
+            final double radians = Math.toRadians(angle);
+            final float cos = (float)Math.cos(radians), sin = (float)Math.sin(radians);
+
+            //distance of the corners from the middle
+            x1 -= mx;
+            x2 -= mx;
+            y1 -= my;
+            y2 -= my;
+
+            index = put(index, mx + (x1 * cos) - (y1 * sin), my + (x1 * sin) + (y1 * cos), u1, v1);
+            index = put(index, mx + (x1 * cos) - (y2 * sin), my + (x1 * sin) + (y2 * cos), u1, v2);
+            index = put(index, mx + (x2 * cos) - (y1 * sin), my + (x2 * sin) + (y1 * cos), u2, v1);
+            put(index, mx + (x2 * cos) - (y2 * sin), my + (x2 * sin) + (y2 * cos), u2, v2);
+        }
+
+        //we added a sprite
+        count++;
+    }
+
+    /**
+     * Write a single vertex
+     * @return The index where the next vertex starts
+     */
+    private int put(int index, final float x, final float y, final float u, final float v) {
+        vertices[index++] = x;
+        vertices[index++] = y;
+        vertices[index++] = u;
+        vertices[index++] = v;
+        vertices[index++] = red;
+        vertices[index++] = green;
+        vertices[index++] = blue;
+        vertices[index++] = alpha;
+        return index;
+    }
+
+    @Override
+    public void flush() {
+
+        //nothing to draw
+        if (count == 0)
+            return;
+
+        //copy our data into the buffer
+        vertexBuffer.clear();
+        vertexBuffer.put(vertices, 0, count * VERTICES_PER_SPRITE * VERTEX_SIZE);
+
+        //assign texture we want to use
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, textureId);
+
+        //provide our array of vertex coordinates
+        vertexBuffer.position(0);
+        gl.glVertexPointer(2, GL10.GL_FLOAT, STRIDE, vertexBuffer);
+
+        //coordinates on texture we want to render
+        vertexBuffer.position(2);
+        gl.glTexCoordPointer(2, GL10.GL_FLOAT, STRIDE, vertexBuffer);
+
+        //color of each vertex
+        vertexBuffer.position(4);
+        gl.glColorPointer(4, GL10.GL_FLOAT, STRIDE, vertexBuffer);
+        glCalls += 4;
+
+        //render every sprite in the batch
+        if (indexBufferId != 0) {
+
+            //use the indices already on the gpu
+            final GL11 gl11 = (GL11)gl;
+            gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+            gl11.glDrawElements(GL10.GL_TRIANGLES, count * INDICES_PER_SPRITE, GL10.GL_UNSIGNED_SHORT, 0);
+            gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, 0);
+            glCalls += 3;
+
+        } else {
+            gl.glDrawElements(GL10.GL_TRIANGLES, count * INDICES_PER_SPRITE, GL10.GL_UNSIGNED_SHORT, indexBuffer);
+            glCalls++;
+        }
+
+        //keep track of our draw calls
+        drawCalls++;
+
+        //the batch is now empty
+        count = 0;
+    }
+
+    @Override
+    public boolean hasRenderTargets() {
+
+        //check the extension once per context
+        if (!this.checked) {
+            final String extensions = gl.glGetString(GL10.GL_EXTENSIONS);
+            this.renderTargets = (extensions != null && extensions.contains(EXTENSION_FRAMEBUFFER));
+            this.checked = true;
+        }
+
+        return this.renderTargets;
+    }
+
+    @Override
+    public boolean createRenderTarget(final int width, final int height, final int[] ids) {
+
+        //make sure the texture isn't too large
+        gl.glGetIntegerv(GL10.GL_MAX_TEXTURE_SIZE, ids, 0);
+
+        if (width > ids[0] || height > ids[0]) {
+            ids[0] = 0;
+            ids[1] = 0;
+            return false;
+        }
+
+        //create the texture we render into, it is drawn 1:1 with the screen so there is no filtering
+        gl.glGenTextures(1, ids, 1);
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, ids[1]);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_NEAREST);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_NEAREST);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);
+        gl.glTexImage2D(GL10.GL_TEXTURE_2D, 0, GL10.GL_RGBA, width, height, 0, GL10.GL_RGBA, GL10.GL_UNSIGNED_BYTE, null);
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, 0);
+
+        //attach it to a frame buffer
+        GLES11Ext.glGenFramebuffersOES(1, ids, 0);
+        GLES11Ext.glBindFramebufferOES(GLES11Ext.GL_FRAMEBUFFER_OES, ids[0]);
+        GLES11Ext.glFramebufferTexture2DOES(GLES11Ext.GL_FRAMEBUFFER_OES, GLES11Ext.GL_COLOR_ATTACHMENT0_OES, GL10.GL_TEXTURE_2D, ids[1], 0);
+        final int status = GLES11Ext.glCheckFramebufferStatusOES(GLES11Ext.GL_FRAMEBUFFER_OES);
+        GLES11Ext.glBindFramebufferOES(GLES11Ext.GL_FRAMEBUFFER_OES, 0);
+        glCalls += 15;
+
+        return (status == GLES11Ext.GL_FRAMEBUFFER_COMPLETE_OES);
+    }
+
+    @Override
+    public void deleteRenderTarget(final int[] ids) {
+
+        if (ids[0] != 0)
+            GLES11Ext.glDeleteFramebuffersOES(1, ids, 0);
+        if (ids[1] != 0)
+            gl.glDeleteTextures(1, ids, 1);
+
+        ids[0] = 0;
+        ids[1] = 0;
+        glCalls += 2;
+    }
+
+    @Override
+    public void beginRenderTarget(final int framebufferId, final int width, final int height, final float x, final float y) {
+
+        //draw what we have on the screen first
+        flush();
+
+        //1 pixel for each screen pixel, with (x, y) at the origin
+        GLES11Ext.glBindFramebufferOES(GLES11Ext.GL_FRAMEBUFFER_OES, framebufferId);
+        gl.glViewport(0, 0, width, height);
+        gl.glMatrixMode(GL10.GL_PROJECTION);
+        gl.glPushMatrix();
+        gl.glLoadIdentity();
+        gl.glOrthof(0.0f, width, 0.0f, height, 1.0f, -1.0f);
+        gl.glMatrixMode(GL10.GL_MODELVIEW);
+        gl.glPushMatrix();
+        gl.glLoadIdentity();
+        gl.glScalef(scaleX, scaleY, 1.0f);
+        gl.glTranslatef(-x, -y, 0.0f);
+
+        //write the transparency into the texture instead of blending
+        gl.glDisable(GL10.GL_BLEND);
+        gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        gl.glEnable(GL10.GL_SCISSOR_TEST);
+        glCalls += 15;
+    }
+
+    @Override
+    public void clearRenderTarget(final int x, final int y, final int width, final int height) {
+        gl.glScissor(x, y, width, height);
+        gl.glClear(GL10.GL_COLOR_BUFFER_BIT);
+        glCalls += 2;
+    }
+
+    @Override
+    public void endRenderTarget() {
+
+        //draw what is left into the render target
+        flush();
+
+        //go back to rendering the screen
+        gl.glDisable(GL10.GL_SCISSOR_TEST);
+        gl.glEnable(GL10.GL_BLEND);
+        gl.glPopMatrix();
+        gl.glMatrixMode(GL10.GL_PROJECTION);
+        gl.glPopMatrix();
+        gl.glMatrixMode(GL10.GL_MODELVIEW);
+        gl.glViewport(0, 0, width, height);
+        GLES11Ext.glBindFramebufferOES(GLES11Ext.GL_FRAMEBUFFER_OES, 0);
+        glCalls += 8;
+    }
+}
@@ -0,0 +1,453 @@
+package com.gamesbykevin.breakout.opengl;
+
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Collect textured quads and draw them together with open gl es 2.0 and a single shader.<br>
+ * Each vertex carries the attributes of its whole sprite (location, size, rotation, texture coordinates and color)
+ * and which corner it is, the vertex shader places the corner. So there is no math per sprite on the cpu and no matrix stack.<br>
+ * The sprites of the frame are kept in order, a new range starts when the texture changes.
+ * Everything is uploaded to one streaming buffer object and drawn range by range when the batch ends or has to be flushed,
+ * so a frame is one upload and a draw call for each texture change
+ */
+public class GLES20SpriteBatch extends SpriteBatch {
+
+    /**
+     * The most sprites we can hold before we have to flush
+     */
+    public static final int MAX_SPRITES = 2048;
+
+    //each vertex is corner x, y, sprite x, y, width, height, u1, v1, u2, v2, r, g, b, a, angle
+    private static final int VERTEX_SIZE = 15;
+
+    //where each attribute starts in a vertex
+    private static final int OFFSET_CORNER = 0;
+    private static final int OFFSET_RECT = 2;
+    private static final int OFFSET_UV = 6;
+    private static final int OFFSET_COLOR = 10;
+    private static final int OFFSET_ANGLE = 14;
+
+    //stride between each vertex in bytes
+    private static final int STRIDE = VERTEX_SIZE * FLOAT_BYTES;
+
+    //place the corner of the sprite, rotated around the middle
+    private static final String VERTEX_SHADER =
+            "uniform mat4 u_projection;\n" +
+            "attribute vec2 a_corner;\n" +
+            "attribute vec4 a_rect;\n" +
+            "attribute vec4 a_uv;\n" +
+            "attribute vec4 a_color;\n" +
+            "attribute float a_angle;\n" +
+            "varying vec2 v_uv;\n" +
+            "varying vec4 v_color;\n" +
+            "void main() {\n" +
+            "    vec2 offset = (a_corner - 0.5) * a_rect.zw;\n" +
+            "    float c = cos(a_angle);\n" +
+            "    float s = sin(a_angle);\n" +
+            "    vec2 position = a_rect.xy + (a_rect.zw * 0.5) + vec2((offset.x * c) - (offset.y * s), (offset.x * s) + (offset.y * c));\n" +
+            "    gl_Position = u_projection * vec4(position, 0.0, 1.0);\n" +
+            "    v_uv = mix(a_uv.xy, a_uv.zw, a_corner);\n" +
+            "    v_color = a_color;\n" +
+            "}\n";
+
+    //the texture tinted by the color
+    private static final String FRAGMENT_SHADER =
+            "precision mediump float;\n" +
+            "uniform sampler2D u_texture;\n" +
+            "varying vec2 v_uv;\n" +
+            "varying vec4 v_color;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = texture2D(u_texture, v_uv) * v_color;\n" +
+            "}\n";
+
+    //the corner of each vertex in a quad (top-left, bottom-left, top-right, bottom-right)
+    private static final float[] CORNERS = {0, 0, 0, 1, 1, 0, 1, 1};
+
+    //the data we are building before we send it to open gl
+    private final float[] vertices;
+
+    //buffer sent to open gl
+    private final FloatBuffer vertexBuffer;
+
+    //order in which the vertices are drawn
+    private final ShortBuffer indexBuffer;
+
+    //the texture and number of sprites of each range
+    private final int[] rangeTextures, rangeSprites;
+
+    //the number of ranges
+    private int ranges = 0;
+
+    //the number of sprites in the current batch
+    private int count = 0;
+
+    //the texture of the current range
+    private int textureId = -1;
+
+    //our shader program and buffer objects, 0 if not created
+    private int program = 0, vertexBufferId = 0, indexBufferId = 0;
+
+    //where our attributes and uniforms are
+    private int corner, rect, uv, color, angle, projection;
+
+    //the projection of the screen and of the render target
+    private final float[] screenMatrix = new float[16], targetMatrix = new float[16];
+
+    //container for generating ids
+    private final int[] ids = new int[1];
+
+    public GLES20SpriteBatch() {
+
+        //create the array for our vertex data
+        this.vertices = new float[MAX_SPRITES * VERTICES_PER_SPRITE * VERTEX_SIZE];
+
+        //create our vertex buffer
+        ByteBuffer vbb = ByteBuffer.allocateDirect(vertices.length * FLOAT_BYTES);
+        vbb.order(ByteOrder.nativeOrder());
+        this.vertexBuffer = vbb.asFloatBuffer();
+
+        //create our index buffer, this never changes
+        this.indexBuffer = createIndices(MAX_SPRITES);
+
+        //at most one range per sprite
+        this.rangeTextures = new int[MAX_SPRITES];
+        this.rangeSprites = new int[MAX_SPRITES];
+
+        //the corner of each vertex never changes
+        for (int i = 0; i < MAX_SPRITES * VERTICES_PER_SPRITE; i++) {
+            vertices[(i * VERTEX_SIZE) + OFFSET_CORNER] = CORNERS[(i % VERTICES_PER_SPRITE) * 2];
+            vertices[(i * VERTEX_SIZE) + OFFSET_CORNER + 1] = CORNERS[((i % VERTICES_PER_SPRITE) * 2) + 1];
+        }
+    }
+
+    @Override
+    public void onSurfaceCreated(final GL10 gl) {
+
+        //compile our shader
+        this.program = createProgram();
+        this.corner = GLES20.glGetAttribLocation(program, "a_corner");
+        this.rect = GLES20.glGetAttribLocation(program, "a_rect");
+        this.uv = GLES20.glGetAttribLocation(program, "a_uv");
+        this.color = GLES20.glGetAttribLocation(program, "a_color");
+        this.angle = GLES20.glGetAttribLocation(program, "a_angle");
+        this.projection = GLES20.glGetUniformLocation(program, "u_projection");
+
+        //create the buffer we stream our vertices into
+        GLES20.glGenBuffers(1, ids, 0);
+        this.vertexBufferId = ids[0];
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, vertexBufferId);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, vertices.length * FLOAT_BYTES, null, GLES20.GL_STREAM_DRAW);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+
+        //the indices never change, upload them once
+        GLES20.glGenBuffers(1, ids, 0);
+        this.indexBufferId = ids[0];
+        indexBuffer.position(0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, indexBuffer.capacity() * SHORT_BYTES, indexBuffer, GLES20.GL_STATIC_DRAW);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Compile and link our shader program
+     * @return The id of the program
+     */
+    private static int createProgram() {
+
+        final int vertexShader = createShader(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER);
+        final int fragmentShader = createShader(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+
+        final int program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, vertexShader);
+        GLES20.glAttachShader(program, fragmentShader);
+        GLES20.glLinkProgram(program);
+
+        final int[] status = new int[1];
+        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, status, 0);
+
+        if (status[0] == 0) {
+            final String log = GLES20.glGetProgramInfoLog(program);
+            GLES20.glDeleteProgram(program);
+            throw new RuntimeException("Error linking shader program: " + log);
+        }
+
+        //the program keeps what it needs
+        GLES20.glDeleteShader(vertexShader);
+        GLES20.glDeleteShader(fragmentShader);
+
+        return program;
+    }
+
+    /**
+     * Compile a shader
+     * @param type The type of shader
+     * @param source The source of the shader
+     * @return The id of the shader
+     */
+    private static int createShader(final int type, final String source) {
+
+        final int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+
+        final int[] status = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, status, 0);
+
+        if (status[0] == 0) {
+            final String log = GLES20.glGetShaderInfoLog(shader);
+            GLES20.glDeleteShader(shader);
+            throw new RuntimeException("Error compiling shader: " + log);
+        }
+
+        return shader;
+    }
+
+    @Override
+    public void onSurfaceChanged(final GL10 gl, final int width, final int height) {
+        super.onSurfaceChanged(gl, width, height);
+
+        //sets the current view port to the new size of the screen
+        GLES20.glViewport(0, 0, width, height);
+
+        //the game dimensions fill the screen, y-coordinates go down
+        Matrix.orthoM(screenMatrix, 0, 0.0f, OpenGLSurfaceView.WIDTH, OpenGLSurfaceView.HEIGHT, 0.0f, -1.0f, 1.0f);
+    }
+
+    @Override
+    public void begin(final GL10 gl) {
+
+        //reset the batch
+        this.count = 0;
+        this.ranges = 0;
+        this.textureId = -1;
+        this.drawCalls = 0;
+        this.glCalls = 0;
+        setColor(1.0f, 1.0f, 1.0f, 1.0f);
+
+        //clears the screen and depth buffer.
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+
+        //make sure we are supporting alpha for transparency
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+
+        //use our shader for everything
+        GLES20.glUseProgram(program);
+        GLES20.glUniformMatrix4fv(projection, 1, false, screenMatrix, 0);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+
+        //point our attributes at the streaming buffer
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, vertexBufferId);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+        enable(corner, 2, OFFSET_CORNER);
+        enable(rect, 4, OFFSET_RECT);
+        enable(uv, 4, OFFSET_UV);
+        enable(color, 4, OFFSET_COLOR);
+        enable(angle, 1, OFFSET_ANGLE);
+        glCalls += 18;
+    }
+
+    /**
+     * Enable an attribute and point it at the streaming buffer
+     * @param location The location of the attribute
+     * @param size The number of floats in the attribute
+     * @param offset Where the attribute starts in a vertex (floats)
+     */
+    private static void enable(final int location, final int size, final int offset) {
+        GLES20.glEnableVertexAttribArray(location);
+        GLES20.glVertexAttribPointer(location, size, GLES20.GL_FLOAT, false, STRIDE, offset * FLOAT_BYTES);
+    }
+
+    @Override
+    public void end() {
+
+        //draw what is left
+        flush();
+
+        GLES20.glDisableVertexAttribArray(corner);
+        GLES20.glDisableVertexAttribArray(rect);
+        GLES20.glDisableVertexAttribArray(uv);
+        GLES20.glDisableVertexAttribArray(color);
+        GLES20.glDisableVertexAttribArray(angle);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        glCalls += 7;
+    }
+
+    @Override
+    public void draw(final int textureId, final double x, final double y, final double w, final double h,
+                     final float u1, final float v1, final float u2, final float v2, final float angle) {
+
+        //if we are full, draw what we have
+        if (count >= MAX_SPRITES)
+            flush();
+
+        //if the texture changed start a new range
+        if (textureId != this.textureId || ranges == 0) {
+            rangeTextures[ranges] = textureId;
+            rangeSprites[ranges] = 0;
+            ranges++;
+            this.textureId = textureId;
+        }
+
+        //every corner has the same sprite attributes
+        final float radians = (float)Math.toRadians(angle);
+        int index = count * VERTICES_PER_SPRITE * VERTEX_SIZE;
+
+        for (int i = 0; i < VERTICES_PER_SPRITE; i++, index += VERTEX_SIZE) {
+            vertices[index + OFFSET_RECT] = (float)x;
+            vertices[index + OFFSET_RECT + 1] = (float)y;
+            vertices[index + OFFSET_RECT + 2] = (float)w;
+            vertices[index + OFFSET_RECT + 3] = (float)h;
+            vertices[index + OFFSET_UV] = u1;
+            vertices[index + OFFSET_UV + 1] = v1;
+            vertices[index + OFFSET_UV + 2] = u2;
+            vertices[index + OFFSET_UV + 3] = v2;
+            vertices[index + OFFSET_COLOR] = red;
+            vertices[index + OFFSET_COLOR + 1] = green;
+            vertices[index + OFFSET_COLOR + 2] = blue;
+            vertices[index + OFFSET_COLOR + 3] = alpha;
+            vertices[index + OFFSET_ANGLE] = radians;
+        }
+
+        //we added a sprite
+        rangeSprites[ranges - 1]++;
+        count++;
+    }
+
+    @Override
+    public void flush() {
+
+        //nothing to draw
+        if (count == 0)
+            return;
+
+        //copy our data into the buffer
+        vertexBuffer.clear();
+        vertexBuffer.put(vertices, 0, count * VERTICES_PER_SPRITE * VERTEX_SIZE);
+        vertexBuffer.position(0);
+
+        //let the driver give us new storage instead of waiting on the previous draw, then upload everything at once
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, vertices.length * FLOAT_BYTES, null, GLES20.GL_STREAM_DRAW);
+        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, count * VERTICES_PER_SPRITE * STRIDE, vertexBuffer);
+        glCalls += 2;
+
+        //draw each range with its texture
+        int first = 0;
+
+        for (int i = 0; i < ranges; i++) {
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, rangeTextures[i]);
+            GLES20.glDrawElements(GLES20.GL_TRIANGLES, rangeSprites[i] * INDICES_PER_SPRITE, GLES20.GL_UNSIGNED_SHORT, first * INDICES_PER_SPRITE * SHORT_BYTES);
+            first += rangeSprites[i];
+            drawCalls++;
+            glCalls += 2;
+        }
+
+        //the batch is now empty
+        count = 0;
+        ranges = 0;
+        textureId = -1;
+    }
+
+    @Override
+    public boolean hasRenderTargets() {
+
+        //frame buffer objects are part of 2.0
+        return true;
+    }
+
+    @Override
+    public boolean createRenderTarget(final int width, final int height, final int[] ids) {
+
+        //make sure the texture isn't too large
+        GLES20.glGetIntegerv(GLES20.GL_MAX_TEXTURE_SIZE, ids, 0);
+
+        if (width > ids[0] || height > ids[0]) {
+            ids[0] = 0;
+            ids[1] = 0;
+            return false;
+        }
+
+        //create the texture we render into, it is drawn 1:1 with the screen so there is no filtering
+        GLES20.glGenTextures(1, ids, 1);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, ids[1]);
+        GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
+        GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
+        GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, width, height, 0, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, null);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+
+        //attach it to a frame buffer
+        GLES20.glGenFramebuffers(1, ids, 0);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, ids[0]);
+        GLES20.glFramebufferTexture2D(GLES20.GL_FRAMEBUFFER, GLES20.GL_COLOR_ATTACHMENT0, GLES20.GL_TEXTURE_2D, ids[1], 0);
+        final int status = GLES20.glCheckFramebufferStatus(GLES20.GL_FRAMEBUFFER);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        glCalls += 14;
+
+        return (status == GLES20.GL_FRAMEBUFFER_COMPLETE);
+    }
+
+    @Override
+    public void deleteRenderTarget(final int[] ids) {
+
+        if (ids[0] != 0)
+            GLES20.glDeleteFramebuffers(1, ids, 0);
+        if (ids[1] != 0)
+            GLES20.glDeleteTextures(1, ids, 1);
+
+        ids[0] = 0;
+        ids[1] = 0;
+        glCalls += 2;
+    }
+
+    @Override
+    public void beginRenderTarget(final int framebufferId, final int width, final int height, final float x, final float y) {
+
+        //draw what we have on the screen first
+        flush();
+
+        //1 pixel for each screen pixel, with (x, y) at the origin
+        Matrix.orthoM(targetMatrix, 0, x, x + (width / scaleX), y, y + (height / scaleY), -1.0f, 1.0f);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, framebufferId);
+        GLES20.glViewport(0, 0, width, height);
+        GLES20.glUniformMatrix4fv(projection, 1, false, targetMatrix, 0);
+
+        //write the transparency into the texture instead of blending
+        GLES20.glDisable(GLES20.GL_BLEND);
+        GLES20.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        GLES20.glEnable(GLES20.GL_SCISSOR_TEST);
+        glCalls += 6;
+    }
+
+    @Override
+    public void clearRenderTarget(final int x, final int y, final int width, final int height) {
+        GLES20.glScissor(x, y, width, height);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+        glCalls += 2;
+    }
+
+    @Override
+    public void endRenderTarget() {
+
+        //draw what is left into the render target
+        flush();
+
+        //go back to rendering the screen
+        GLES20.glDisable(GLES20.GL_SCISSOR_TEST);
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glUniformMatrix4fv(projection, 1, false, screenMatrix, 0);
+        GLES20.glViewport(0, 0, width, height);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        glCalls += 5;
+    }
+}
@@ -3,14 +3,11 @@ package com.gamesbykevin.breakout.opengl;
 import android.content.Context;
 import android.opengl.GLSurfaceView.Renderer;
 
-import com.gamesbykevin.breakout.util.UtilityHelper;
+import com.gamesbykevin.breakout.profile.FrameStats;
 
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
-import static com.gamesbykevin.breakout.activity.GameActivity.getGame;
-import static com.gamesbykevin.breakout.activity.MainActivity.DEBUG;
-import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.FRAME_DURATION;
 import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.HEIGHT;
 import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.WIDTH;
 
@@ -20,28 +17,76 @@ import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.WIDTH;
 
 public class OpenGLRenderer implements Renderer {
 
-    //get the ratio of the users screen compared to the default dimensions for the render
-    private float scaleRenderX, scaleRenderY;
-
     //get the ratio of the users screen compared to the default dimensions for the motion event
     public float scaleMotionX = 0, scaleMotionY = 0;
 
     /**
      * Have all textures been loaded?
      */
-    public static boolean LOADED = false;
+    public static volatile boolean LOADED = false;
 
     //object containing all the texture ids
     private Textures textures;
 
-    public OpenGLRenderer(Context activity) {
+    //object used to draw all of our sprites
+    private final SpriteBatch batch;
+
+    //object used to draw the bricks
+    private final BrickLayer brickLayer;
+
+    //snapshots handed from the update thread to us
+    private final SnapshotBuffer snapshots;
+
+    //how many frames have been drawn
+    private volatile long frames = 0;
+
+    //where we record how long each frame took
+    private final FrameStats frameStats;
+
+    public OpenGLRenderer(Context activity, final int version) {
 
         this.textures = new Textures(activity);
 
+        //create our sprite batch for the version of open gl we have
+        this.batch = (version >= 2) ? new GLES20SpriteBatch() : new GL10SpriteBatch();
+
+        //create our brick layer
+        this.brickLayer = new BrickLayer();
+
+        //create our snapshots
+        this.snapshots = new SnapshotBuffer();
+
+        //create our frame stats
+        this.frameStats = new FrameStats();
+
         //flag the textures loaded as false
         LOADED = false;
     }
 
+    /**
+     * Get the snapshots
+     * @return Object used to publish what we want to draw
+     */
+    public SnapshotBuffer getSnapshots() {
+        return this.snapshots;
+    }
+
+    /**
+     * Get the frame stats
+     * @return Object recording how long each frame took
+     */
+    public FrameStats getFrameStats() {
+        return this.frameStats;
+    }
+
+    /**
+     * Get the frames
+     * @return The number of frames that have been drawn
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+
     public void onPause() {
         //do we do anything here?
     }
@@ -59,6 +104,16 @@ public class OpenGLRenderer implements Renderer {
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
         //display the version of open gl
         //UtilityHelper.logEvent("OpenGL Version: " + gl.glGetString(GL10.GL_VERSION));
+
+        //this is a new context, anything we uploaded to the previous one is gone
+        this.batch.onSurfaceCreated(gl);
+        this.brickLayer.invalidate();
+
+        //flag that we have not yet loaded the textures
+        LOADED = false;
+
+        //start decoding our textures, they are uploaded a few at a time as we draw frames
+        this.textures.load();
     }
 
     /**
@@ -71,43 +126,15 @@ public class OpenGLRenderer implements Renderer {
     @Override
     public void onSurfaceChanged(GL10 gl, int width, int height) {
 
-        //flag that we have not yet loaded the textures
-        LOADED = false;
-
-        //store the ratio for the render
-        this.scaleRenderX = width / (float) WIDTH;
-        this.scaleRenderY = height / (float) HEIGHT;
-
         //store the ratio when touching the screen
         this.scaleMotionX = (float) WIDTH / width;
         this.scaleMotionY = (float) HEIGHT / height;
 
-        //sets the current view port to the new size of the screen
-        gl.glViewport(0, 0, width, height);
-
-        //reset the projection matrix back to its default state
-        gl.glLoadIdentity();
-
-        //select the projection matrix
-        gl.glMatrixMode(GL10.GL_PROJECTION);
-
-        //set rendering dimensions
-        gl.glOrthof(0.0f, width, height, 0.0f, 1.0f, -1.0f);
-
-        //select the model view matrix
-        gl.glMatrixMode(GL10.GL_MODELVIEW);
+        //set up the batch for the new size of the screen
+        this.batch.onSurfaceChanged(gl, width, height);
 
-        //enable 2d textures
-        gl.glEnable(GL10.GL_TEXTURE_2D);
-
-        //enable smooth shading
-        gl.glEnableClientState(GL10.GL_SMOOTH);
-
-        //load our textures
-        this.textures.loadTextures(gl);
-
-        //flag that we have loaded the textures
-        LOADED = true;
+        //the brick layer is drawn again at the new resolution
+        this.brickLayer.resize();
     }
 
     /**
@@ -118,28 +145,24 @@ public class OpenGLRenderer implements Renderer {
     public void onDrawFrame(GL10 gl) {
 
         //get the current time
-        long time = System.currentTimeMillis();
-
-        //clears the screen and depth buffer.
-        gl.glClear(GL10.GL_COLOR_BUFFER_BIT | GL10.GL_DEPTH_BUFFER_BIT);
+        final long time = System.nanoTime();
 
-        //reset the projection matrix
-        gl.glLoadIdentity();
+        //upload the textures that are ready without holding up the frame for too long
+        if (!LOADED)
+            LOADED = this.textures.upload(gl, Textures.UPLOAD_BUDGET);
 
-        //scale to our game dimensions to match the users screen
-        gl.glScalef(scaleRenderX, scaleRenderY, 0.0f);
+        //render the latest snapshot of the game objects, only once every texture is on this context
+        this.batch.begin(gl);
 
-        //render game objects
-        getGame().render(gl);
+        if (LOADED)
+            this.snapshots.getFront().render(this.batch, this.brickLayer);
 
-        if (DEBUG) {
+        this.batch.end();
 
-            //calculate how long it took to render a single frame
-            long duration = System.currentTimeMillis() - time;
+        //record how long it took to submit the frame, the gpu may still be drawing it
+        this.frameStats.recordRender(System.nanoTime() - time, this.batch.getGlCalls(), this.batch.getDrawCalls());
 
-            //if it took too long, notify command line
-            if (duration > FRAME_DURATION)
-                UtilityHelper.logEvent("Single render duration: " + (System.currentTimeMillis() - time));
-        }
+        //we finished another frame
+        this.frames++;
     }
 }
\ No newline at end of file
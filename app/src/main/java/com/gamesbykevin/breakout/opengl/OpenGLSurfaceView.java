@@ -1,12 +1,21 @@
 package com.gamesbykevin.breakout.opengl;
 
+import android.app.ActivityManager;
 import android.content.Context;
 import android.opengl.GLSurfaceView;
 import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.MotionEvent;
+import android.view.WindowManager;
 
+import com.gamesbykevin.breakout.profile.FrameStats;
+import com.gamesbykevin.breakout.simulation.World;
 import com.gamesbykevin.breakout.util.UtilityHelper;
 
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
 import static com.gamesbykevin.breakout.activity.GameActivity.getGame;
 import static com.gamesbykevin.breakout.activity.MainActivity.DEBUG;
 import static com.gamesbykevin.breakout.opengl.OpenGLRenderer.LOADED;
@@ -15,17 +24,43 @@ import static com.gamesbykevin.breakout.opengl.OpenGLRenderer.LOADED;
  * Created by Kevin on 6/1/2017.
  */
 
-public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
+public class OpenGLSurfaceView extends GLSurfaceView implements Runnable, Choreographer.FrameCallback {
 
     /**
      * Frames per second
      */
-    public static final int FPS = 60;
+    public static final int FPS = World.FPS;
 
     /**
-     * The version of open GL we are using
+     * How do we pace each frame
      */
-    public static final int OPEN_GL_VERSION = 1;
+    public enum Pacing {
+        //our own thread sleeps between each game step and requests a render
+        Thread,
+
+        //the display vsync schedules each frame, the game steps are run to catch up to the vsync time
+        Vsync
+    }
+
+    /**
+     * The pacing we are using
+     */
+    public static final Pacing PACING = Pacing.Vsync;
+
+    /**
+     * Do we draw the frame stats over the game
+     */
+    public static final boolean HUD = DEBUG;
+
+    /**
+     * The file we write the frame stats to when paused (debug only)
+     */
+    public static final String FRAME_STATS_FILE_NAME = "frames.txt";
+
+    /**
+     * The version of open GL we prefer, we fall back to 1 if the device doesn't support it
+     */
+    public static final int OPEN_GL_VERSION = 2;
 
     /**
      * Our object where we render our pixel data
@@ -38,40 +73,62 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
     //keep our thread running
     private volatile boolean running = true;
 
-    //track the time to keep a steady game speed
+    //track the time to keep a steady game speed (nanoseconds)
     private long previous;
-    private long previousUpdate;
+
+    //time of the previous draw, 0 if we haven't drawn since resuming (nanoseconds)
     private long previousDraw;
-    private long postUpdate;
-    private long postDraw;
+
+    //time that has passed that we have not yet stepped the game (nanoseconds)
+    private long lag;
+
+    //how far we are between the previous and current game step
+    private float alpha = 1.0f;
+
+    //time of the previous vsync (nanoseconds)
+    private long previousVsync;
+
+    //the duration of each display refresh (nanoseconds)
+    private long vsyncDuration;
+
+    //the frame count of the renderer when we last requested a render
+    private long framesRequested;
+
+    //how many vsyncs did we miss
+    private long missedVsyncs = 0;
+
+    //draws the frame stats over the game
+    private final PerformanceHud hud;
 
     /**
-     * The duration of each frame (milliseconds)
+     * How many nanoseconds per second
      */
-    public static final long FRAME_DURATION = (long)(1000.0d / FPS);
+    public static final long NANOSECONDS_PER_SECOND = 1000000000L;
 
     /**
-     * How many milliseconds per second
+     * How many nanoseconds per millisecond
      */
-    public static final long MILLISECONDS_PER_SECOND = 1000L;
+    public static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
 
     /**
-     * Count the number of frames for debugging purposes
+     * The duration of each game step (nanoseconds)
      */
-    private int frames = 0;
+    public static final long STEP_DURATION = NANOSECONDS_PER_SECOND / FPS;
 
-    //keep track of time for debug purposes
-    private long timestamp = System.currentTimeMillis();
+    /**
+     * The most steps we will run to catch up before we let the game slow down
+     */
+    public static final int MAX_STEPS = 5;
 
     /**
      * Default dimensions this game was designed for
      */
-    public static final int WIDTH = 480;
+    public static final int WIDTH = World.WIDTH;
 
     /**
      * Default dimensions this game was designed for
      */
-    public static final int HEIGHT = 800;
+    public static final int HEIGHT = World.HEIGHT;
 
     //store context to access resources
     private final Context activity;
@@ -90,19 +147,39 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
         //store our activity reference
         this.activity = activity;
 
-        //create an OpenGL ES 1.0 context.
-        setEGLContextClientVersion(OPEN_GL_VERSION);
+        //create an OpenGL ES context of the version the device supports
+        final int version = getOpenGlVersion(activity);
+        setEGLContextClientVersion(version);
 
         //create a new instance of our renderer
-        this.openGlRenderer = new OpenGLRenderer(this.activity);
+        this.openGlRenderer = new OpenGLRenderer(this.activity, version);
 
         //set the renderer for drawing on the gl surface view
         setRenderer(getOpenGlRenderer());
 
+        //create our hud
+        this.hud = new PerformanceHud(getFrameStats());
+
         //set render mode to only draw when there is a change in the drawing data
         setRenderMode(GLSurfaceView.RENDERMODE_WHEN_DIRTY);
     }
 
+    /**
+     * Get the version of open gl we will use
+     * @param activity Context to check the device configuration
+     * @return {@link #OPEN_GL_VERSION} if the device supports it, 1 otherwise
+     */
+    private static int getOpenGlVersion(final Context activity) {
+
+        final ActivityManager manager = (ActivityManager)activity.getSystemService(Context.ACTIVITY_SERVICE);
+
+        //the major version is in the upper 16 bits
+        if (manager != null && (manager.getDeviceConfigurationInfo().reqGlEsVersion >> 16) >= OPEN_GL_VERSION)
+            return OPEN_GL_VERSION;
+
+        return 1;
+    }
+
     /**
      * Get our OpenGL Renderer
      * @return Object used for all texture mapping
@@ -111,6 +188,32 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
         return this.openGlRenderer;
     }
 
+    /**
+     * Get the frame stats
+     * @return Object recording how long each frame took
+     */
+    public FrameStats getFrameStats() {
+        return getOpenGlRenderer().getFrameStats();
+    }
+
+    /**
+     * Write the frame stats to a file so they can be pulled from the device
+     */
+    private void writeFrameStats() {
+
+        try {
+            final Writer writer = new OutputStreamWriter(activity.openFileOutput(FRAME_STATS_FILE_NAME, Context.MODE_PRIVATE), "UTF-8");
+
+            try {
+                getFrameStats().write(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (Exception e) {
+            UtilityHelper.handleException(e);
+        }
+    }
+
     /**
      * If the game is paused stop our thread
      */
@@ -126,6 +229,16 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
         //flag that we don't want our thread to continue running
         this.running = false;
 
+        //keep the frame stats of this session
+        if (DEBUG)
+            writeFrameStats();
+
+        //stop receiving vsync callbacks
+        if (PACING == Pacing.Vsync) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            return;
+        }
+
         try {
 
             //wait for thread to finish
@@ -151,6 +264,29 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
         //flag running true
         this.running = true;
 
+        //start recording the frame stats over
+        getFrameStats().reset();
+        this.previousDraw = 0;
+        this.hud.reset(System.nanoTime());
+
+        if (PACING == Pacing.Vsync) {
+
+            //start fresh
+            this.previous = System.nanoTime();
+            this.lag = 0;
+            this.previousVsync = 0;
+            this.framesRequested = getOpenGlRenderer().getFrames();
+
+            //how long is each refresh of the display
+            final Display display = ((WindowManager)activity.getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
+            final float refreshRate = (display != null && display.getRefreshRate() > 0) ? display.getRefreshRate() : FPS;
+            this.vsyncDuration = (long)(NANOSECONDS_PER_SECOND / refreshRate);
+
+            //wait for the next vsync
+            Choreographer.getInstance().postFrameCallback(this);
+            return;
+        }
+
         //create the thread
         this.thread = new Thread(this);
 
@@ -161,16 +297,17 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
     @Override
     public void run() {
 
+        //start fresh
+        this.previous = System.nanoTime();
+        this.lag = 0;
+
         //do we continue to loop
         while (running) {
 
             try {
 
-                //get the current time
-                this.previous = System.currentTimeMillis();
-
-                //update the game state
-                update();
+                //update the game state up to the current time
+                step(System.nanoTime());
 
                 //render the image
                 draw();
@@ -185,59 +322,107 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
     }
 
     /**
-     * Make sure we maintain game speed
-     * @throws InterruptedException
+     * Called by the choreographer when a new display frame begins
+     * @param frameTimeNanos The time of the vsync (nanoseconds)
      */
-    private void control() throws InterruptedException {
+    @Override
+    public void doFrame(final long frameTimeNanos) {
 
-        //calculate how much time had passed
-        final long duration = System.currentTimeMillis() - this.previous;
+        //we are paused
+        if (!running)
+            return;
 
-        //we want each loop to have the same duration to maintain fps
-        long remaining = FRAME_DURATION - duration;
+        try {
 
-        //log event id this loop is running slow
-        if (DEBUG && remaining <= 0) {
-            UtilityHelper.logEvent("Slow: " + remaining);
-            UtilityHelper.logEvent("Update duration: " + (this.postUpdate - this.previousUpdate));
-            UtilityHelper.logEvent("Draw   duration: " + (this.postDraw - this.previousDraw));
-        }
+            //if the previous render still hasn't finished, we missed a vsync
+            if (getOpenGlRenderer().getFrames() < this.framesRequested)
+                missedVsync(1);
 
-        //make sure we sleep at least 1 millisecond
-        if (remaining < 1)
-            remaining = 1;
+            //if callbacks were skipped, we missed those vsyncs as well
+            if (this.previousVsync != 0) {
 
-        //make sure time remaining is a valid number
-        remaining = (remaining <= 0) ? 1 : remaining;
+                final long skipped = Math.round((double)(frameTimeNanos - this.previousVsync) / this.vsyncDuration) - 1;
 
-        //sleep the thread to maintain a steady game speed
-        this.thread.sleep(remaining);
+                if (skipped > 0)
+                    missedVsync(skipped);
+            }
 
-        //if debugging track performance
-        if (DEBUG)
-            trackProgress();
+            //remember the time
+            this.previousVsync = frameTimeNanos;
+
+            //update the game state up to the vsync
+            step(frameTimeNanos);
+
+            //we expect a new frame by the next vsync
+            this.framesRequested = getOpenGlRenderer().getFrames() + 1;
+
+            //render the image
+            draw();
+
+        } catch (Exception e) {
+            UtilityHelper.handleException(e);
+        }
+
+        //wait for the next vsync
+        Choreographer.getInstance().postFrameCallback(this);
     }
 
     /**
-     * Track progress for debugging purposes
+     * Keep track of the missed vsyncs
+     * @param count The number of vsyncs that were missed
      */
-    private void trackProgress() {
+    private void missedVsync(final long count) {
+        this.missedVsyncs += count;
+        getFrameStats().recordMissedVsyncs(count);
+    }
 
-        //keep track of the frames
-        frames++;
+    /**
+     * Get the missed vsyncs
+     * @return The number of vsyncs that did not get a new frame since the game started
+     */
+    public long getMissedVsyncs() {
+        return this.missedVsyncs;
+    }
 
-        //if 1 second has passed, print fps counter
-        if (System.currentTimeMillis() - timestamp >= MILLISECONDS_PER_SECOND) {
+    /**
+     * Update the game state in fixed steps until we catch up to the specified time
+     * @param current The current time (nanoseconds)
+     * @throws Exception
+     */
+    private void step(final long current) throws Exception {
 
-            //print progress
-            UtilityHelper.logEvent("FPS: " + frames);
+        //add the time that has passed
+        this.lag += current - this.previous;
+        this.previous = current;
 
-            //reset timer for next update
-            timestamp = System.currentTimeMillis();
+        //if we are too far behind, drop the time we can't catch up on
+        if (this.lag > MAX_STEPS * STEP_DURATION) {
+            getFrameStats().recordDroppedSteps((this.lag - (MAX_STEPS * STEP_DURATION)) / STEP_DURATION);
+            this.lag = MAX_STEPS * STEP_DURATION;
+        }
 
-            //reset frame count
-            frames = 0;
+        //update the game state in fixed steps
+        while (this.lag >= STEP_DURATION) {
+            update();
+            this.lag -= STEP_DURATION;
         }
+
+        //the render can draw between the previous and current step
+        this.alpha = (float)this.lag / STEP_DURATION;
+    }
+
+    /**
+     * Sleep until the next game step is due
+     * @throws InterruptedException
+     */
+    private void control() throws InterruptedException {
+
+        //how long until the next step
+        final long remaining = STEP_DURATION - this.lag - (System.nanoTime() - this.previous);
+
+        //sleep the thread to maintain a steady game speed
+        if (remaining > 0)
+            Thread.sleep(remaining / NANOSECONDS_PER_MILLISECOND, (int)(remaining % NANOSECONDS_PER_MILLISECOND));
     }
 
     @Override
@@ -271,13 +456,13 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
     private void update() throws Exception {
 
         //track time before update
-        this.previousUpdate = System.currentTimeMillis();
+        final long time = System.nanoTime();
 
         //update game logic here
         getGame().update();
 
-        //track time after update
-        this.postUpdate = System.currentTimeMillis();
+        //record how long the update took
+        getFrameStats().recordUpdate(System.nanoTime() - time);
     }
 
     /**
@@ -286,9 +471,25 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
     private void draw() {
 
         //track time before draw
-        this.previousDraw = System.currentTimeMillis();
+        final long time = System.nanoTime();
 
         try {
+            //record the time since the previous frame and how much is going on
+            if (this.previousDraw != 0)
+                getFrameStats().recordFrame(time - this.previousDraw, (getGame().getWorld() != null) ? getGame().getWorld().getEntities() : 0);
+
+            //capture what we want to draw while the game isn't changing
+            final Snapshot snapshot = getOpenGlRenderer().getSnapshots().getBack();
+            snapshot.reset(this.alpha);
+            getGame().render(snapshot);
+
+            //draw the frame stats over everything else
+            if (HUD)
+                hud.render(snapshot, time);
+
+            //hand the snapshot to the gl thread
+            getOpenGlRenderer().getSnapshots().publish();
+
             //render game objects
             requestRender();
 
@@ -296,7 +497,7 @@ public class OpenGLSurfaceView extends GLSurfaceView implements Runnable {
             UtilityHelper.handleException(e);
         }
 
-        //track time after draw
-        this.postDraw = System.currentTimeMillis();
+        //remember the time for the next frame
+        this.previousDraw = time;
     }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.gamesbykevin.breakout.opengl;
+
+import com.gamesbykevin.breakout.profile.FrameStats;
+import com.gamesbykevin.breakout.profile.FrameStats.Metric;
+import com.gamesbykevin.breakout.util.StatDescription;
+import com.gamesbykevin.breakout.wall.Wall;
+
+import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.NANOSECONDS_PER_SECOND;
+
+/**
+ * Draw the frame stats over the game with the number textures, one number on each row from the top left.<br>
+ * The rows are: frames per second, frame time p50 and p99 (microseconds), update p99 (microseconds), render p99 (microseconds),
+ * gl calls p99, draw calls p99, entities p99 and the garbage collections noticed.<br>
+ * The numbers are only changed once a second, in between we draw the same digits so nothing is allocated
+ */
+public class PerformanceHud {
+
+    //the size of each digit
+    public static final int DIGIT_WIDTH = 16;
+    public static final int DIGIT_HEIGHT = 25;
+
+    //the number of rows we display
+    private static final int ROWS = 9;
+
+    //how many nanoseconds per microsecond
+    private static final long NANOSECONDS_PER_MICROSECOND = 1000L;
+
+    //the transparency of the digits so the game is still visible underneath
+    private static final float TRANSPARENCY = 0.75f;
+
+    //where we get our numbers from
+    private final FrameStats frameStats;
+
+    //a number for each row
+    private final StatDescription[] rows;
+
+    //the frames rendered since the numbers were changed
+    private int frames = 0;
+
+    //when the numbers were changed (nanoseconds)
+    private long timestamp = 0;
+
+    public PerformanceHud(final FrameStats frameStats) {
+
+        this.frameStats = frameStats;
+        this.rows = new StatDescription[ROWS];
+
+        for (int i = 0; i < ROWS; i++) {
+            this.rows[i] = new StatDescription(DIGIT_WIDTH, DIGIT_HEIGHT);
+            this.rows[i].setX(Wall.WIDTH);
+            this.rows[i].setY(Wall.WIDTH + (i * DIGIT_HEIGHT));
+            this.rows[i].setDescription(0);
+        }
+    }
+
+    /**
+     * Start counting the frames per second over
+     * @param time The current time (nanoseconds)
+     */
+    public void reset(final long time) {
+        this.frames = 0;
+        this.timestamp = time;
+    }
+
+    /**
+     * Add the numbers to the snapshot, once a second the numbers are changed to the latest stats
+     * @param snapshot Snapshot of everything we want to draw
+     * @param time The current time (nanoseconds)
+     */
+    public void render(final Snapshot snapshot, final long time) {
+
+        //keep track of the frames
+        frames++;
+
+        //if 1 second has passed show the latest numbers
+        if (time - timestamp >= NANOSECONDS_PER_SECOND) {
+
+            rows[0].setDescription((frames * NANOSECONDS_PER_SECOND) / (time - timestamp));
+            rows[1].setDescription(frameStats.getPercentile(Metric.Frame, 0.50) / NANOSECONDS_PER_MICROSECOND);
+            rows[2].setDescription(frameStats.getPercentile(Metric.Frame, 0.99) / NANOSECONDS_PER_MICROSECOND);
+            rows[3].setDescription(frameStats.getPercentile(Metric.Update, 0.99) / NANOSECONDS_PER_MICROSECOND);
+            rows[4].setDescription(frameStats.getPercentile(Metric.Render, 0.99) / NANOSECONDS_PER_MICROSECOND);
+            rows[5].setDescription(frameStats.getPercentile(Metric.GlCalls, 0.99));
+            rows[6].setDescription(frameStats.getPercentile(Metric.DrawCalls, 0.99));
+            rows[7].setDescription(frameStats.getPercentile(Metric.Entities, 0.99));
+            rows[8].setDescription(frameStats.getCollections());
+
+            reset(time);
+        }
+
+        //draw the digits see through
+        snapshot.setTransparency(TRANSPARENCY);
+
+        for (int i = 0; i < ROWS; i++) {
+            rows[i].render(snapshot);
+        }
+
+        //restore the transparency so everything else added after doesn't suffer
+        snapshot.setTransparency(1.0f);
+    }
+}
@@ -0,0 +1,273 @@
+package com.gamesbykevin.breakout.opengl;
+
+import java.util.Arrays;
+
+/**
+ * Everything we want to draw for a single frame.<br>
+ * The update thread fills the snapshot from the game state, the gl thread only reads the snapshot.
+ * So the game state is never read while it is being updated.<br>
+ * The snapshot can also hold a layer, a grid of cells that rarely change (the bricks).
+ * The cells are only copied when the source changes and the {@link BrickLayer} draws them in order with the sprites
+ */
+public class Snapshot {
+
+    /**
+     * How many sprites we can hold to start, we grow if needed
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    //each sprite is previous x, previous y, x, y, width, height, transparency, angle
+    private static final int SPRITE_SIZE = 8;
+
+    //the texture region of each sprite
+    private TextureRegion[] regions;
+
+    //the coordinates of each sprite
+    private float[] sprites;
+
+    //the number of sprites in our snapshot
+    private int count = 0;
+
+    //how far we are between the previous and current game step
+    private float alpha = 1.0f;
+
+    //the transparency applied to each sprite added
+    private float transparency = 1.0f;
+
+    //the texture region and transparency of each cell in the layer, null if the cell is empty
+    private TextureRegion[] layerRegions = new TextureRegion[0];
+    private float[] layerTransparencies = new float[0];
+
+    //the size of the layer grid
+    private int layerRows = 0, layerCols = 0;
+
+    //where the layer is and the size of each cell
+    private float layerX, layerY, layerCellWidth, layerCellHeight;
+
+    //the number of sprites drawn before the layer, -1 if there is no layer this frame
+    private int layerPosition = -1;
+
+    //what we copied the layer from and its version at the time, the same source and version always has the same cells
+    private Object layerSource;
+    private int layerVersion;
+
+    public Snapshot() {
+        this.regions = new TextureRegion[DEFAULT_CAPACITY];
+        this.sprites = new float[DEFAULT_CAPACITY * SPRITE_SIZE];
+    }
+
+    /**
+     * Remove all sprites so we can fill the snapshot again
+     * @param alpha How far we are between the previous and current step (0.0 - 1.0)
+     */
+    public void reset(final float alpha) {
+
+        //remove references to the previous regions
+        Arrays.fill(regions, 0, count, null);
+
+        this.count = 0;
+        this.alpha = alpha;
+        this.transparency = 1.0f;
+        this.layerPosition = -1;
+    }
+
+    /**
+     * Assign the transparency applied to every sprite added after this
+     * @param transparency transparency (0.0 - 1.0)
+     */
+    public void setTransparency(final float transparency) {
+        this.transparency = transparency;
+    }
+
+    /**
+     * Add a sprite that doesn't move
+     * @param region The region of the texture we want to render
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param w width
+     * @param h height
+     */
+    public void add(final TextureRegion region, final double x, final double y, final double w, final double h) {
+        add(region, x, y, x, y, w, h, 0.0f);
+    }
+
+    /**
+     * Add a sprite, the render will draw it between the previous and current location
+     * @param region The region of the texture we want to render
+     * @param previousX x-coordinate at the previous step
+     * @param previousY y-coordinate at the previous step
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param w width
+     * @param h height
+     * @param angle The angle in degrees
+     */
+    public void add(final TextureRegion region, final double previousX, final double previousY,
+                    final double x, final double y, final double w, final double h, final float angle) {
+
+        //make room if we are full
+        if (count >= regions.length) {
+            regions = Arrays.copyOf(regions, regions.length * 2);
+            sprites = Arrays.copyOf(sprites, sprites.length * 2);
+        }
+
+        //where do we start writing
+        int index = count * SPRITE_SIZE;
+
+        sprites[index++] = (float)previousX;
+        sprites[index++] = (float)previousY;
+        sprites[index++] = (float)x;
+        sprites[index++] = (float)y;
+        sprites[index++] = (float)w;
+        sprites[index++] = (float)h;
+        sprites[index++] = transparency;
+        sprites[index] = angle;
+
+        regions[count] = region;
+
+        //we added a sprite
+        count++;
+    }
+
+    /**
+     * Place the layer between the sprites added before and after this
+     * @param source The object the cells come from
+     * @param version The version of the source, the cells only need to be copied again when the source or version changes
+     * @param rows The rows of the grid
+     * @param cols The columns of the grid
+     * @param x x-coordinate of the first cell
+     * @param y y-coordinate of the first cell
+     * @param cellWidth width of each cell
+     * @param cellHeight height of each cell
+     * @return true if the cells have to be assigned with {@link #setLayerCell(int, TextureRegion, float)}, false if our copy is current
+     */
+    public boolean setLayer(final Object source, final int version, final int rows, final int cols,
+                            final double x, final double y, final double cellWidth, final double cellHeight) {
+
+        //the layer is drawn after the sprites we have so far
+        this.layerPosition = count;
+
+        //our copy is current
+        if (source == layerSource && version == layerVersion && rows == layerRows && cols == layerCols)
+            return false;
+
+        //make room if the grid is bigger
+        if (rows * cols > layerRegions.length) {
+            layerRegions = new TextureRegion[rows * cols];
+            layerTransparencies = new float[rows * cols];
+        }
+
+        this.layerSource = source;
+        this.layerVersion = version;
+        this.layerRows = rows;
+        this.layerCols = cols;
+        this.layerX = (float)x;
+        this.layerY = (float)y;
+        this.layerCellWidth = (float)cellWidth;
+        this.layerCellHeight = (float)cellHeight;
+        return true;
+    }
+
+    /**
+     * Assign a cell of the layer
+     * @param index The index of the cell (row * cols + col)
+     * @param region The texture region of the cell, null if empty
+     * @param transparency transparency (0.0 - 1.0)
+     */
+    public void setLayerCell(final int index, final TextureRegion region, final float transparency) {
+        this.layerRegions[index] = region;
+        this.layerTransparencies[index] = transparency;
+    }
+
+    public int getLayerRows() {
+        return this.layerRows;
+    }
+
+    public int getLayerCols() {
+        return this.layerCols;
+    }
+
+    public float getLayerX() {
+        return this.layerX;
+    }
+
+    public float getLayerY() {
+        return this.layerY;
+    }
+
+    public float getLayerCellWidth() {
+        return this.layerCellWidth;
+    }
+
+    public float getLayerCellHeight() {
+        return this.layerCellHeight;
+    }
+
+    /**
+     * Get the layer source
+     * @return The object the cells were copied from, null if there never was a layer
+     */
+    public Object getLayerSource() {
+        return this.layerSource;
+    }
+
+    /**
+     * Get the layer version
+     * @return The version of the source the cells were copied from
+     */
+    public int getLayerVersion() {
+        return this.layerVersion;
+    }
+
+    public TextureRegion getLayerRegion(final int index) {
+        return this.layerRegions[index];
+    }
+
+    public float getLayerTransparency(final int index) {
+        return this.layerTransparencies[index];
+    }
+
+    /**
+     * Draw every sprite in our snapshot
+     * @param batch Object used to render pixels
+     * @param layer Object used to draw the layer
+     */
+    public void render(final SpriteBatch batch, final BrickLayer layer) {
+
+        for (int i = 0; i < count; i++) {
+
+            //draw the layer in order with the sprites
+            if (i == layerPosition)
+                layer.render(batch, this);
+
+            //where does this sprite start
+            final int index = i * SPRITE_SIZE;
+
+            //interpolate between the previous and current location
+            final float previousX = sprites[index], previousY = sprites[index + 1];
+            final float x = previousX + ((sprites[index + 2] - previousX) * alpha);
+            final float y = previousY + ((sprites[index + 3] - previousY) * alpha);
+
+            //assign the transparency
+            batch.setColor(1.0f, 1.0f, 1.0f, sprites[index + 6]);
+
+            //draw the sprite
+            batch.draw(regions[i], x, y, sprites[index + 4], sprites[index + 5], sprites[index + 7]);
+        }
+
+        //the layer was added after every sprite
+        if (layerPosition == count)
+            layer.render(batch, this);
+
+        //restore the color so everything else rendered after doesn't suffer
+        batch.setColor(1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+    /**
+     * Get the count
+     * @return The number of sprites in our snapshot
+     */
+    public int getCount() {
+        return this.count;
+    }
+}
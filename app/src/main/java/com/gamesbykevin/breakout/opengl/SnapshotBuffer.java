@@ -0,0 +1,62 @@
+package com.gamesbykevin.breakout.opengl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple buffer to hand snapshots from the update thread to the gl thread without locking.<br>
+ * The update thread writes the back snapshot and publishes it, the gl thread reads the front snapshot.
+ * The middle snapshot is the latest published and is swapped atomically, so neither thread waits on the other
+ */
+public class SnapshotBuffer {
+
+    //the state stores the index of the middle snapshot, and whether it is new
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+
+    //our 3 snapshots
+    private final Snapshot[] snapshots;
+
+    //the index of the middle snapshot, and the fresh flag
+    private final AtomicInteger state;
+
+    //only accessed by the update thread
+    private int back = 0;
+
+    //only accessed by the gl thread
+    private int front = 1;
+
+    public SnapshotBuffer() {
+        this.snapshots = new Snapshot[] {new Snapshot(), new Snapshot(), new Snapshot()};
+        this.state = new AtomicInteger(2);
+    }
+
+    /**
+     * Get the back snapshot, only call this from the update thread
+     * @return The snapshot we can fill
+     */
+    public Snapshot getBack() {
+        return this.snapshots[back];
+    }
+
+    /**
+     * Publish the back snapshot so the gl thread can draw it, only call this from the update thread
+     */
+    public void publish() {
+
+        //make the back the middle, and take the previous middle as our new back
+        this.back = this.state.getAndSet(this.back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Get the latest published snapshot, only call this from the gl thread
+     * @return The snapshot we want to draw
+     */
+    public Snapshot getFront() {
+
+        //if there is a new snapshot swap it with our front
+        if ((this.state.get() & FRESH) != 0)
+            this.front = this.state.getAndSet(this.front) & INDEX_MASK;
+
+        return this.snapshots[front];
+    }
+}
@@ -0,0 +1,244 @@
+package com.gamesbykevin.breakout.opengl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Collect textured quads and draw them together, this is everything the game needs from open gl to draw a frame.<br>
+ * There is a backend for each open gl version: {@link GL10SpriteBatch} uses the fixed function pipeline
+ * and {@link GLES20SpriteBatch} uses a single shader. The renderer only talks to this class, so the rest of the game doesn't change.<br>
+ * Besides the screen we can draw into a render target, a texture attached to a frame buffer, used to cache the bricks
+ */
+public abstract class SpriteBatch {
+
+    //the size of each float in bytes
+    protected static final int FLOAT_BYTES = 4;
+
+    //the size of each short in bytes
+    protected static final int SHORT_BYTES = 2;
+
+    //each sprite is a quad
+    protected static final int VERTICES_PER_SPRITE = 4;
+
+    //each quad is 2 triangles
+    protected static final int INDICES_PER_SPRITE = 6;
+
+    //the color applied to each sprite drawn
+    protected float red = 1.0f, green = 1.0f, blue = 1.0f, alpha = 1.0f;
+
+    //how many draw calls were made since begin
+    protected int drawCalls = 0;
+
+    //how many gl calls were made since begin
+    protected int glCalls = 0;
+
+    //the ratio of the screen compared to the game dimensions
+    protected float scaleX = 1.0f, scaleY = 1.0f;
+
+    //the size of the screen
+    protected int width, height;
+
+    /**
+     * A new context was created, anything created in the previous context is gone
+     * @param gl Object used for rendering textures
+     */
+    public abstract void onSurfaceCreated(GL10 gl);
+
+    /**
+     * The size of the screen changed
+     * @param gl Object used for rendering textures
+     * @param width pixel width of surface
+     * @param height pixel height of surface
+     */
+    public void onSurfaceChanged(final GL10 gl, final int width, final int height) {
+        this.width = width;
+        this.height = height;
+        this.scaleX = width / (float)OpenGLSurfaceView.WIDTH;
+        this.scaleY = height / (float)OpenGLSurfaceView.HEIGHT;
+    }
+
+    /**
+     * Clear the screen and start the batch, this needs to be called before we can draw
+     * @param gl Object used for rendering textures
+     */
+    public abstract void begin(GL10 gl);
+
+    /**
+     * Draw everything remaining and finish the batch
+     */
+    public abstract void end();
+
+    /**
+     * Draw the sprites in the current batch
+     */
+    public abstract void flush();
+
+    /**
+     * Draw part of the texture at the specified location rotated around its center
+     * @param textureId The texture we want to render
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param w width
+     * @param h height
+     * @param u1 left texture coordinate
+     * @param v1 top texture coordinate
+     * @param u2 right texture coordinate
+     * @param v2 bottom texture coordinate
+     * @param angle The angle in degrees
+     */
+    public abstract void draw(int textureId, double x, double y, double w, double h,
+                              float u1, float v1, float u2, float v2, float angle);
+
+    /**
+     * Can we draw into a texture
+     * @return true if render targets are supported, false otherwise
+     */
+    public abstract boolean hasRenderTargets();
+
+    /**
+     * Create a texture and attach it to a frame buffer
+     * @param width width of the texture (power of 2)
+     * @param height height of the texture (power of 2)
+     * @param ids Where we store the frame buffer id [0] and the texture id [1], 0 if not created
+     * @return true if the render target is ready, false otherwise
+     */
+    public abstract boolean createRenderTarget(int width, int height, int[] ids);
+
+    /**
+     * Remove the render target
+     * @param ids The frame buffer id [0] and the texture id [1], they are set to 0
+     */
+    public abstract void deleteRenderTarget(int[] ids);
+
+    /**
+     * Draw into the render target instead of the screen, 1 pixel for each screen pixel and without blending.<br>
+     * The game coordinate (x, y) is at the origin of the texture and the texture is upside down
+     * @param framebufferId The frame buffer of the render target
+     * @param width width of the texture
+     * @param height height of the texture
+     * @param x x-coordinate at the origin
+     * @param y y-coordinate at the origin
+     */
+    public abstract void beginRenderTarget(int framebufferId, int width, int height, float x, float y);
+
+    /**
+     * Make part of the render target transparent
+     * @param x pixel x-coordinate
+     * @param y pixel y-coordinate
+     * @param width pixel width
+     * @param height pixel height
+     */
+    public abstract void clearRenderTarget(int x, int y, int width, int height);
+
+    /**
+     * Draw what is left into the render target and go back to drawing the screen
+     */
+    public abstract void endRenderTarget();
+
+    /**
+     * Assign the color applied to every sprite drawn after this
+     * @param red red (0.0 - 1.0)
+     * @param green green (0.0 - 1.0)
+     * @param blue blue (0.0 - 1.0)
+     * @param alpha transparency (0.0 - 1.0)
+     */
+    public void setColor(final float red, final float green, final float blue, final float alpha) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Draw the region at the specified location
+     * @param region The region of the texture we want to render
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param w width
+     * @param h height
+     */
+    public void draw(final TextureRegion region, final double x, final double y, final double w, final double h) {
+        draw(region, x, y, w, h, 0.0f);
+    }
+
+    /**
+     * Draw the region at the specified location rotated around its center
+     * @param region The region of the texture we want to render
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param w width
+     * @param h height
+     * @param angle The angle in degrees
+     */
+    public void draw(final TextureRegion region, final double x, final double y, final double w, final double h, final float angle) {
+        draw(region.getTextureId(), x, y, w, h, region.getU1(), region.getV1(), region.getU2(), region.getV2(), angle);
+    }
+
+    /**
+     * Get the draw calls
+     * @return The number of draw calls made since the batch started
+     */
+    public int getDrawCalls() {
+        return this.drawCalls;
+    }
+
+    /**
+     * Get the gl calls
+     * @return The number of gl calls made since the batch started
+     */
+    public int getGlCalls() {
+        return this.glCalls;
+    }
+
+    /**
+     * Create the order in which the vertices of each quad are drawn, this is the same for every batch.<br>
+     * The vertices of each sprite are top-left, bottom-left, top-right and bottom-right
+     * @param maxSprites The most sprites in a batch
+     * @return Buffer containing 2 triangles for each sprite
+     */
+    protected static ShortBuffer createIndices(final int maxSprites) {
+
+        ByteBuffer ibb = ByteBuffer.allocateDirect(maxSprites * INDICES_PER_SPRITE * SHORT_BYTES);
+        ibb.order(ByteOrder.nativeOrder());
+        ShortBuffer indices = ibb.asShortBuffer();
+
+        for (int i = 0; i < maxSprites; i++) {
+
+            //the first vertex of this quad
+            final short index = (short)(i * VERTICES_PER_SPRITE);
+
+            //first triangle (top-left, bottom-left, top-right)
+            indices.put(index);
+            indices.put((short)(index + 1));
+            indices.put((short)(index + 2));
+
+            //second triangle (top-right, bottom-left, bottom-right)
+            indices.put((short)(index + 2));
+            indices.put((short)(index + 1));
+            indices.put((short)(index + 3));
+        }
+
+        indices.position(0);
+        return indices;
+    }
+
+    /**
+     * Get the smallest power of 2 that fits the size, older devices only support textures that are a power of 2
+     * @param size The size we need
+     * @return The power of 2
+     */
+    public static int getPowerOfTwo(final int size) {
+        return (size <= 1) ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    public float getScaleX() {
+        return this.scaleX;
+    }
+
+    public float getScaleY() {
+        return this.scaleY;
+    }
+}
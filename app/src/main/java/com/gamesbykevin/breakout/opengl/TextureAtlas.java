@@ -0,0 +1,144 @@
+package com.gamesbykevin.breakout.opengl;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pack many images into a single bitmap so they can be uploaded as one texture.<br>
+ * Images are placed left to right in rows, each one is given a region with its texture coordinates
+ */
+public class TextureAtlas {
+
+    /**
+     * Space between each image so linear filtering doesn't pick up the neighbor
+     */
+    public static final int PADDING = 2;
+
+    //the size of the atlas (width and height)
+    private final int size;
+
+    //the image we are drawing everything on
+    private Bitmap bitmap;
+
+    //object used to draw on our bitmap
+    private final Canvas canvas;
+
+    //paint used when scaling images
+    private final Paint paint;
+
+    //where the next image will be placed
+    private int x = PADDING, y = PADDING;
+
+    //the height of the tallest image in the current row
+    private int rowHeight = 0;
+
+    //every region in our atlas
+    private final List<TextureRegion> regions;
+
+    //reuse the rectangle for each image
+    private final Rect destination = new Rect();
+
+    /**
+     * Create an empty atlas
+     * @param size The width and height of the atlas (should be a power of 2)
+     */
+    public TextureAtlas(final int size) {
+        this.size = size;
+        this.bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        this.canvas = new Canvas(bitmap);
+        this.paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        this.regions = new ArrayList<>();
+    }
+
+    /**
+     * Add the entire image
+     * @param source The image to add
+     * @param region The region to assign the texture coordinates
+     */
+    public void add(final Bitmap source, final TextureRegion region) {
+        add(source, new Rect(0, 0, source.getWidth(), source.getHeight()), source.getWidth(), source.getHeight(), region);
+    }
+
+    /**
+     * Add the entire image, scaled down if it is larger than the max size
+     * @param source The image to add
+     * @param maxSize The max width/height of the image in the atlas
+     * @param region The region to assign the texture coordinates
+     */
+    public void add(final Bitmap source, final int maxSize, final TextureRegion region) {
+
+        //how much do we need to scale
+        final float scale = Math.min(1.0f, (float)maxSize / Math.max(source.getWidth(), source.getHeight()));
+
+        add(source, new Rect(0, 0, source.getWidth(), source.getHeight()),
+                Math.round(source.getWidth() * scale), Math.round(source.getHeight() * scale), region);
+    }
+
+    /**
+     * Add part of an image
+     * @param source The image containing what we want to add
+     * @param area The area of the source image we want to add
+     * @param width The width of the image in the atlas
+     * @param height The height of the image in the atlas
+     * @param region The region to assign the texture coordinates
+     */
+    public void add(final Bitmap source, final Rect area, final int width, final int height, final TextureRegion region) {
+
+        //if there isn't room left in this row, move to the next
+        if (x + width + PADDING > size) {
+            x = PADDING;
+            y += rowHeight + PADDING;
+            rowHeight = 0;
+        }
+
+        //make sure we still fit
+        if (y + height + PADDING > size)
+            throw new RuntimeException("Texture atlas is full (" + size + "x" + size + ")");
+
+        //draw the image on the atlas
+        destination.set(x, y, x + width, y + height);
+        canvas.drawBitmap(source, area, destination, paint);
+
+        //assign the texture coordinates, inset half a pixel so we don't sample outside the image
+        region.setCoordinates(
+            (x + 0.5f) / size,
+            (y + 0.5f) / size,
+            (x + width - 0.5f) / size,
+            (y + height - 0.5f) / size
+        );
+
+        //keep track of our region
+        regions.add(region);
+
+        //move to the next location
+        x += width + PADDING;
+        rowHeight = Math.max(rowHeight, height);
+    }
+
+    /**
+     * Get the bitmap
+     * @return The image containing everything that was added
+     */
+    public Bitmap getBitmap() {
+        return this.bitmap;
+    }
+
+    /**
+     * Assign the texture once the atlas has been uploaded.<br>
+     * The bitmap is no longer needed after this
+     * @param textureId The texture id of our atlas
+     */
+    public void setTextureId(final int textureId) {
+
+        for (int i = 0; i < regions.size(); i++) {
+            regions.get(i).setTextureId(textureId);
+        }
+
+        this.bitmap = null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.gamesbykevin.breakout.opengl;
+
+/**
+ * A rectangle on a texture.<br>
+ * Each sprite has a region so many sprites can share the same texture
+ */
+public class TextureRegion {
+
+    //the texture this region is on
+    private int textureId = 0;
+
+    //the texture coordinates (0.0 - 1.0)
+    private float u1 = 0.0f, v1 = 0.0f, u2 = 1.0f, v2 = 1.0f;
+
+    /**
+     * Assign the texture coordinates
+     * @param u1 left
+     * @param v1 top
+     * @param u2 right
+     * @param v2 bottom
+     */
+    public void setCoordinates(final float u1, final float v1, final float u2, final float v2) {
+        this.u1 = u1;
+        this.v1 = v1;
+        this.u2 = u2;
+        this.v2 = v2;
+    }
+
+    public void setTextureId(final int textureId) {
+        this.textureId = textureId;
+    }
+
+    public int getTextureId() {
+        return this.textureId;
+    }
+
+    public float getU1() {
+        return this.u1;
+    }
+
+    public float getV1() {
+        return this.v1;
+    }
+
+    public float getU2() {
+        return this.u2;
+    }
+
+    public float getV2() {
+        return this.v2;
+    }
+}
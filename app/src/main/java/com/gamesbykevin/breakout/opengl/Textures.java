@@ -3,6 +3,7 @@ package com.gamesbykevin.breakout.opengl;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Rect;
 import android.opengl.GLUtils;
 
 import com.gamesbykevin.breakout.R;
@@ -10,18 +11,19 @@ import com.gamesbykevin.breakout.ball.Ball;
 import com.gamesbykevin.breakout.brick.Brick;
 import com.gamesbykevin.breakout.brick.Bricks;
 import com.gamesbykevin.breakout.paddle.Paddle;
+import com.gamesbykevin.breakout.particle.Particles;
 import com.gamesbykevin.breakout.powerup.Powerup;
 import com.gamesbykevin.breakout.powerup.Powerups;
 import com.gamesbykevin.breakout.util.StatDescription;
 import com.gamesbykevin.breakout.util.UtilityHelper;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.microedition.khronos.opengles.GL10;
 
-import static com.gamesbykevin.breakout.activity.GameActivity.getRandomObject;
-
 /**
  * Created by Kevin on 7/23/2017.
  */
@@ -37,166 +39,363 @@ public class Textures {
     //keep track of the current index
     private int index = 0;
 
+    /**
+     * The most time we spend uploading textures each frame (nanoseconds), at least one texture is uploaded every frame
+     */
+    public static final long UPLOAD_BUDGET = 4000000L;
+
+    //images decoded on the worker thread waiting to be uploaded on the gl thread
+    private final LinkedBlockingQueue<Upload> uploads = new LinkedBlockingQueue<>();
+
+    //increased each time we start loading, anything decoded for an older context is thrown away
+    private final AtomicInteger generation = new AtomicInteger();
+
+    //how many textures have been uploaded to the current context
+    private int uploaded = 0;
+
+    /**
+     * The width and height of the texture atlas containing all of our sprites
+     */
+    public static final int ATLAS_SIZE = 1024;
+
+    /**
+     * The standalone images are much larger than what we render, so they are scaled down in the atlas
+     */
+    public static final int MAX_SPRITE_SIZE = 64;
+
     //how many things are we loading here
-    public static final int TOTAL_BALLS = 6;
+    public static final int TOTAL_BALLS = Ball.TOTAL_ANIMATIONS;
     public static final int TOTAL_BRICKS = (Bricks.Key.values().length);
     public static final int TOTAL_NUMBERS = 10;
-    public static final int TOTAL_PARTICLES = 7;
-    public static final int TOTAL_LASERS = 1;
-    public static final int TOTAL_PADDLES = 1;
-    public static final int TOTAL_POWERUPS = (Powerups.Key.values().length * 8);
+    public static final int TOTAL_PARTICLES = Particles.TOTAL_TEXTURES;
+    public static final int TOTAL_POWERUPS = Powerups.Key.values().length;
     public static final int TOTAL_BACKGROUNDS = 2;
-    public static final int TOTAL_FIREBALLS = 1;
-
-    //how many images do we have that are words
-    private static final int TOTAL_WORDS = 6;
-
-    public static int TEXTURE_ID_WORD_GAMEOVER = 0;
-    public static int TEXTURE_ID_WORD_READY = 0;
-    public static int TEXTURE_ID_WORD_TAP_START = 0;
-    public static int TEXTURE_ID_WORD_LEVEL_COMPLETED = 0;
-    public static int TEXTURE_ID_WORD_LIVES = 0;
-    public static int TEXTURE_ID_WORD_LEVEL = 0;
-    public static int TEXTURE_ID_LASER = 0;
-    public static int TEXTURE_ID_PADDLE = 0;
-    public static int TEXTURE_ID_PARTICLE_1 = 0;
-    public static int TEXTURE_ID_PARTICLE_2 = 0;
-    public static int TEXTURE_ID_PARTICLE_3 = 0;
-    public static int TEXTURE_ID_PARTICLE_4 = 0;
-    public static int TEXTURE_ID_PARTICLE_5 = 0;
-    public static int TEXTURE_ID_PARTICLE_6 = 0;
-    public static int TEXTURE_ID_PARTICLE_7 = 0;
-    public static int TEXTURE_ID_BACKGROUND = 0;
-    public static int TEXTURE_ID_BORDER = 0;
-    public static int TEXTURE_ID_FIREBALL = 0;
-
-    //list of particles to choose from
-    private static List<Integer> PARTICLES;
+    public static final int TOTAL_ATLASES = 1;
+
+    //how many images do we have that are full screen words
+    private static final int TOTAL_WORDS = 4;
+
+    public static final TextureRegion TEXTURE_WORD_GAMEOVER = new TextureRegion();
+    public static final TextureRegion TEXTURE_WORD_READY = new TextureRegion();
+    public static final TextureRegion TEXTURE_WORD_TAP_START = new TextureRegion();
+    public static final TextureRegion TEXTURE_WORD_LEVEL_COMPLETED = new TextureRegion();
+    public static final TextureRegion TEXTURE_WORD_LIVES = new TextureRegion();
+    public static final TextureRegion TEXTURE_WORD_LEVEL = new TextureRegion();
+    public static final TextureRegion TEXTURE_LASER = new TextureRegion();
+    public static final TextureRegion TEXTURE_PADDLE = new TextureRegion();
+    public static final TextureRegion TEXTURE_BACKGROUND = new TextureRegion();
+    public static final TextureRegion TEXTURE_BORDER = new TextureRegion();
+    public static final TextureRegion TEXTURE_FIREBALL = new TextureRegion();
+
+    //the regions for each animation
+    public static final TextureRegion[] TEXTURE_BALLS = create(TOTAL_BALLS);
+    public static final TextureRegion[] TEXTURE_BRICKS = create(TOTAL_BRICKS);
+    public static final TextureRegion[] TEXTURE_NUMBERS = create(TOTAL_NUMBERS);
+    public static final TextureRegion[] TEXTURE_PARTICLES = create(TOTAL_PARTICLES);
+    public static final TextureRegion[][] TEXTURE_POWERUPS = new TextureRegion[TOTAL_POWERUPS][];
+
+    static {
+        for (int i = 0; i < TEXTURE_POWERUPS.length; i++) {
+            TEXTURE_POWERUPS[i] = create(Powerup.ANIMATION_COUNT);
+        }
+    }
 
     public Textures(Context activity) {
 
         this.activity = activity;
 
         //create array containing all the texture ids
-        IDS = new int[
-                TOTAL_BALLS + TOTAL_BRICKS + TOTAL_NUMBERS + TOTAL_BACKGROUNDS + TOTAL_PARTICLES +
-                TOTAL_LASERS + TOTAL_PADDLES + TOTAL_POWERUPS + TOTAL_WORDS + TOTAL_FIREBALLS];
+        IDS = new int[TOTAL_ATLASES + TOTAL_BACKGROUNDS + TOTAL_WORDS];
     }
 
-    public static int getTextureIdParticle() {
-
-        if (PARTICLES == null) {
-            PARTICLES = new ArrayList<>();
-            PARTICLES.add(TEXTURE_ID_PARTICLE_1);
-            PARTICLES.add(TEXTURE_ID_PARTICLE_2);
-            PARTICLES.add(TEXTURE_ID_PARTICLE_3);
-            PARTICLES.add(TEXTURE_ID_PARTICLE_4);
-            PARTICLES.add(TEXTURE_ID_PARTICLE_5);
-            PARTICLES.add(TEXTURE_ID_PARTICLE_6);
-            PARTICLES.add(TEXTURE_ID_PARTICLE_7);
+    /**
+     * Create an array of regions
+     * @param length The size of the array
+     * @return Array where every region has been created
+     */
+    private static TextureRegion[] create(final int length) {
+
+        TextureRegion[] regions = new TextureRegion[length];
+
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = new TextureRegion();
         }
 
-        return PARTICLES.get(getRandomObject().nextInt(PARTICLES.size()));
+        return regions;
+    }
+
+    /**
+     * Get the brick texture
+     * @param key The brick color
+     * @return The region of the brick animation
+     */
+    public static TextureRegion getTextureBrick(final Bricks.Key key) {
+        return TEXTURE_BRICKS[key.ordinal()];
+    }
+
+    /**
+     * Get the power up texture
+     * @param key The type of power up
+     * @param index The current animation
+     * @return The region of the power up animation
+     */
+    public static TextureRegion getTexturePowerup(final Powerups.Key key, final int index) {
+        return TEXTURE_POWERUPS[key.ordinal()][index];
+    }
+
+    /**
+     * Get the particle texture
+     * @param index The index of the particle animation
+     * @return The region of the particle
+     */
+    public static TextureRegion getTextureParticle(final int index) {
+        return TEXTURE_PARTICLES[index];
     }
 
     /**
-     * Load all the textures
-     * @param openGL
+     * Start loading all the textures for a new context.<br>
+     * The images are decoded on a worker thread, call {@link #upload(GL10, long)} each frame to send them to open gl
      */
-    public void loadTextures(GL10 openGL) {
+    public void load() {
+
+        //anything decoded or uploaded for the previous context is no longer needed
+        final int generation = this.generation.incrementAndGet();
+        clear();
 
         //reset index
         this.index = 0;
+        this.uploaded = 0;
+
+        //decode on a worker thread, the thread ends when it is done
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    decode(generation);
+                } catch (Exception e) {
+                    UtilityHelper.handleException(e);
+                }
+            }
+        });
 
-        //sprite sheet containing a lot of images
-        Bitmap sheet = BitmapFactory.decodeResource(activity.getResources(), R.drawable.sheet);
+        executor.shutdown();
+    }
 
-        //get each ball from the sprite sheet
-        for (int i = 0; i < TOTAL_BALLS; i++) {
+    /**
+     * Upload the decoded textures until we run out of time
+     * @param openGL Open GL Context
+     * @param budget The most time we want to spend (nanoseconds)
+     * @return true if every texture has been uploaded, false otherwise
+     */
+    public boolean upload(final GL10 openGL, final long budget) {
+
+        final long time = System.nanoTime();
+
+        //always upload at least one, after that stop when we are out of time
+        for (int count = 0; !isLoaded(); count++) {
+
+            if (count > 0 && System.nanoTime() - time >= budget)
+                break;
 
-            //get the current ball
-            Bitmap ball = Bitmap.createBitmap(sheet, (Ball.DIMENSIONS * i), 0, Ball.DIMENSIONS, Ball.DIMENSIONS);
+            final Upload upload = uploads.poll();
 
-            //load the texture
-            loadTexture(ball, openGL);
+            //nothing has been decoded yet
+            if (upload == null)
+                break;
+
+            //this was decoded for a previous context
+            if (upload.generation != this.generation.get()) {
+                upload.bitmap.recycle();
+                continue;
+            }
+
+            final int textureId = loadTexture(upload.bitmap, openGL);
+
+            if (upload.atlas != null) {
+                upload.atlas.setTextureId(textureId);
+            } else {
+                upload.region.setTextureId(textureId);
+            }
+
+            uploaded++;
         }
 
-        //get each brick from the sprite sheet
-        for (Bricks.Key key : Bricks.Key.values()) {
+        return isLoaded();
+    }
+
+    /**
+     * Have all the textures been uploaded to the current context
+     * @return true if every texture has been uploaded, false otherwise
+     */
+    private boolean isLoaded() {
+        return (this.uploaded == IDS.length);
+    }
 
-            //get the current brick
-            Bitmap brick = Bitmap.createBitmap(sheet, key.getX(), key.getY(), Brick.WIDTH_ANIMATION, Brick.HEIGHT_ANIMATION);
+    /**
+     * Hand a decoded image to the gl thread
+     * @param bitmap The image to upload
+     * @param atlas The atlas that gets the texture id, null if it is a region
+     * @param region The region that gets the texture id, null if it is an atlas
+     * @param generation The load we are decoding for
+     * @return true if the image will be uploaded, false if we started loading again and should stop
+     */
+    private boolean offer(final Bitmap bitmap, final TextureAtlas atlas, final TextureRegion region, final int generation) {
 
-            //load the texture
-            key.setTextureId(loadTexture(brick, openGL));
+        //a newer load has started, we don't need this anymore
+        if (generation != this.generation.get()) {
+            bitmap.recycle();
+            return false;
         }
 
-        //load the laser texture
-        TEXTURE_ID_LASER = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.laser3), openGL);
+        uploads.add(new Upload(bitmap, atlas, region, generation));
+        return true;
+    }
 
-        //load the paddle texture
-        TEXTURE_ID_PADDLE = loadTexture(Bitmap.createBitmap(sheet, 80, 64, Paddle.WIDTH, Paddle.HEIGHT), openGL);
+    /**
+     * Remove the images waiting to be uploaded
+     */
+    private void clear() {
 
-        //load fireball texture
-        TEXTURE_ID_FIREBALL = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.fireball), openGL);
+        Upload upload;
 
-        //load all of the power ups
+        while ((upload = uploads.poll()) != null) {
+            upload.bitmap.recycle();
+        }
+    }
+
+    /**
+     * Decode all the images, this runs on the worker thread.<br>
+     * Every sprite is packed into a single atlas, only the full screen images have their own texture
+     * @param generation The load we are decoding for
+     */
+    private void decode(final int generation) {
+
+        //the atlas containing all of our sprites
+        TextureAtlas atlas = new TextureAtlas(ATLAS_SIZE);
+
+        //sprite sheet containing a lot of images
+        Bitmap sheet = BitmapFactory.decodeResource(activity.getResources(), R.drawable.sheet);
+
+        //get each ball from the sprite sheet
+        for (int i = 0; i < TOTAL_BALLS; i++) {
+            atlas.add(sheet, new Rect(Ball.DIMENSIONS * i, 0, Ball.DIMENSIONS * (i + 1), Ball.DIMENSIONS), Ball.DIMENSIONS, Ball.DIMENSIONS, TEXTURE_BALLS[i]);
+        }
+
+        //get each brick from the sprite sheet
+        for (Bricks.Key key : Bricks.Key.values()) {
+            atlas.add(sheet, new Rect(key.getX(), key.getY(), key.getX() + Brick.WIDTH_ANIMATION, key.getY() + Brick.HEIGHT_ANIMATION),
+                    Brick.WIDTH_ANIMATION, Brick.HEIGHT_ANIMATION, getTextureBrick(key));
+        }
+
+        //get the paddle from the sprite sheet
+        atlas.add(sheet, new Rect(80, 64, 80 + Paddle.WIDTH, 64 + Paddle.HEIGHT), Paddle.WIDTH, Paddle.HEIGHT, TEXTURE_PADDLE);
+
+        //get all of the power ups from the sprite sheet
         for (int i = 0; i < Powerups.getTmpKey().length; i++) {
 
             Powerups.Key key = Powerups.getTmpKey()[i];
 
-            //set the index start in the TEXTURE[] for each animation
-            key.setIndexStart(this.index);
-
             //each power up has 8 animations
-            for (int count = 0; count < 8; count++) {
+            for (int count = 0; count < Powerup.ANIMATION_COUNT; count++) {
 
                 //calculate current x-coordinate
                 int x = (count * Powerup.ANIMATION_WIDTH);
 
-                //get the current animation
-                Bitmap powerup = Bitmap.createBitmap(sheet, x, key.getY(), Powerup.ANIMATION_WIDTH, Powerup.ANIMATION_HEIGHT);
-
-                //load the texture
-                loadTexture(powerup, openGL);
+                //add the current animation
+                atlas.add(sheet, new Rect(x, key.getY(), x + Powerup.ANIMATION_WIDTH, key.getY() + Powerup.ANIMATION_HEIGHT),
+                        Powerup.ANIMATION_WIDTH, Powerup.ANIMATION_HEIGHT, getTexturePowerup(key, count));
             }
         }
 
-        //load the texture for the particles
-        TEXTURE_ID_PARTICLE_1 = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.particle1), openGL);
-        TEXTURE_ID_PARTICLE_2 = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.particle2), openGL);
-        TEXTURE_ID_PARTICLE_3 = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.particle3), openGL);
-        TEXTURE_ID_PARTICLE_4 = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.particle4), openGL);
-        TEXTURE_ID_PARTICLE_5 = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.particle5), openGL);
-        TEXTURE_ID_PARTICLE_6 = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.particle6), openGL);
-        TEXTURE_ID_PARTICLE_7 = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.particle7), openGL);
-
-        //background images
-        TEXTURE_ID_BACKGROUND = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.background), openGL);;
-        TEXTURE_ID_BORDER = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.border), openGL);;
-
-        //load the text words
-        TEXTURE_ID_WORD_GAMEOVER        = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.gameover), openGL);
-        TEXTURE_ID_WORD_LEVEL_COMPLETED = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.level), openGL);
-        TEXTURE_ID_WORD_LIVES           = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.lives), openGL);
-        TEXTURE_ID_WORD_READY           = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.ready), openGL);
-        TEXTURE_ID_WORD_LEVEL           = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.level_text), openGL);
-        TEXTURE_ID_WORD_TAP_START       = loadTexture(BitmapFactory.decodeResource(activity.getResources(), R.drawable.tapstart), openGL);
+        //we are done with the sprite sheet
+        sheet.recycle();
 
         Bitmap numbers = BitmapFactory.decodeResource(activity.getResources(), R.drawable.numbers);
 
-        //load the textures for each number display
+        //add each number
         for (int i = 0; i < TOTAL_NUMBERS; i++) {
 
             //calculate current x-coordinate
             int x = (i * StatDescription.ANIMATION_WIDTH);
 
-            //get the current animation
-            Bitmap powerup = Bitmap.createBitmap(numbers, x, 0, StatDescription.ANIMATION_WIDTH, StatDescription.ANIMATION_HEIGHT);
-
-            //load the texture
-            loadTexture(powerup, openGL);
+            //add the current animation
+            atlas.add(numbers, new Rect(x, 0, x + StatDescription.ANIMATION_WIDTH, StatDescription.ANIMATION_HEIGHT),
+                    StatDescription.ANIMATION_WIDTH, StatDescription.ANIMATION_HEIGHT, TEXTURE_NUMBERS[i]);
         }
+
+        numbers.recycle();
+
+        //add the standalone images
+        add(atlas, R.drawable.laser3, TEXTURE_LASER);
+        add(atlas, R.drawable.fireball, MAX_SPRITE_SIZE, TEXTURE_FIREBALL);
+        add(atlas, R.drawable.lives, TEXTURE_WORD_LIVES);
+        add(atlas, R.drawable.level_text, TEXTURE_WORD_LEVEL);
+        add(atlas, R.drawable.particle1, MAX_SPRITE_SIZE, TEXTURE_PARTICLES[0]);
+        add(atlas, R.drawable.particle2, MAX_SPRITE_SIZE, TEXTURE_PARTICLES[1]);
+        add(atlas, R.drawable.particle3, MAX_SPRITE_SIZE, TEXTURE_PARTICLES[2]);
+        add(atlas, R.drawable.particle4, MAX_SPRITE_SIZE, TEXTURE_PARTICLES[3]);
+        add(atlas, R.drawable.particle5, MAX_SPRITE_SIZE, TEXTURE_PARTICLES[4]);
+        add(atlas, R.drawable.particle6, MAX_SPRITE_SIZE, TEXTURE_PARTICLES[5]);
+        add(atlas, R.drawable.particle7, MAX_SPRITE_SIZE, TEXTURE_PARTICLES[6]);
+
+        //upload the atlas as a single texture
+        if (!offer(atlas.getBitmap(), atlas, null, generation))
+            return;
+
+        //background images
+        if (!offer(decodeResource(R.drawable.background), null, TEXTURE_BACKGROUND, generation))
+            return;
+        if (!offer(decodeResource(R.drawable.border), null, TEXTURE_BORDER, generation))
+            return;
+
+        //load the full screen words
+        if (!offer(decodeResource(R.drawable.gameover), null, TEXTURE_WORD_GAMEOVER, generation))
+            return;
+        if (!offer(decodeResource(R.drawable.level), null, TEXTURE_WORD_LEVEL_COMPLETED, generation))
+            return;
+        if (!offer(decodeResource(R.drawable.ready), null, TEXTURE_WORD_READY, generation))
+            return;
+        if (!offer(decodeResource(R.drawable.tapstart), null, TEXTURE_WORD_TAP_START, generation))
+            return;
+    }
+
+    /**
+     * Decode an image
+     * @param resId The resource id of the image
+     * @return The decoded image
+     */
+    private Bitmap decodeResource(final int resId) {
+        return BitmapFactory.decodeResource(activity.getResources(), resId);
+    }
+
+    /**
+     * Add a standalone image to the atlas
+     * @param atlas The atlas we are adding to
+     * @param resId The resource id of the image
+     * @param region The region to assign the texture coordinates
+     */
+    private void add(final TextureAtlas atlas, final int resId, final TextureRegion region) {
+        add(atlas, resId, ATLAS_SIZE, region);
+    }
+
+    /**
+     * Add a standalone image to the atlas
+     * @param atlas The atlas we are adding to
+     * @param resId The resource id of the image
+     * @param maxSize The max width/height of the image in the atlas
+     * @param region The region to assign the texture coordinates
+     */
+    private void add(final TextureAtlas atlas, final int resId, final int maxSize, final TextureRegion region) {
+
+        Bitmap bitmap = decodeResource(resId);
+
+        //add to the atlas
+        atlas.add(bitmap, maxSize, region);
+
+        //we no longer need the resource
+        bitmap.recycle();
     }
 
     /**
@@ -257,4 +456,27 @@ public class Textures {
         //return our value
         return value;
     }
-}
\ No newline at end of file
+
+    /**
+     * An image ready to be uploaded and where the texture id goes once it is
+     */
+    private static class Upload {
+
+        //the image to upload
+        private final Bitmap bitmap;
+
+        //the atlas or region that gets the texture id, only one is assigned
+        private final TextureAtlas atlas;
+        private final TextureRegion region;
+
+        //which load this belongs to
+        private final int generation;
+
+        private Upload(final Bitmap bitmap, final TextureAtlas atlas, final TextureRegion region, final int generation) {
+            this.bitmap = bitmap;
+            this.atlas = atlas;
+            this.region = region;
+            this.generation = generation;
+        }
+    }
+}
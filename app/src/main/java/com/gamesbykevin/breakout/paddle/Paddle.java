@@ -1,19 +1,14 @@
 package com.gamesbykevin.breakout.paddle;
 
-import com.gamesbykevin.breakout.R;
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.ball.Ball;
 import com.gamesbykevin.breakout.common.ICommon;
 import com.gamesbykevin.breakout.entity.Entity;
 import com.gamesbykevin.breakout.laser.Lasers;
-import com.gamesbykevin.breakout.opengl.OpenGLSurfaceView;
-import com.gamesbykevin.breakout.opengl.Textures;
+import com.gamesbykevin.breakout.simulation.Event;
+import com.gamesbykevin.breakout.simulation.World;
 import com.gamesbykevin.breakout.wall.Wall;
 
-import javax.microedition.khronos.opengles.GL10;
-
-import static com.gamesbykevin.breakout.activity.GameActivity.getGame;
-import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.FPS;
+import static com.gamesbykevin.breakout.simulation.World.FPS;
 
 public class Paddle extends Entity implements ICommon
 {
@@ -70,12 +65,12 @@ public class Paddle extends Entity implements ICommon
 	/**
 	 * Default starting coordinate
 	 */
-	public static final int START_X = (OpenGLSurfaceView.WIDTH / 2) - (WIDTH / 2);
+	public static final int START_X = (World.WIDTH / 2) - (WIDTH / 2);
 	
 	/**
 	 * Default starting coordinate
 	 */
-	public static final int START_Y = OpenGLSurfaceView.HEIGHT - (int)(OpenGLSurfaceView.HEIGHT * .20);
+	public static final int START_Y = World.HEIGHT - (int)(World.HEIGHT * .20);
 	
 	/**
 	 * The different ratios to adjust each ball velocity
@@ -151,14 +146,6 @@ public class Paddle extends Entity implements ICommon
 	//the amount of touch power to apply
 	private float touchPower = 1.0f;
 	
-	/**
-	 * The duration to vibrate when the ball hits the paddle
-	 */
-	private static final long VIBRATE_BALL_COLLISION = 125L;
-	
-	//flag to play different sound effects
-	private boolean soundPaddleCollision, soundPaddleCollisionMagnet, soundLaserFire;   
-
 	/**
 	 * Dimension of the cursor
 	 */
@@ -176,9 +163,6 @@ public class Paddle extends Entity implements ICommon
 		
 		//reset paddle
 		reset();
-
-		//assign animation
-		super.setTextureId(Textures.TEXTURE_ID_PADDLE);
 	}
 	
 	/**
@@ -357,7 +341,7 @@ public class Paddle extends Entity implements ICommon
     }
 	
 	@Override
-	public void update(GameActivity activity)
+	public void update(final World world)
 	{
 		//difference between location and touchX
 		double xdiff = 0;
@@ -412,16 +396,22 @@ public class Paddle extends Entity implements ICommon
 				this.setX(getX() + (MOVE_VELOCITY * this.touchPower));
 		}
 
-		//flag false first
-		soundPaddleCollision = false;
-		soundPaddleCollisionMagnet = false;
-		soundLaserFire = false;
-		
+		//check if we need to update any frozen balls
+		for (int i = 0; i < world.getBalls().getBalls().size(); i++)
+		{
+			//get the current ball
+			Ball ball = world.getBalls().getBalls().get(i);
+
+			//if the ball is frozen we will update the x-coordinate
+			if (ball.isFrozen())
+				ball.setX(this.getX() + ball.getOffsetX());
+		}
+
 		//check each ball for paddle collision
-		for (int index = 0; index < getGame().getBalls().getBalls().size(); index++)
+		for (int index = 0; index < world.getBalls().getBalls().size(); index++)
 		{
 			//get the current ball
-			Ball ball = getGame().getBalls().getBalls().get(index);
+			Ball ball = world.getBalls().getBalls().get(index);
 
 			//if the ball isn't close, skip it
 			if (ball.getY() + ball.getHeight() < getY())
@@ -446,9 +436,6 @@ public class Paddle extends Entity implements ICommon
 				if (ball.getY() > getY() + (getHeight() / 2))
 					continue;
 				
-				//play sound effect
-				soundPaddleCollision = true;
-				
 				//switch ball y-velocity
 				ball.setDY(-ball.getDY());
 				
@@ -488,8 +475,8 @@ public class Paddle extends Entity implements ICommon
 				//if the paddle is a magnet then we freeze the ball
 				if (hasMagnet())
 				{
-					//flag to play sound effect
-					soundPaddleCollisionMagnet = true;
+					//notify the ball was caught
+					world.notify(Event.PaddleCatch);
 					
 					//freeze the ball
 					ball.setFrozen(true);
@@ -499,17 +486,14 @@ public class Paddle extends Entity implements ICommon
 				}
 				else
 				{
-					//flag to play sound effect
-					soundPaddleCollision = true;
-					
-					//vibrate when a ball hits the paddle
-					activity.vibrate();
+					//notify the ball hit the paddle
+					world.notify(Event.PaddleHit);
 				}
 			}
 		}
 		
 		//update the lasers object
-		getLasers().update(activity);
+		getLasers().update(world);
 		
 		//track how long we have magnetism
 		if (hasMagnet())
@@ -541,8 +525,8 @@ public class Paddle extends Entity implements ICommon
 				//if enough time has lapsed fire more lasers
 				if (this.framesLaserCurrent >= FRAMES_LASER_DELAY)
 				{
-					//flag true to play sound effect
-					soundLaserFire = true;
+					//notify the lasers were fired
+					world.notify(Event.LaserFired);
 					
 					//reset current count
 					this.framesLaserCurrent = 0;
@@ -552,14 +536,6 @@ public class Paddle extends Entity implements ICommon
 				}
 			}
 		}
-		
-		//play sound effects accordingly
-		if (soundPaddleCollision)
-			activity.playSoundEffect(R.raw.paddlecollision);
-		if (soundPaddleCollisionMagnet)
-			activity.playSoundEffect(R.raw.paddlecatch);
-		if (soundLaserFire)
-			activity.playSoundEffect(R.raw.laser);
 	}
 	
 	@Override
@@ -571,31 +547,10 @@ public class Paddle extends Entity implements ICommon
 		//keep the paddle in bounds
 		if (nx < Wall.WIDTH)
 			nx = Wall.WIDTH;
-		if (nx > OpenGLSurfaceView.WIDTH - Wall.WIDTH - getWidth())
-			nx = OpenGLSurfaceView.WIDTH - Wall.WIDTH - getWidth();
+		if (nx > World.WIDTH - Wall.WIDTH - getWidth())
+			nx = World.WIDTH - Wall.WIDTH - getWidth();
 		
 		//update x-coordinate
 		super.setX(nx);
-		
-		//check if we need to update any frozen balls
-		for (int i = 0; i < getGame().getBalls().getBalls().size(); i++)
-		{
-			//get the current ball
-			Ball ball = getGame().getBalls().getBalls().get(i);
-
-			//if the ball is frozen we will update the x-coordinate
-			if (ball.isFrozen())
-				ball.setX(this.getX() + ball.getOffsetX());
-		}
-	}
-	
-	@Override
-	public void render(GL10 openGL)
-	{
-		//render the paddle
-		super.render(openGL);
-		
-		//render any lasers
-		getLasers().render(openGL);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.gamesbykevin.breakout.particle;
+
+/**
+ * Describes a burst of particles.<br>
+ * The particles are spread evenly around a circle starting at 45 degrees, so 4 particles fly out diagonally
+ */
+public final class Emitter
+{
+	//the number of particles in each burst
+	private final int count;
+
+	//how far each particle moves every step
+	private final float speed;
+
+	//how many steps each particle is displayed
+	private final int lifetime;
+
+	//the width and height of each particle
+	private final float dimension;
+
+	//the range of particle textures we pick from
+	private final int textureStart, textureCount;
+
+	//the direction of each particle in the burst
+	private final float[] directionX, directionY;
+
+	/**
+	 * Create the emitter
+	 * @param count The number of particles in each burst
+	 * @param speed How far each particle moves every step
+	 * @param lifetime How many steps each particle is displayed
+	 * @param dimension The width and height of each particle
+	 * @param textureStart The first particle texture we can pick
+	 * @param textureCount The number of particle textures we can pick from, a single texture is used for the whole burst
+	 */
+	public Emitter(final int count, final float speed, final int lifetime, final float dimension, final int textureStart, final int textureCount)
+	{
+		if (count < 1 || lifetime < 1 || textureCount < 1)
+			throw new IllegalArgumentException("count, lifetime and textureCount have to be at least 1");
+		if (textureStart < 0 || textureStart + textureCount > Particles.TOTAL_TEXTURES)
+			throw new IllegalArgumentException("Textures " + textureStart + " - " + (textureStart + textureCount) + " don't exist");
+
+		this.count = count;
+		this.speed = speed;
+		this.lifetime = lifetime;
+		this.dimension = dimension;
+		this.textureStart = textureStart;
+		this.textureCount = textureCount;
+
+		//calculate the direction of each particle once
+		this.directionX = new float[count];
+		this.directionY = new float[count];
+
+		for (int i = 0; i < count; i++)
+		{
+			final double angle = Math.toRadians(45.0 + ((360.0 * i) / count));
+
+			this.directionX[i] = (float)Math.cos(angle);
+			this.directionY[i] = (float)Math.sin(angle);
+		}
+	}
+
+	public int getCount()
+	{
+		return this.count;
+	}
+
+	public float getSpeed()
+	{
+		return this.speed;
+	}
+
+	public int getLifetime()
+	{
+		return this.lifetime;
+	}
+
+	public float getDimension()
+	{
+		return this.dimension;
+	}
+
+	public int getTextureStart()
+	{
+		return this.textureStart;
+	}
+
+	public int getTextureCount()
+	{
+		return this.textureCount;
+	}
+
+	/**
+	 * Get the x-direction
+	 * @param index The index of the particle in the burst
+	 * @return The x-component of the direction (-1.0 - 1.0)
+	 */
+	public float getDirectionX(final int index)
+	{
+		return this.directionX[index];
+	}
+
+	/**
+	 * Get the y-direction
+	 * @param index The index of the particle in the burst
+	 * @return The y-component of the direction (-1.0 - 1.0)
+	 */
+	public float getDirectionY(final int index)
+	{
+		return this.directionY[index];
+	}
+}
@@ -0,0 +1,206 @@
+package com.gamesbykevin.breakout.particle;
+
+import com.gamesbykevin.breakout.common.ICommon;
+import com.gamesbykevin.breakout.random.Rng;
+import com.gamesbykevin.breakout.simulation.World;
+
+/**
+ * A fixed size pool of particles.<br>
+ * Each particle is stored in parallel arrays, the live particles are always the first {@link #getCount()} entries.
+ * A particle that expires is replaced by the last one, so nothing is created while the game is running.<br>
+ * The particles move in the simulation step, the renderer only reads them
+ */
+public class Particles implements ICommon
+{
+	/**
+	 * The most particles we can display at once, enough for every brick on the board to burst at the same time
+	 */
+	public static final int CAPACITY = 1024;
+
+	/**
+	 * The number of different particle textures
+	 */
+	public static final int TOTAL_TEXTURES = 7;
+
+	//the location of each particle
+	private final float[] x, y;
+
+	//how far each particle moves every step
+	private final float[] dx, dy;
+
+	//the width and height of each particle
+	private final float[] dimension;
+
+	//how many steps each particle has been displayed
+	private final short[] age;
+
+	//how many steps each particle is displayed
+	private final short[] lifetime;
+
+	//the texture of each particle
+	private final byte[] texture;
+
+	//the number of live particles
+	private int count = 0;
+
+	//how many particles didn't fit in our pool
+	private int dropped = 0;
+
+	//object used to pick the textures
+	private final Rng random;
+
+	/**
+	 * Create the pool
+	 * @param random Object used to pick the texture of each burst
+	 */
+	public Particles(final Rng random)
+	{
+		this.random = random;
+
+		this.x = new float[CAPACITY];
+		this.y = new float[CAPACITY];
+		this.dx = new float[CAPACITY];
+		this.dy = new float[CAPACITY];
+		this.dimension = new float[CAPACITY];
+		this.age = new short[CAPACITY];
+		this.lifetime = new short[CAPACITY];
+		this.texture = new byte[CAPACITY];
+	}
+
+	/**
+	 * Add a burst of particles
+	 * @param emitter Describes the particles we want to add
+	 * @param x x-coordinate the particles fly out from
+	 * @param y y-coordinate the particles fly out from
+	 */
+	public void emit(final Emitter emitter, final double x, final double y)
+	{
+		//pick the texture for the burst
+		final byte texture = (byte)(emitter.getTextureStart() + random.nextInt(emitter.getTextureCount()));
+
+		for (int i = 0; i < emitter.getCount(); i++)
+		{
+			//if the pool is full we skip the rest
+			if (this.count == CAPACITY)
+			{
+				this.dropped += emitter.getCount() - i;
+				return;
+			}
+
+			final int index = this.count++;
+
+			this.x[index] = (float)x;
+			this.y[index] = (float)y;
+			this.dx[index] = emitter.getDirectionX(i) * emitter.getSpeed();
+			this.dy[index] = emitter.getDirectionY(i) * emitter.getSpeed();
+			this.dimension[index] = emitter.getDimension();
+			this.age[index] = 0;
+			this.lifetime[index] = (short)emitter.getLifetime();
+			this.texture[index] = texture;
+		}
+	}
+
+	@Override
+	public void update(final World world)
+	{
+		for (int i = 0; i < this.count; i++)
+		{
+			//if the particle expired, move the last particle here and check it next
+			if (++this.age[i] > this.lifetime[i])
+			{
+				remove(i);
+				i--;
+				continue;
+			}
+
+			this.x[i] += this.dx[i];
+			this.y[i] += this.dy[i];
+		}
+	}
+
+	/**
+	 * Remove the particle by replacing it with the last particle
+	 * @param index The index of the particle we want to remove
+	 */
+	private void remove(final int index)
+	{
+		final int last = --this.count;
+
+		this.x[index] = this.x[last];
+		this.y[index] = this.y[last];
+		this.dx[index] = this.dx[last];
+		this.dy[index] = this.dy[last];
+		this.dimension[index] = this.dimension[last];
+		this.age[index] = this.age[last];
+		this.lifetime[index] = this.lifetime[last];
+		this.texture[index] = this.texture[last];
+	}
+
+	/**
+	 * Remove every particle
+	 */
+	@Override
+	public void reset()
+	{
+		this.count = 0;
+	}
+
+	@Override
+	public void dispose()
+	{
+		reset();
+	}
+
+	/**
+	 * Get the count
+	 * @return The number of live particles
+	 */
+	public int getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Get the dropped
+	 * @return The number of particles that didn't fit in our pool
+	 */
+	public int getDropped()
+	{
+		return this.dropped;
+	}
+
+	public float getX(final int index)
+	{
+		return this.x[index];
+	}
+
+	public float getY(final int index)
+	{
+		return this.y[index];
+	}
+
+	public float getDX(final int index)
+	{
+		return this.dx[index];
+	}
+
+	public float getDY(final int index)
+	{
+		return this.dy[index];
+	}
+
+	public float getDimension(final int index)
+	{
+		return this.dimension[index];
+	}
+
+	/**
+	 * Get the texture
+	 * @param index The index of the particle
+	 * @return The index of the particle texture
+	 */
+	public int getTexture(final int index)
+	{
+		return this.texture[index];
+	}
+}
@@ -1,18 +1,12 @@
 package com.gamesbykevin.breakout.powerup;
 
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.brick.Brick;
 import com.gamesbykevin.breakout.common.ICommon;
 import com.gamesbykevin.breakout.entity.Entity;
-import com.gamesbykevin.breakout.opengl.OpenGLSurfaceView;
+import com.gamesbykevin.breakout.random.Rng;
+import com.gamesbykevin.breakout.simulation.World;
 
-import android.graphics.Canvas;
-
-import javax.microedition.khronos.opengles.GL10;
-
-import static com.gamesbykevin.breakout.activity.GameActivity.getRandomObject;
-import static com.gamesbykevin.breakout.opengl.OpenGLSurfaceView.FPS;
-import static com.gamesbykevin.breakout.opengl.Textures.IDS;
+import static com.gamesbykevin.breakout.simulation.World.FPS;
 import static com.gamesbykevin.breakout.powerup.Powerups.getTmpKey;
 
 public class Powerup extends Entity implements ICommon
@@ -48,8 +42,10 @@ public class Powerup extends Entity implements ICommon
 	//the current position
 	private int index = 0;
 
-	//number of animation images
-	private static final int ANIMATION_COUNT = 8;
+	/**
+	 * Number of animation images
+	 */
+	public static final int ANIMATION_COUNT = 8;
 
 	//how many frames until we switch to the next animation
 	private static final int ANIMATION_DELAY = (FPS / (ANIMATION_COUNT * 2));
@@ -57,13 +53,20 @@ public class Powerup extends Entity implements ICommon
 	//the type of power up
 	private Powerups.Key key;
 
+	//object used to generate random events
+	private final Rng random;
+
 	/**
 	 * Default constructor
+	 * @param random Object used to pick the type of power up
 	 */
-	public Powerup()
+	public Powerup(final Rng random)
 	{
 		super(WIDTH, HEIGHT);
 
+		//store our random object
+		this.random = random;
+
 		//assign the y-velocity
 		super.setDY(Y_VELOCITY);
 		
@@ -75,15 +78,23 @@ public class Powerup extends Entity implements ICommon
 	 * Assign a random key
 	 */
 	public void setKey() {
-		this.key = getTmpKey()[getRandomObject().nextInt(getTmpKey().length)];
+		this.key = getTmpKey()[random.nextInt(getTmpKey().length)];
 	}
 
 	public Powerups.Key getKey() {
 		return this.key;
 	}
+
+	/**
+	 * Get the animation index
+	 * @return The current position in the animation of this power up
+	 */
+	public int getIndex() {
+		return this.index;
+	}
 	
 	@Override
-	public void update(GameActivity activity)
+	public void update(final World world)
 	{
 		//increase the frame delay
 		frames++;
@@ -106,7 +117,7 @@ public class Powerup extends Entity implements ICommon
 		super.setY(super.getY() + super.getDY());
 		
 		//if the power up fell off the screen we will hide it
-		if (super.getY() > OpenGLSurfaceView.HEIGHT)
+		if (super.getY() > World.HEIGHT)
 			setHidden(true);
 	}
 
@@ -119,19 +130,4 @@ public class Powerup extends Entity implements ICommon
 		//pick a random power up
 		setKey();
 	}
-
-	@Override
-	public int getTextureId() {
-		return (IDS[getKey().getIndexStart() + index]);
-	}
-	
-	@Override
-	public void render(GL10 openGL)
-	{
-		//assign the animation
-		super.setTextureId(this.getTextureId());
-
-		//render power up
-		super.render(openGL);
-	}
 }
\ No newline at end of file
@@ -2,17 +2,12 @@ package com.gamesbykevin.breakout.powerup;
 
 import java.util.ArrayList;
 
-import com.gamesbykevin.breakout.R;
-import com.gamesbykevin.breakout.activity.GameActivity;
 import com.gamesbykevin.breakout.brick.Brick;
 import com.gamesbykevin.breakout.common.ICommon;
 import com.gamesbykevin.breakout.entity.Entity;
-import com.gamesbykevin.breakout.util.UtilityHelper;
-
-import javax.microedition.khronos.opengles.GL10;
-
-import static com.gamesbykevin.breakout.activity.GameActivity.getGame;
-import static com.gamesbykevin.breakout.game.GameHelper.getStatDescription;
+import com.gamesbykevin.breakout.random.Rng;
+import com.gamesbykevin.breakout.simulation.Event;
+import com.gamesbykevin.breakout.simulation.World;
 
 public class Powerups extends Entity implements ICommon
 {
@@ -22,6 +17,9 @@ public class Powerups extends Entity implements ICommon
 	//temp array to avoid memory leak
 	private static Key[] tmpKey;
 
+	//object used to generate random events
+	private final Rng random;
+
 	//different animations for the power ups
 	public enum Key
 	{
@@ -31,8 +29,6 @@ public class Powerups extends Entity implements ICommon
 
 		private final int y;
 
-		private int indexStart = 0;
-
 		Key(int y) {
 			this.y = y;
 		}
@@ -40,23 +36,18 @@ public class Powerups extends Entity implements ICommon
 		public int getY() {
 			return this.y;
 		}
-
-		public void setIndexStart(int indexStart) {
-			this.indexStart = indexStart;
-		}
-
-		public int getIndexStart() {
-			return this.indexStart;
-		}
 	}
 
 	/**
 	 * Default constructor
 	 */
-	public Powerups()
+	public Powerups(final Rng random)
 	{
 		super(Powerup.WIDTH, Powerup.HEIGHT);
 
+		//store our random object
+		this.random = random;
+
 		//create list of power ups
 		this.powerups = new ArrayList<Powerup>();
 	}
@@ -129,7 +120,7 @@ public class Powerups extends Entity implements ICommon
 		}
 		
 		//we weren't able to re-use a power up so let's add one
-		Powerup powerup = new Powerup();
+		Powerup powerup = new Powerup(random);
 		
 		//assign position at the brick
 		powerup.setX(brick.getX() + (brick.getWidth() / 2) - (powerup.getWidth() / 2));
@@ -140,13 +131,8 @@ public class Powerups extends Entity implements ICommon
 	}
 	
 	@Override
-	public void update(GameActivity activity)
+	public void update(final World world)
 	{
-		//possible sound effects to play
-		boolean soundPowerup = false;
-		boolean soundFireball = false;
-		boolean soundNewlife = false;
-		
 		//check all power ups
 		for (int i = 0; i < getPowerups().size(); i++)
 		{
@@ -158,7 +144,7 @@ public class Powerups extends Entity implements ICommon
 				continue;
 			
 			//check for paddle collision
-			if (getGame().getPaddle().hasCollision(powerup))
+			if (world.getPaddle().hasCollision(powerup))
 			{
 				//flag the power up as hidden
 				powerup.setHidden(true);
@@ -167,84 +153,74 @@ public class Powerups extends Entity implements ICommon
 				switch (powerup.getKey())
 				{
 					case Magnet:
-						getGame().getPaddle().setMagnet(true);
+						world.getPaddle().setMagnet(true);
 						
-						//play sound effect
-						soundPowerup = true;
+						//notify the power up was collected
+						world.notify(Event.PowerupCollected);
 						break;
 						
 					case Expand:
-						getGame().getPaddle().expand();
+						world.getPaddle().expand();
 						
-						//play sound effect
-						soundPowerup = true;
+						//notify the power up was collected
+						world.notify(Event.PowerupCollected);
 						break;
 						
 					case Shrink:
-						getGame().getPaddle().shrink();
+						world.getPaddle().shrink();
 						
-						//play sound effect
-						soundPowerup = true;
+						//notify the power up was collected
+						world.notify(Event.PowerupCollected);
 						break;
 						
 					case Laser:
-						getGame().getPaddle().setLaser(true);
+						world.getPaddle().setLaser(true);
 						
-						//play sound effect
-						soundPowerup = true;
+						//notify the power up was collected
+						world.notify(Event.PowerupCollected);
 						break;
 						
 					case ExtraLife:
-						getStatDescription().setDescription(getStatDescription().getStatValue() + 1);
-
-						//play sound effect
-						soundNewlife = true;
+						//notify the extra life was collected
+						world.notify(Event.ExtraLife);
 						break;
 						
 					case ExtraBalls:
-						getGame().getBalls().add();
-						getGame().getBalls().add();
+						world.getBalls().add();
+						world.getBalls().add();
 						
-						//play sound effect
-						soundPowerup = true;
+						//notify the power up was collected
+						world.notify(Event.PowerupCollected);
 						break;
 						
 					case SpeedUp:
-						getGame().getBalls().speedUp();
+						world.getBalls().speedUp();
 						
-						//play sound effect
-						soundPowerup = true;
+						//notify the power up was collected
+						world.notify(Event.PowerupCollected);
 						break;
 						
 					case SpeedDown:
-						getGame().getBalls().speedDown();
+						world.getBalls().speedDown();
 						
-						//play sound effect
-						soundPowerup = true;
+						//notify the power up was collected
+						world.notify(Event.PowerupCollected);
 						break;
 						
 					case Fireball:
-						getGame().getBalls().setFire(true);
+						world.getBalls().setFire(true);
 						
-						//play sound effect
-						soundFireball = true;
+						//notify the fireball was collected
+						world.notify(Event.FireballCollected);
 						break;
 				}
 			}
 			else
 			{
 				//update power up location etc...
-				powerup.update(activity);
+				powerup.update(world);
 			}
 		}
-
-		//play sound effects accordingly
-		if (soundPowerup)
-			activity.playSoundEffect(R.raw.powerup);
-		if (soundFireball)
-			activity.playSoundEffect(R.raw.firepickup);
-		if (soundNewlife)
-			activity.playSoundEffect(R.raw.newlife);
 	}
 
 	@Override
@@ -259,33 +235,4 @@ public class Powerups extends Entity implements ICommon
 			powerup.setHidden(true);
 		}
 	}
-	
-	@Override
-	public void render(final GL10 openGL)
-	{
-		if (getPowerups() != null) {
-
-			//render all power ups
-			for (int i = 0; i < getPowerups().size(); i++) {
-				try {
-					if (i >= getPowerups().size())
-						continue;
-
-					Powerup powerup = getPowerups().get(i);
-
-					if (powerup.isHidden())
-						continue;
-
-					super.setX(powerup);
-					super.setY(powerup);
-					super.setTextureId(powerup.getTextureId());
-					super.render(openGL);
-
-					//getPowerups().get(i).render(openGL);
-				} catch (Exception e) {
-					UtilityHelper.handleException(e);
-				}
-			}
-		}
-	}
 }
\ No newline at end of file
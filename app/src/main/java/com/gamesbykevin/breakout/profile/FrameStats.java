@@ -0,0 +1,253 @@
+package com.gamesbykevin.breakout.profile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+
+/**
+ * Record how long each frame took and how much work it was, so we can get the p50 / p99 from a real device.<br>
+ * Every metric has its own {@link Histogram} allocated up front, recording never allocates.
+ * The update thread records the update, frame and entities, the gl thread records the render, gl calls and draw calls,
+ * so every method is synchronized. The lock is only taken a few times each frame and nobody holds it for long.<br>
+ * Garbage collections are counted with a weakly referenced object that is only cleared by a collection,
+ * a collection that doesn't reach it (a young collection after it was promoted) isn't counted
+ */
+public class FrameStats
+{
+	//every duration is in nanoseconds, anything over 1 second shares the last bucket
+	private static final long HIGHEST_NANOS = 1000000000L;
+
+	//every count, anything higher shares the last bucket
+	private static final long HIGHEST_COUNT = 65536;
+
+	//each value is within 1/64 (1.6%) of its bucket
+	private static final int BITS = 7;
+
+	/**
+	 * What we record each frame
+	 */
+	public enum Metric
+	{
+		//the time of a single game update (nanoseconds)
+		Update("ns", HIGHEST_NANOS),
+
+		//the time the gl thread spent submitting a frame (nanoseconds)
+		Render("ns", HIGHEST_NANOS),
+
+		//the time between two frames (nanoseconds)
+		Frame("ns", HIGHEST_NANOS),
+
+		//the number of gl calls made to render a frame
+		GlCalls("calls", HIGHEST_COUNT),
+
+		//the number of draw calls made to render a frame
+		DrawCalls("calls", HIGHEST_COUNT),
+
+		//the number of balls, lasers, power ups and particles alive
+		Entities("entities", HIGHEST_COUNT);
+
+		private final String unit;
+
+		private final long highest;
+
+		Metric(final String unit, final long highest)
+		{
+			this.unit = unit;
+			this.highest = highest;
+		}
+
+		public String getUnit()
+		{
+			return this.unit;
+		}
+	}
+
+	//the percentiles we write for each metric
+	private static final double[] PERCENTILES = {0.50, 0.90, 0.99, 0.999};
+
+	//a histogram for each metric
+	private final Histogram[] histograms;
+
+	//the number of garbage collections noticed
+	private long collections = 0;
+
+	//the number of vsyncs that did not get a new frame
+	private long missedVsyncs = 0;
+
+	//the number of game steps dropped because we fell too far behind
+	private long droppedSteps = 0;
+
+	//cleared when a garbage collection happens
+	private WeakReference<Object> sentinel;
+
+	public FrameStats()
+	{
+		this.histograms = new Histogram[Metric.values().length];
+
+		for (Metric metric : Metric.values())
+		{
+			this.histograms[metric.ordinal()] = new Histogram(metric.highest, BITS);
+		}
+
+		this.sentinel = new WeakReference<>(new Object());
+	}
+
+	/**
+	 * Record a single game update
+	 * @param nanos The duration of the update (nanoseconds)
+	 */
+	public synchronized void recordUpdate(final long nanos)
+	{
+		histograms[Metric.Update.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Record a frame prepared on the update thread
+	 * @param nanos The time since the previous frame (nanoseconds)
+	 * @param entities The number of entities alive
+	 */
+	public synchronized void recordFrame(final long nanos, final int entities)
+	{
+		histograms[Metric.Frame.ordinal()].record(nanos);
+		histograms[Metric.Entities.ordinal()].record(entities);
+
+		//if our object was collected there was a garbage collection, we only allocate again when that happens
+		if (sentinel.get() == null)
+		{
+			collections++;
+			sentinel = new WeakReference<>(new Object());
+		}
+	}
+
+	/**
+	 * Record a frame rendered on the gl thread
+	 * @param nanos The duration of the render (nanoseconds)
+	 * @param glCalls The number of gl calls made
+	 * @param drawCalls The number of draw calls made
+	 */
+	public synchronized void recordRender(final long nanos, final int glCalls, final int drawCalls)
+	{
+		histograms[Metric.Render.ordinal()].record(nanos);
+		histograms[Metric.GlCalls.ordinal()].record(glCalls);
+		histograms[Metric.DrawCalls.ordinal()].record(drawCalls);
+	}
+
+	/**
+	 * Record vsyncs that did not get a new frame
+	 * @param count The number of vsyncs missed
+	 */
+	public synchronized void recordMissedVsyncs(final long count)
+	{
+		missedVsyncs += count;
+	}
+
+	/**
+	 * Record game steps that were dropped
+	 * @param count The number of steps dropped
+	 */
+	public synchronized void recordDroppedSteps(final long count)
+	{
+		droppedSteps += count;
+	}
+
+	/**
+	 * Get the value at the percentile
+	 * @param metric The metric we want
+	 * @param percentile The percentile we want (0.0 - 1.0)
+	 * @return The value at the percentile
+	 */
+	public synchronized long getPercentile(final Metric metric, final double percentile)
+	{
+		return histograms[metric.ordinal()].getPercentile(percentile);
+	}
+
+	/**
+	 * Get the count
+	 * @param metric The metric we want
+	 * @return The number of values recorded
+	 */
+	public synchronized long getCount(final Metric metric)
+	{
+		return histograms[metric.ordinal()].getCount();
+	}
+
+	/**
+	 * Get the collections
+	 * @return The number of garbage collections noticed
+	 */
+	public synchronized long getCollections()
+	{
+		return this.collections;
+	}
+
+	public synchronized long getMissedVsyncs()
+	{
+		return this.missedVsyncs;
+	}
+
+	public synchronized long getDroppedSteps()
+	{
+		return this.droppedSteps;
+	}
+
+	/**
+	 * Remove everything recorded
+	 */
+	public synchronized void reset()
+	{
+		for (Histogram histogram : histograms)
+		{
+			histogram.reset();
+		}
+
+		collections = 0;
+		missedVsyncs = 0;
+		droppedSteps = 0;
+	}
+
+	/**
+	 * Write a report of everything recorded.<br>
+	 * Each metric has a summary line followed by a line for each bucket that isn't empty
+	 * @param writer Where we write the report
+	 * @throws IOException If there was an issue writing
+	 */
+	public synchronized void write(final Writer writer) throws IOException
+	{
+		writer.write(String.format("collections %d, missed vsyncs %d, dropped steps %d%n", collections, missedVsyncs, droppedSteps));
+
+		for (Metric metric : Metric.values())
+		{
+			final Histogram histogram = histograms[metric.ordinal()];
+
+			writer.write(String.format("%n%s (%s) count %d, min %d, mean %.1f, max %d",
+				metric, metric.getUnit(), histogram.getCount(), histogram.getMin(), histogram.getMean(), histogram.getMax()));
+
+			for (double percentile : PERCENTILES)
+			{
+				writer.write(String.format(", p%s %d", formatPercentile(percentile), histogram.getPercentile(percentile)));
+			}
+
+			writer.write(String.format("%n"));
+
+			for (int i = 0; i < histogram.getBuckets(); i++)
+			{
+				if (histogram.getCount(i) > 0)
+					writer.write(String.format("%d %d %d%n", histogram.getLowest(i), Math.min(histogram.getHighest(i), histogram.getMax()), histogram.getCount(i)));
+			}
+		}
+
+		writer.flush();
+	}
+
+	/**
+	 * Format the percentile without trailing zeros
+	 * @param percentile The percentile (0.0 - 1.0)
+	 * @return The percentile out of 100, for example "99.9"
+	 */
+	private static String formatPercentile(final double percentile)
+	{
+		final String text = String.valueOf(percentile * 100);
+
+		return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
+	}
+}
@@ -0,0 +1,203 @@
+package com.gamesbykevin.breakout.profile;
+
+import java.util.Arrays;
+
+/**
+ * Count values in buckets that grow with the value, so small and large values keep the same relative precision.<br>
+ * Values below 2^bits each get their own bucket, after that every power of two is split into 2^(bits - 1) buckets.
+ * The buckets are allocated once, recording a value is a few shifts and never allocates.<br>
+ * Values above the highest value are counted in the last bucket, the max is still exact
+ */
+public class Histogram
+{
+	//the number of buckets each power of two is split into
+	private final int half;
+
+	//the bits of precision
+	private final int bits;
+
+	//the number of values in each bucket
+	private final long[] counts;
+
+	//the highest value we keep apart
+	private final long highest;
+
+	//the number of values recorded
+	private long count = 0;
+
+	//the sum of every value recorded
+	private long total = 0;
+
+	//the smallest and largest values recorded
+	private long min = Long.MAX_VALUE, max = 0;
+
+	/**
+	 * Create the histogram
+	 * @param highest The highest value we keep apart, anything higher shares the last bucket
+	 * @param bits The bits of precision (2 - 16), each value is within 1 / 2^(bits - 1) of its bucket
+	 */
+	public Histogram(final long highest, final int bits)
+	{
+		if (bits < 2 || bits > 16)
+			throw new IllegalArgumentException("Bits has to be between 2 and 16: " + bits);
+		if (highest < 1)
+			throw new IllegalArgumentException("Highest value has to be at least 1: " + highest);
+
+		this.bits = bits;
+		this.half = 1 << (bits - 1);
+		this.highest = highest;
+		this.counts = new long[getIndex(highest) + 1];
+	}
+
+	/**
+	 * Get the bucket of the value
+	 * @param value The value, not negative
+	 * @return The index of the bucket
+	 */
+	private int getIndex(final long value)
+	{
+		//how far do we shift the value so it fits in our precision
+		final int shift = Math.max(0, (63 - Long.numberOfLeadingZeros(value)) - (bits - 1));
+
+		return (shift * half) + (int)(value >>> shift);
+	}
+
+	/**
+	 * Get the lowest value of the bucket
+	 * @param index The index of the bucket
+	 * @return The lowest value counted in the bucket
+	 */
+	public long getLowest(final int index)
+	{
+		//each value below 2^bits has its own bucket
+		if (index < half * 2)
+			return index;
+
+		final int shift = (index / half) - 1;
+
+		return (long)(index - (shift * half)) << shift;
+	}
+
+	/**
+	 * Get the highest value of the bucket
+	 * @param index The index of the bucket
+	 * @return The highest value counted in the bucket
+	 */
+	public long getHighest(final int index)
+	{
+		return (index + 1 < counts.length) ? getLowest(index + 1) - 1 : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Count the value
+	 * @param value The value, negative values are counted as 0
+	 */
+	public void record(long value)
+	{
+		if (value < 0)
+			value = 0;
+
+		counts[getIndex(Math.min(value, highest))]++;
+
+		count++;
+		total += value;
+
+		if (value < min)
+			min = value;
+		if (value > max)
+			max = value;
+	}
+
+	/**
+	 * Get the value at the percentile
+	 * @param percentile The percentile we want (0.0 - 1.0)
+	 * @return The highest value of the bucket containing the percentile, never more than the max recorded
+	 */
+	public long getPercentile(final double percentile)
+	{
+		if (count == 0)
+			return 0;
+
+		//the number of values at or below the percentile
+		final long target = Math.max(1, (long)Math.ceil(percentile * count));
+
+		long sum = 0;
+
+		for (int i = 0; i < counts.length; i++)
+		{
+			sum += counts[i];
+
+			if (sum >= target)
+				return Math.min(getHighest(i), max);
+		}
+
+		return max;
+	}
+
+	/**
+	 * Get the count
+	 * @return The number of values recorded
+	 */
+	public long getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Get the min
+	 * @return The smallest value recorded, 0 if nothing was recorded
+	 */
+	public long getMin()
+	{
+		return (count == 0) ? 0 : this.min;
+	}
+
+	/**
+	 * Get the max
+	 * @return The largest value recorded
+	 */
+	public long getMax()
+	{
+		return this.max;
+	}
+
+	/**
+	 * Get the mean
+	 * @return The average of every value recorded
+	 */
+	public double getMean()
+	{
+		return (count == 0) ? 0 : (double)total / count;
+	}
+
+	/**
+	 * Get the buckets
+	 * @return The number of buckets
+	 */
+	public int getBuckets()
+	{
+		return this.counts.length;
+	}
+
+	/**
+	 * Get the count of the bucket
+	 * @param index The index of the bucket
+	 * @return The number of values in the bucket
+	 */
+	public long getCount(final int index)
+	{
+		return this.counts[index];
+	}
+
+	/**
+	 * Remove every value recorded
+	 */
+	public void reset()
+	{
+		Arrays.fill(counts, 0);
+		count = 0;
+		total = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+}
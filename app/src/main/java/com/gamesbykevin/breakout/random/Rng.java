@@ -0,0 +1,114 @@
+package com.gamesbykevin.breakout.random;
+
+/**
+ * Small and fast random number generator (SplitMix64).<br>
+ * Unlike {@link java.util.Random} nothing is synchronized, so it must only be used on the game thread.<br>
+ * The same seed always produces the same sequence on every device, which is what makes a level attempt reproducible
+ */
+public final class Rng
+{
+	//added to the state on every call
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	//the current state of the generator
+	private long state;
+
+	/**
+	 * Create the generator
+	 * @param seed The starting seed
+	 */
+	public Rng(final long seed)
+	{
+		setSeed(seed);
+	}
+
+	/**
+	 * Start the sequence over
+	 * @param seed The starting seed
+	 */
+	public void setSeed(final long seed)
+	{
+		this.state = seed;
+	}
+
+	/**
+	 * Create a new generator whose sequence doesn't overlap with this one
+	 * @return A generator seeded from the next value of this generator
+	 */
+	public Rng split()
+	{
+		return new Rng(mix(nextLong()));
+	}
+
+	/**
+	 * Get the next random value
+	 * @return A random long using all 64 bits
+	 */
+	public long nextLong()
+	{
+		return mix(this.state += GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Get the next random value
+	 * @return A random int using all 32 bits
+	 */
+	public int nextInt()
+	{
+		return (int)(nextLong() >>> 32);
+	}
+
+	/**
+	 * Get the next random value
+	 * @param bound The upper bound (exclusive), has to be positive
+	 * @return A random int from 0 to bound - 1, every value is equally likely
+	 */
+	public int nextInt(final int bound)
+	{
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+
+		final int mask = bound - 1;
+
+		int result = nextInt();
+
+		//if the bound is a power of 2 we can take the low bits
+		if ((bound & mask) == 0)
+			return result & mask;
+
+		//reject the values from the incomplete range at the top so there is no bias
+		for (int value = result >>> 1; value + mask - (result = value % bound) < 0; value = nextInt() >>> 1);
+
+		return result;
+	}
+
+	/**
+	 * Get the next random value
+	 * @return A random boolean
+	 */
+	public boolean nextBoolean()
+	{
+		return (nextInt() < 0);
+	}
+
+	/**
+	 * Get the next random value
+	 * @return A random double from 0.0 (inclusive) to 1.0 (exclusive)
+	 */
+	public double nextDouble()
+	{
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Scramble the bits of the value
+	 * @param value The value we want to scramble
+	 * @return The scrambled value
+	 */
+	public static long mix(long value)
+	{
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+}
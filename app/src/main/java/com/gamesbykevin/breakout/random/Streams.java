@@ -0,0 +1,87 @@
+package com.gamesbykevin.breakout.random;
+
+/**
+ * A separate random sequence for every part of the game.<br>
+ * Each stream is derived from the same seed, so one seed reproduces a whole level attempt,
+ * but taking an extra value from one stream (another particle burst) doesn't change what the others produce
+ */
+public final class Streams
+{
+	/**
+	 * The parts of the game that need random values
+	 */
+	public enum Stream
+	{
+		//the brick colors and which bricks contain a bonus
+		Level,
+
+		//where new balls are placed and which direction they go
+		Balls,
+
+		//which power up a brick drops
+		Powerups,
+
+		//the texture of each particle burst
+		Particles
+	}
+
+	//list of streams so we don't create a new array each time
+	private static final Stream[] STREAMS = Stream.values();
+
+	//the generator for each stream
+	private final Rng[] generators;
+
+	//the seed of the current attempt
+	private long seed;
+
+	/**
+	 * Create the streams
+	 * @param seed The seed every stream is derived from
+	 */
+	public Streams(final long seed)
+	{
+		this.generators = new Rng[STREAMS.length];
+
+		for (int i = 0; i < this.generators.length; i++)
+		{
+			this.generators[i] = new Rng(0);
+		}
+
+		setSeed(seed);
+	}
+
+	/**
+	 * Start every stream over.<br>
+	 * The generators are reseeded in place so anything holding a stream keeps working
+	 * @param seed The seed every stream is derived from
+	 */
+	public void setSeed(final long seed)
+	{
+		this.seed = seed;
+
+		for (int i = 0; i < this.generators.length; i++)
+		{
+			//mix the stream index into the seed so the streams don't follow each other
+			this.generators[i].setSeed(Rng.mix(seed + Rng.mix(i + 1)));
+		}
+	}
+
+	/**
+	 * Get the seed
+	 * @return The seed every stream was derived from
+	 */
+	public long getSeed()
+	{
+		return this.seed;
+	}
+
+	/**
+	 * Get the stream
+	 * @param stream The part of the game we want random values for
+	 * @return The generator for that part of the game
+	 */
+	public Rng get(final Stream stream)
+	{
+		return this.generators[stream.ordinal()];
+	}
+}
@@ -0,0 +1,227 @@
+package com.gamesbykevin.breakout.replay;
+
+import com.gamesbykevin.breakout.simulation.Input;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Record the input of every step of a level attempt into a compact binary log.<br>
+ * Steps where the input didn't change are only counted, a step that changed stores a flags byte
+ * followed by the touch x-coordinate as a difference from the last one, so holding a finger still costs nothing.<br>
+ * The log starts with the level and the seed, that is all {@link Replay} needs to play the attempt again
+ */
+public class Recorder
+{
+	/**
+	 * Identifies a replay log
+	 */
+	static final int MAGIC = 0x42524B52;
+
+	/**
+	 * The version of the log format
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Flags of a step that changed
+	 */
+	static final int FLAG_TOUCH = 1, FLAG_RELEASE = 2, FLAG_RESTART = 4, FLAG_X = 8, FLAG_POWER = 16, FLAG_END = 128;
+
+	//the size of the buffer when we start
+	private static final int INITIAL_CAPACITY = 4096;
+
+	//the encoded log
+	private byte[] data;
+
+	//how many bytes of the log are used
+	private int size = 0;
+
+	//the input of the last step, changes are encoded against it
+	private final Input previous;
+
+	//the number of steps since the last change
+	private int unchanged = 0;
+
+	//the number of steps recorded
+	private int steps = 0;
+
+	//have we finished the log
+	private boolean finished = false;
+
+	public Recorder()
+	{
+		this.data = new byte[INITIAL_CAPACITY];
+		this.previous = new Input();
+	}
+
+	/**
+	 * Start a new log
+	 * @param level The index of the level being played
+	 * @param seed The seed of the attempt
+	 */
+	public void begin(final int level, final long seed)
+	{
+		this.size = 0;
+		this.unchanged = 0;
+		this.steps = 0;
+		this.finished = false;
+		this.previous.reset();
+
+		writeInt(MAGIC);
+		writeByte(VERSION);
+		writeVarInt(level);
+		writeLong(seed);
+	}
+
+	/**
+	 * Record the input of the next step
+	 * @param input The input applied to the world before the step
+	 */
+	public void record(final Input input)
+	{
+		if (this.finished)
+			throw new IllegalStateException("The log is already finished");
+
+		this.steps++;
+
+		//if nothing changed we only count the step
+		if (!input.hasRelease() && !input.hasRestart() &&
+			input.hasTouch() == previous.hasTouch() &&
+			input.getTouchX() == previous.getTouchX() &&
+			input.getPower() == previous.getPower())
+		{
+			this.unchanged++;
+			return;
+		}
+
+		int flags = 0;
+
+		if (input.hasTouch())
+			flags |= FLAG_TOUCH;
+		if (input.hasRelease())
+			flags |= FLAG_RELEASE;
+		if (input.hasRestart())
+			flags |= FLAG_RESTART;
+		if (input.getTouchX() != previous.getTouchX())
+			flags |= FLAG_X;
+		if (input.getPower() != previous.getPower())
+			flags |= FLAG_POWER;
+
+		writeVarInt(this.unchanged);
+		writeByte(flags);
+
+		if ((flags & FLAG_X) != 0)
+			writeVarInt(zigzag(input.getTouchX() - previous.getTouchX()));
+		if ((flags & FLAG_POWER) != 0)
+			writeByte(input.getPower());
+
+		this.unchanged = 0;
+		this.previous.copy(input);
+	}
+
+	/**
+	 * Finish the log, no more steps can be recorded
+	 */
+	public void finish()
+	{
+		if (this.finished)
+			return;
+
+		writeVarInt(this.unchanged);
+		writeByte(FLAG_END);
+
+		this.finished = true;
+	}
+
+	/**
+	 * Is there a log in progress?
+	 * @return true if steps can still be recorded, false if the log is finished
+	 */
+	public boolean isRecording()
+	{
+		return (this.size > 0 && !this.finished);
+	}
+
+	/**
+	 * Get the steps
+	 * @return The number of steps recorded
+	 */
+	public int getSteps()
+	{
+		return this.steps;
+	}
+
+	/**
+	 * Get the size
+	 * @return The number of bytes in the log
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+
+	/**
+	 * Get a copy of the log, this finishes the log
+	 * @return The encoded log
+	 */
+	public byte[] toByteArray()
+	{
+		finish();
+		return Arrays.copyOf(this.data, this.size);
+	}
+
+	/**
+	 * Write the log, this finishes the log
+	 * @param outputStream Where we write the log
+	 * @throws IOException If there was an issue writing
+	 */
+	public void writeTo(final OutputStream outputStream) throws IOException
+	{
+		finish();
+		outputStream.write(this.data, 0, this.size);
+	}
+
+	/**
+	 * Map a signed value to an unsigned value so small differences in either direction stay small
+	 */
+	static int zigzag(final int value)
+	{
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private void writeByte(final int value)
+	{
+		//grow the buffer when full, a level attempt only needs a few kilobytes
+		if (this.size == this.data.length)
+			this.data = Arrays.copyOf(this.data, this.data.length * 2);
+
+		this.data[this.size++] = (byte)value;
+	}
+
+	private void writeVarInt(int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		writeByte(value);
+	}
+
+	private void writeInt(final int value)
+	{
+		for (int shift = 24; shift >= 0; shift -= 8)
+		{
+			writeByte(value >>> shift);
+		}
+	}
+
+	private void writeLong(final long value)
+	{
+		writeInt((int)(value >>> 32));
+		writeInt((int)value);
+	}
+}
@@ -0,0 +1,265 @@
+package com.gamesbykevin.breakout.replay;
+
+import com.gamesbykevin.breakout.ball.Ball;
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.simulation.Input;
+import com.gamesbykevin.breakout.simulation.World;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Play a level attempt recorded by {@link Recorder} again.<br>
+ * Nothing is rendered and nothing waits for the clock, so an attempt replays as fast as the simulation can step.
+ * The same log always ends with the same {@link #hash(World)}, a different hash means the simulation changed
+ */
+public class Replay
+{
+	//the encoded log
+	private final byte[] data;
+
+	//where we read next
+	private int position = 0;
+
+	//the level that was played
+	private final int level;
+
+	//the seed of the attempt
+	private final long seed;
+
+	//the input of the last step
+	private final Input previous;
+
+	//the number of steps left that repeat the last input
+	private int unchanged = 0;
+
+	//did we reach the end of the log
+	private boolean ended = false;
+
+	//the number of steps read
+	private int steps = 0;
+
+	/**
+	 * Read the replay
+	 * @param data The log created by {@link Recorder}
+	 * @throws IOException If the data isn't a replay we can read
+	 */
+	public Replay(final byte[] data) throws IOException
+	{
+		this.data = data;
+		this.previous = new Input();
+
+		if (readInt() != Recorder.MAGIC)
+			throw new IOException("Not a replay");
+
+		final int version = readByte();
+
+		if (version != Recorder.VERSION)
+			throw new IOException("Replay version " + version + " isn't supported");
+
+		this.level = readVarInt();
+		this.seed = readLong();
+		this.unchanged = readVarInt();
+	}
+
+	/**
+	 * Read the replay
+	 * @param inputStream The stream containing the log, it is read to the end
+	 * @return The replay
+	 * @throws IOException If there was an issue reading or the data isn't a replay
+	 */
+	public static Replay read(final InputStream inputStream) throws IOException
+	{
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+
+		int length;
+
+		while ((length = inputStream.read(buffer)) != -1)
+		{
+			outputStream.write(buffer, 0, length);
+		}
+
+		return new Replay(outputStream.toByteArray());
+	}
+
+	/**
+	 * Get the level
+	 * @return The index of the level that was played
+	 */
+	public int getLevel()
+	{
+		return this.level;
+	}
+
+	/**
+	 * Get the seed
+	 * @return The seed of the attempt
+	 */
+	public long getSeed()
+	{
+		return this.seed;
+	}
+
+	/**
+	 * Get the steps
+	 * @return The number of steps read so far
+	 */
+	public int getSteps()
+	{
+		return this.steps;
+	}
+
+	/**
+	 * Read the input of the next step
+	 * @param input Where we store the input
+	 * @return true if the input was read, false if there are no more steps
+	 * @throws IOException If the log is cut short
+	 */
+	public boolean next(final Input input) throws IOException
+	{
+		if (this.ended)
+			return false;
+
+		//the input is the same as the last step
+		if (this.unchanged > 0)
+		{
+			this.unchanged--;
+			this.steps++;
+			input.copy(previous);
+			return true;
+		}
+
+		final int flags = readByte();
+
+		if ((flags & Recorder.FLAG_END) != 0)
+		{
+			this.ended = true;
+			return false;
+		}
+
+		//apply the changes to the last input
+		final int touchX = ((flags & Recorder.FLAG_X) != 0) ? previous.getTouchX() + unzigzag(readVarInt()) : previous.getTouchX();
+		final int power = ((flags & Recorder.FLAG_POWER) != 0) ? readByte() : previous.getPower();
+
+		previous.setRaw(touchX, (flags & Recorder.FLAG_TOUCH) != 0, power);
+		previous.setRelease((flags & Recorder.FLAG_RELEASE) != 0);
+		previous.setRestart((flags & Recorder.FLAG_RESTART) != 0);
+
+		input.copy(previous);
+
+		//the release and restart only happen once
+		previous.clearEdges();
+
+		this.steps++;
+		this.unchanged = readVarInt();
+		return true;
+	}
+
+	/**
+	 * Play the whole attempt
+	 * @param world The world we play in, it is reset to the recorded level and seed
+	 * @param levels Object containing every level layout
+	 * @return The hash of the world after the last step
+	 * @throws IOException If the log is cut short
+	 */
+	public long play(final World world, final Levels levels) throws IOException
+	{
+		world.reset(levels, getLevel(), getSeed());
+
+		final Input input = new Input();
+
+		while (next(input))
+		{
+			input.apply(world);
+			world.step();
+			world.dispatchEvents();
+		}
+
+		return hash(world);
+	}
+
+	/**
+	 * Calculate a hash of everything the player can see
+	 * @param world The world we want to hash
+	 * @return A hash of the bricks, balls and paddle
+	 */
+	public static long hash(final World world)
+	{
+		long hash = 17;
+
+		final Bricks bricks = world.getBricks();
+
+		for (int index = 0; index < bricks.getRows() * bricks.getCols(); index++)
+		{
+			hash = (hash * 31) + (bricks.isAlive(index) ? bricks.getCollisions(index) + 1 : 0);
+		}
+
+		hash = (hash * 31) + bricks.getDestroyed();
+
+		for (int i = 0; i < world.getBalls().getBalls().size(); i++)
+		{
+			final Ball ball = world.getBalls().getBalls().get(i);
+
+			if (ball.isHidden())
+				continue;
+
+			hash = (hash * 31) + Double.doubleToLongBits(ball.getX());
+			hash = (hash * 31) + Double.doubleToLongBits(ball.getY());
+		}
+
+		hash = (hash * 31) + Double.doubleToLongBits(world.getPaddle().getX());
+		hash = (hash * 31) + Double.doubleToLongBits(world.getPaddle().getWidth());
+
+		return hash;
+	}
+
+	private int readByte() throws IOException
+	{
+		if (this.position >= this.data.length)
+			throw new IOException("Replay ended early");
+
+		return this.data[this.position++] & 0xFF;
+	}
+
+	private int readVarInt() throws IOException
+	{
+		int value = 0;
+
+		for (int shift = 0; shift < 32; shift += 7)
+		{
+			final int b = readByte();
+
+			value |= (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0)
+				return value;
+		}
+
+		throw new IOException("Replay is corrupt");
+	}
+
+	private int readInt() throws IOException
+	{
+		int value = 0;
+
+		for (int i = 0; i < 4; i++)
+		{
+			value = (value << 8) | readByte();
+		}
+
+		return value;
+	}
+
+	private long readLong() throws IOException
+	{
+		return ((long)readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+	}
+
+	private static int unzigzag(final int value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,41 @@
+package com.gamesbykevin.breakout.simulation;
+
+/**
+ * The side effects the simulation can produce.<br>
+ * The world never plays sound or vibrates itself, it only reports what happened (see {@link EventCounts})
+ */
+public enum Event
+{
+	//a ball hit a breakable brick
+	BrickHit,
+
+	//a brick was destroyed by a ball or laser
+	BrickDestroyed,
+
+	//a ball bounced off a solid brick
+	SolidBrickHit,
+
+	//a ball bounced off a wall
+	WallHit,
+
+	//a ball fell off the screen
+	BallLost,
+
+	//a ball bounced off the paddle
+	PaddleHit,
+
+	//a ball was caught by the magnet paddle
+	PaddleCatch,
+
+	//the paddle fired lasers
+	LaserFired,
+
+	//the paddle collected a power up
+	PowerupCollected,
+
+	//the paddle collected a fireball power up
+	FireballCollected,
+
+	//the paddle collected an extra life
+	ExtraLife
+}
@@ -0,0 +1,74 @@
+package com.gamesbykevin.breakout.simulation;
+
+/**
+ * How many times each event occurred during a step.<br>
+ * The world counts the events as they happen and {@link EventDispatcher} hands the counts out after the step,
+ * so nothing is allocated, nothing reacts to an event in the middle of the physics and no event can be lost
+ */
+public class EventCounts
+{
+	//every type of event
+	private static final Event[] EVENTS = Event.values();
+
+	//how many times each event occurred, by ordinal
+	private final int[] counts;
+
+	//how many events occurred in total
+	private int size = 0;
+
+	public EventCounts()
+	{
+		this.counts = new int[EVENTS.length];
+	}
+
+	/**
+	 * Count the event
+	 * @param event The event that occurred
+	 */
+	public void add(final Event event)
+	{
+		this.counts[event.ordinal()]++;
+		this.size++;
+	}
+
+	/**
+	 * Get the count
+	 * @param event The type of event
+	 * @return The number of times the event occurred since the last clear
+	 */
+	public int getCount(final Event event)
+	{
+		return this.counts[event.ordinal()];
+	}
+
+	/**
+	 * Get the size
+	 * @return The number of events counted since the last clear
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+
+	/**
+	 * Is there nothing counted?
+	 * @return true if no events occurred, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return (this.size == 0);
+	}
+
+	/**
+	 * Forget every event without handling them
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < this.counts.length; i++)
+		{
+			this.counts[i] = 0;
+		}
+
+		this.size = 0;
+	}
+}
@@ -0,0 +1,68 @@
+package com.gamesbykevin.breakout.simulation;
+
+import java.util.ArrayList;
+
+/**
+ * Hand the events of a step to every subscriber.<br>
+ * Duplicates are coalesced, each subscriber is told once per event type along with how many times it occurred,
+ * so a sound or vibration is triggered once per step no matter how many balls caused it
+ */
+public class EventDispatcher
+{
+	//every type of event
+	private static final Event[] EVENTS = Event.values();
+
+	//who do we notify of events
+	private final ArrayList<IEventListener> listeners;
+
+	public EventDispatcher()
+	{
+		this.listeners = new ArrayList<>();
+	}
+
+	/**
+	 * Add the listener
+	 * @param listener Object that will handle the events of each step
+	 */
+	public void subscribe(final IEventListener listener)
+	{
+		if (!this.listeners.contains(listener))
+			this.listeners.add(listener);
+	}
+
+	/**
+	 * Remove the listener
+	 * @param listener Object that will no longer handle the events
+	 */
+	public void unsubscribe(final IEventListener listener)
+	{
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Notify every listener and clear the counts
+	 * @param events The events that occurred
+	 */
+	public void dispatch(final EventCounts events)
+	{
+		//nothing happened
+		if (events.isEmpty())
+			return;
+
+		//notify each listener once per type of event
+		for (int i = 0; i < EVENTS.length; i++)
+		{
+			final int count = events.getCount(EVENTS[i]);
+
+			if (count == 0)
+				continue;
+
+			for (int j = 0; j < this.listeners.size(); j++)
+			{
+				this.listeners.get(j).onEvent(EVENTS[i], count);
+			}
+		}
+
+		events.clear();
+	}
+}
@@ -0,0 +1,14 @@
+package com.gamesbykevin.breakout.simulation;
+
+/**
+ * Anything that wants to react to the side effects of the simulation
+ */
+public interface IEventListener
+{
+	/**
+	 * Handle an event that occurred during the step, called once per type of event after the step
+	 * @param event The event that occurred
+	 * @param count The number of times the event occurred during the step
+	 */
+	public void onEvent(final Event event, final int count);
+}
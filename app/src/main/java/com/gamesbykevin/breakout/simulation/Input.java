@@ -0,0 +1,152 @@
+package com.gamesbykevin.breakout.simulation;
+
+/**
+ * The player input applied at the start of a step.<br>
+ * The touch location and power are rounded to the precision stored in a replay,
+ * so a live game and its replay give the paddle exactly the same values
+ */
+public class Input
+{
+	/**
+	 * The touch x-coordinate is stored in 1/16 of a pixel
+	 */
+	public static final int TOUCH_X_SCALE = 16;
+
+	/**
+	 * The touch power is stored in percent
+	 */
+	public static final int POWER_SCALE = 100;
+
+	//where the player touched, in 1/16 of a pixel
+	private int touchX = 0;
+
+	//is the player touching
+	private boolean touch = false;
+
+	//how much power to apply to the touch, in percent
+	private int power = POWER_SCALE;
+
+	//did the player let go of the frozen balls
+	private boolean release = false;
+
+	//do we restart the level because a life was lost
+	private boolean restart = false;
+
+	/**
+	 * Assign the touch
+	 * @param touchX Where did the player touch
+	 * @param touch Is the player touching?
+	 * @param power The % of power applied to the touch 0.0 - 1.0
+	 */
+	public void setTouch(final float touchX, final boolean touch, final float power)
+	{
+		this.touchX = Math.round(touchX * TOUCH_X_SCALE);
+		this.touch = touch;
+		this.power = Math.round(power * POWER_SCALE);
+	}
+
+	/**
+	 * Assign the touch without rounding, used when reading a replay
+	 * @param touchX Where did the player touch, in 1/16 of a pixel
+	 * @param touch Is the player touching?
+	 * @param power The power applied to the touch, in percent
+	 */
+	public void setRaw(final int touchX, final boolean touch, final int power)
+	{
+		this.touchX = touchX;
+		this.touch = touch;
+		this.power = power;
+	}
+
+	/**
+	 * Flag the frozen balls to be released on the next step
+	 * @param release true to release the balls, false otherwise
+	 */
+	public void setRelease(final boolean release)
+	{
+		this.release = release;
+	}
+
+	/**
+	 * Flag the level to restart on the next step
+	 * @param restart true to restart, false otherwise
+	 */
+	public void setRestart(final boolean restart)
+	{
+		this.restart = restart;
+	}
+
+	public int getTouchX()
+	{
+		return this.touchX;
+	}
+
+	public boolean hasTouch()
+	{
+		return this.touch;
+	}
+
+	public int getPower()
+	{
+		return this.power;
+	}
+
+	public boolean hasRelease()
+	{
+		return this.release;
+	}
+
+	public boolean hasRestart()
+	{
+		return this.restart;
+	}
+
+	/**
+	 * Copy the input
+	 * @param input The input we want to copy
+	 */
+	public void copy(final Input input)
+	{
+		this.touchX = input.touchX;
+		this.touch = input.touch;
+		this.power = input.power;
+		this.release = input.release;
+		this.restart = input.restart;
+	}
+
+	/**
+	 * Forget the release and restart, the touch stays until the player changes it
+	 */
+	public void clearEdges()
+	{
+		this.release = false;
+		this.restart = false;
+	}
+
+	/**
+	 * Go back to the default input, nobody touching the screen
+	 */
+	public void reset()
+	{
+		setRaw(0, false, POWER_SCALE);
+		clearEdges();
+	}
+
+	/**
+	 * Apply the input to the world, call this right before {@link World#step()}
+	 * @param world The world we want to control
+	 */
+	public void apply(final World world)
+	{
+		//put the ball back on the paddle
+		if (hasRestart())
+			world.restart();
+
+		//move the paddle
+		world.getPaddle().touch((float)getTouchX() / TOUCH_X_SCALE, hasTouch(), (float)getPower() / POWER_SCALE);
+
+		//let go of the balls
+		if (hasRelease())
+			world.getBalls().setFrozen(false);
+	}
+}
@@ -0,0 +1,338 @@
+package com.gamesbykevin.breakout.simulation;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.breakout.ball.Balls;
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.paddle.Paddle;
+import com.gamesbykevin.breakout.particle.Particles;
+import com.gamesbykevin.breakout.powerup.Powerups;
+import com.gamesbykevin.breakout.random.Streams;
+import com.gamesbykevin.breakout.random.Streams.Stream;
+
+/**
+ * The game world containing the bricks, balls, paddle and power ups.<br>
+ * There are no Android or OpenGL dependencies here so the simulation can run on a plain JVM.<br>
+ * Side effects (sound, vibration, lives) are counted as events and dispatched to the listeners after each step
+ */
+public class World implements Disposable
+{
+	/**
+	 * Steps per second
+	 */
+	public static final int FPS = 60;
+
+	/**
+	 * Default dimensions this game was designed for
+	 */
+	public static final int WIDTH = 480;
+
+	/**
+	 * Default dimensions this game was designed for
+	 */
+	public static final int HEIGHT = 800;
+
+	//the collection of bricks
+	private Bricks bricks;
+
+	//the paddle in the game
+	private Paddle paddle;
+
+	//the balls in the game
+	private Balls balls;
+
+	//the power ups in the game
+	private Powerups powerups;
+
+	//the particles in the game
+	private Particles particles;
+
+	//the events produced during the step
+	private final EventCounts events;
+
+	//who do we notify of events
+	private final EventDispatcher dispatcher;
+
+	//the random sequences used by each part of the world
+	private final Streams streams;
+
+	/**
+	 * Create the world
+	 * @param seed The seed of the random events until the first {@link #reset(Levels, int, long)}
+	 */
+	public World(final long seed)
+	{
+		//create the random sequences
+		this.streams = new Streams(seed);
+
+		//create the particles
+		this.particles = new Particles(streams.get(Stream.Particles));
+
+		//create new bricks container, destroyed bricks add particles
+		this.bricks = new Bricks(this.particles);
+
+		//create the balls
+		this.balls = new Balls(streams.get(Stream.Balls));
+
+		//create new paddle
+		this.paddle = new Paddle();
+
+		//create the power ups
+		this.powerups = new Powerups(streams.get(Stream.Powerups));
+
+		//create our events
+		this.events = new EventCounts();
+		this.dispatcher = new EventDispatcher();
+	}
+
+	/**
+	 * Add the listener
+	 * @param listener Object that will handle the events produced during each step
+	 */
+	public void subscribe(final IEventListener listener)
+	{
+		this.dispatcher.subscribe(listener);
+	}
+
+	/**
+	 * Record an event, the listeners aren't notified until {@link #dispatchEvents()}
+	 * @param event The event that occurred
+	 */
+	public void notify(final Event event)
+	{
+		this.events.add(event);
+	}
+
+	/**
+	 * Notify the listeners of the events recorded since the last dispatch, call this after each step
+	 */
+	public void dispatchEvents()
+	{
+		this.dispatcher.dispatch(this.events);
+	}
+
+	/**
+	 * Get the events
+	 * @return The events recorded since the last dispatch
+	 */
+	public EventCounts getEvents()
+	{
+		return this.events;
+	}
+
+	/**
+	 * Start the specified level all over.<br>
+	 * The same level, seed and input always play out the same way
+	 * @param levels Object containing every level layout
+	 * @param index The index of the level we want to play
+	 * @param seed The seed of the random events for this attempt
+	 */
+	public void reset(final Levels levels, final int index, final long seed)
+	{
+		//start every random sequence over
+		this.streams.setSeed(seed);
+
+		//reset balls
+		getBalls().reset();
+
+		//reset paddle and ball(s)
+		getBalls().add(getPaddle());
+
+		//hide power ups
+		getPowerups().reset();
+
+		//remove the particles
+		getParticles().reset();
+
+		//populate the bricks accordingly
+		levels.populate(getBricks(), index, streams.get(Stream.Level));
+
+		//events of the previous level no longer matter
+		this.events.clear();
+
+		//everything was moved, nothing to interpolate from
+		storePrevious();
+	}
+
+	/**
+	 * Restart the same level because the player lost a life
+	 */
+	public void restart()
+	{
+		//reset paddle and ball(s)
+		getBalls().add(getPaddle());
+
+		//everything was moved, nothing to interpolate from
+		storePrevious();
+	}
+
+	/**
+	 * Advance the simulation a single step
+	 */
+	public void step()
+	{
+		//remember where everything was so the render can interpolate
+		storePrevious();
+
+		//update the bricks
+		getBricks().update(this);
+
+		//update the balls
+		getBalls().update(this);
+
+		//update the paddle
+		getPaddle().update(this);
+
+		//update the power ups
+		getPowerups().update(this);
+
+		//move the particles, including the ones added this step
+		getParticles().update(this);
+	}
+
+	/**
+	 * Store the current location of everything that moves
+	 */
+	private void storePrevious()
+	{
+		getPaddle().storePrevious();
+
+		for (int i = 0; i < getPaddle().getLasers().getLasers().size(); i++)
+		{
+			getPaddle().getLasers().getLasers().get(i).storePrevious();
+		}
+
+		for (int i = 0; i < getBalls().getBalls().size(); i++)
+		{
+			getBalls().getBalls().get(i).storePrevious();
+		}
+
+		for (int i = 0; i < getPowerups().getPowerups().size(); i++)
+		{
+			getPowerups().getPowerups().get(i).storePrevious();
+		}
+	}
+
+	/**
+	 * Get the seed
+	 * @return The seed of the random events for the current attempt
+	 */
+	public long getSeed()
+	{
+		return this.streams.getSeed();
+	}
+
+	/**
+	 * Has the level been completed?
+	 * @return true if there are no more bricks to be broken, false otherwise
+	 */
+	public boolean isComplete()
+	{
+		return getBricks().isComplete();
+	}
+
+	/**
+	 * Have we lost all of our balls?
+	 * @return true if there are no balls in play, false otherwise
+	 */
+	public boolean isLost()
+	{
+		return (getBalls().getCount() < 1);
+	}
+
+	/**
+	 * Get the bricks object
+	 * @return Object containing collection of bricks
+	 */
+	public Bricks getBricks()
+	{
+		return this.bricks;
+	}
+
+	/**
+	 * Get the paddle
+	 * @return The paddle object the player interacts with
+	 */
+	public Paddle getPaddle()
+	{
+		return this.paddle;
+	}
+
+	/**
+	 * Get the balls object
+	 * @return The object containing all balls in the game
+	 */
+	public Balls getBalls()
+	{
+		return this.balls;
+	}
+
+	/**
+	 * Get the power ups object
+	 * @return The object containing all power ups in the game
+	 */
+	public Powerups getPowerups()
+	{
+		return this.powerups;
+	}
+
+	/**
+	 * Get the particles
+	 * @return The object containing all particles in the game
+	 */
+	public Particles getParticles()
+	{
+		return this.particles;
+	}
+
+	/**
+	 * Count everything moving in the world
+	 * @return The number of balls, lasers, power ups and particles alive
+	 */
+	public int getEntities()
+	{
+		int count = particles.getCount();
+
+		for (int i = 0; i < balls.getBalls().size(); i++)
+		{
+			if (!balls.getBalls().get(i).isHidden())
+				count++;
+		}
+
+		for (int i = 0; i < powerups.getPowerups().size(); i++)
+		{
+			if (!powerups.getPowerups().get(i).isHidden())
+				count++;
+		}
+
+		for (int i = 0; i < paddle.getLasers().getLasers().size(); i++)
+		{
+			if (!paddle.getLasers().getLasers().get(i).isHidden())
+				count++;
+		}
+
+		return count;
+	}
+
+	@Override
+	public void dispose()
+	{
+		if (bricks != null)
+			bricks.dispose();
+		if (paddle != null)
+			paddle.dispose();
+		if (balls != null)
+			balls.dispose();
+		if (powerups != null)
+			powerups.dispose();
+		if (particles != null)
+			particles.dispose();
+
+		bricks = null;
+		paddle = null;
+		balls = null;
+		powerups = null;
+		particles = null;
+		events.clear();
+	}
+}
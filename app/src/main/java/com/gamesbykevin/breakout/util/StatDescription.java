@@ -2,13 +2,14 @@ package com.gamesbykevin.breakout.util;
 
 import com.gamesbykevin.breakout.entity.Entity;
 import com.gamesbykevin.breakout.game.GameHelper;
+import com.gamesbykevin.breakout.opengl.EntityRenderer;
+import com.gamesbykevin.breakout.opengl.Snapshot;
+import com.gamesbykevin.breakout.opengl.TextureRegion;
 import com.gamesbykevin.breakout.opengl.Textures;
 import com.gamesbykevin.breakout.wall.Wall;
 
 import java.util.ArrayList;
 
-import javax.microedition.khronos.opengles.GL10;
-
 import static com.gamesbykevin.breakout.game.GameHelper.STAT_X;
 import static com.gamesbykevin.breakout.game.GameHelper.STAT_Y;
 
@@ -46,9 +47,6 @@ public class StatDescription extends Entity {
         //create a new numbers list
         this.characters = new ArrayList<>();
 
-        //set the dimensions
-        setDefaultDimensions();
-
         //set default value
         setDescription(DEFAULT_LIVES);
     }
@@ -72,86 +70,37 @@ public class StatDescription extends Entity {
         if (getStatValue() < 0)
             this.statValue = 0;
 
-        //assign animations
-        setDescription(String.valueOf(this.statValue));
-    }
+        //count the digits so we don't have to create a string
+        int length = 1;
 
-    private void setDescription(String desc)
-    {
-        //disable any unnecessary digits
-        for (int i = desc.length(); i < characters.size(); i++)
-        {
-            characters.get(i).enabled = false;
+        for (long value = this.statValue / 10; value > 0; value /= 10) {
+            length++;
         }
 
-        //check each character so we can map the animations
-        for (int i = 0; i < desc.length(); i++)
+        //add objects to the array until we have one for each digit
+        while (characters.size() < length)
         {
-            final int textureId;
-
-            //identify which animation
-            switch (desc.charAt(i))
-            {
-                case '0':
-                    textureId = Textures.IDS[Textures.IDS.length - 10];
-                    break;
-
-                case '1':
-                    textureId = Textures.IDS[Textures.IDS.length - 9];
-                    break;
-
-                case '2':
-                    textureId = Textures.IDS[Textures.IDS.length - 8];
-                    break;
-
-                case '3':
-                    textureId = Textures.IDS[Textures.IDS.length - 7];
-                    break;
-
-                case '4':
-                    textureId = Textures.IDS[Textures.IDS.length - 6];
-                    break;
-
-                case '5':
-                    textureId = Textures.IDS[Textures.IDS.length - 5];
-                    break;
-
-                case '6':
-                    textureId = Textures.IDS[Textures.IDS.length - 4];
-                    break;
-
-                case '7':
-                    textureId = Textures.IDS[Textures.IDS.length - 3];
-                    break;
-
-                case '8':
-                    textureId = Textures.IDS[Textures.IDS.length - 2];
-                    break;
+            characters.add(new Character(Textures.TEXTURE_NUMBERS[0]));
+        }
 
-                case '9':
-                    textureId = Textures.IDS[Textures.IDS.length - 1];
-                    break;
+        //disable any unnecessary digits
+        for (int i = length; i < characters.size(); i++)
+        {
+            characters.get(i).enabled = false;
+        }
 
-                default:
-                    throw new RuntimeException("Character not found '" + desc.charAt(i) + "'");
-            }
+        //assign each digit an animation, starting with the last
+        long value = this.statValue;
 
-            //if we are within the array we can reuse
-            if (i < characters.size())
-            {
-                characters.get(i).enabled = true;
-                characters.get(i).textureId = textureId;
-            }
-            else
-            {
-                //else we add a new object to the array
-                characters.add(new Character(textureId));
-            }
+        for (int i = length - 1; i >= 0; i--)
+        {
+            characters.get(i).enabled = true;
+            characters.get(i).texture = Textures.TEXTURE_NUMBERS[(int)(value % 10)];
+            value /= 10;
         }
     }
 
-    @Override
-    public void render(GL10 gl)
+    public void render(Snapshot snapshot)
     {
         //store coordinate
         final double x = getX();
@@ -166,16 +115,13 @@ public class StatDescription extends Entity {
 
                 //if this is not enabled no need to continue
                 if (!character.enabled)
-                    return;
+                    break;
 
                 //assign x-coordinate location
                 setX(x + (int)(i * getWidth()));
 
-                //assign texture
-                super.setTextureId(character.textureId);
-
                 //render animation
-                super.render(gl);
+                EntityRenderer.render(snapshot, getX(), getY(), getWidth(), getHeight(), character.texture);
 
             } catch (Exception e) {
                 UtilityHelper.handleException(e);
@@ -192,14 +138,14 @@ public class StatDescription extends Entity {
     private class Character
     {
         //texture to render
-        protected int textureId;
+        protected TextureRegion texture;
 
         //are we rendering this?
         protected boolean enabled = true;
 
-        private Character(final int textureId)
+        private Character(final TextureRegion texture)
         {
-            this.textureId = textureId;
+            this.texture = texture;
             this.enabled = true;
         }
     }
@@ -0,0 +1,397 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.bot.Autoplay;
+import com.gamesbykevin.breakout.bot.Autoplay.Result;
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.LevelPack;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.random.Rng;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static com.gamesbykevin.breakout.simulation.World.FPS;
+
+/**
+ * Rate the difficulty of every level by letting the bot play each level many times on every core.<br>
+ * Every level is played with a number of seeds, once as is and once without power ups.
+ * Each game is a separate task with its own world, so nothing is shared between the threads until the results are added up,
+ * and the report is the same no matter how many threads are used.<br>
+ * usage: ./gradlew :benchmark:analyze -PanalyzeArgs="runs=8 threads=4 out=build/difficulty.csv"
+ */
+public class Analyzer
+{
+	/**
+	 * The result of a single game
+	 */
+	private static final class Game
+	{
+		private final int level;
+		private final boolean powerups;
+		private final Result result;
+		private final int steps, paddleHits, ballsLost, collected;
+
+		private Game(final int level, final boolean powerups, final Result result, final Autoplay autoplay)
+		{
+			this.level = level;
+			this.powerups = powerups;
+			this.result = result;
+			this.steps = autoplay.getSteps();
+			this.paddleHits = autoplay.getPaddleHits();
+			this.ballsLost = autoplay.getBallsLost();
+			this.collected = autoplay.getPowerups();
+		}
+	}
+
+	/**
+	 * The difficulty of a single level
+	 */
+	private static final class Report
+	{
+		private int level, bricks, rank;
+		private double solidRatio;
+		private double clearRate, medianSeconds, expectedSeconds;
+		private double paddleHits, ballsLost, powerups;
+		private double clearRateNoPowerups, expectedSecondsNoPowerups, powerupDependence;
+	}
+
+	public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException
+	{
+		long seed = 0;
+		int runs = 8, threads = Runtime.getRuntime().availableProcessors();
+		int from = 0, to = Integer.MAX_VALUE;
+		File levelsFile = null, out = null;
+
+		for (String arg : args)
+		{
+			final String[] pair = arg.split("=", 2);
+
+			if (pair.length != 2)
+				throw new IllegalArgumentException("Expected key=value: " + arg);
+
+			switch (pair[0])
+			{
+				case "seed":
+					seed = Long.parseLong(pair[1]);
+					break;
+
+				case "runs":
+					runs = Integer.parseInt(pair[1]);
+					break;
+
+				case "threads":
+					threads = Integer.parseInt(pair[1]);
+					break;
+
+				case "from":
+					from = Integer.parseInt(pair[1]);
+					break;
+
+				case "to":
+					to = Integer.parseInt(pair[1]);
+					break;
+
+				case "levels":
+					levelsFile = new File(pair[1]);
+					break;
+
+				case "out":
+					out = new File(pair[1]);
+					break;
+
+				default:
+					throw new IllegalArgumentException("Unknown argument: " + arg);
+			}
+		}
+
+		//compile the levels once, each thread reads the pack through its own Levels object
+		final ByteBuffer pack = compile(levelsFile);
+		final Levels levels = new Levels(pack.duplicate());
+
+		to = Math.min(to, levels.getSize() - 1);
+
+		//every thread plays in its own world
+		final ThreadLocal<Autoplay> autoplays = ThreadLocal.withInitial(Autoplay::new);
+		final ThreadLocal<Levels> threadLevels = ThreadLocal.withInitial(() ->
+		{
+			try
+			{
+				return new Levels(pack.duplicate());
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		//one task per game
+		final List<Callable<Game>> tasks = new ArrayList<>();
+
+		for (int level = from; level <= to; level++)
+		{
+			for (int run = 0; run < runs; run++)
+			{
+				for (boolean powerups : new boolean[] {true, false})
+				{
+					final int index = level;
+					final long gameSeed = Rng.mix(seed + run);
+
+					tasks.add(() ->
+					{
+						final Autoplay autoplay = autoplays.get();
+						final Result result = autoplay.play(threadLevels.get(), index, gameSeed, powerups, null, null);
+						return new Game(index, powerups, result, autoplay);
+					});
+				}
+			}
+		}
+
+		final long begin = System.nanoTime();
+
+		final ForkJoinPool pool = new ForkJoinPool(threads);
+		final List<Future<Game>> futures;
+
+		try
+		{
+			futures = pool.invokeAll(tasks);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		final List<Game> games = new ArrayList<>(futures.size());
+
+		for (Future<Game> future : futures)
+		{
+			games.add(future.get());
+		}
+
+		final double seconds = (System.nanoTime() - begin) / 1e9;
+
+		final List<Report> reports = aggregate(games, levels, from, to);
+
+		final PrintStream printStream = (out == null) ? System.out : new PrintStream(out, "UTF-8");
+
+		try
+		{
+			if (out != null && out.getName().endsWith(".json"))
+				writeJson(printStream, reports);
+			else
+				writeCsv(printStream, reports);
+		}
+		finally
+		{
+			if (out != null)
+				printStream.close();
+		}
+
+		System.err.println(String.format(Locale.US, "%d games on %d threads in %.1f s (%.1f games/s)", games.size(), threads, seconds, games.size() / seconds));
+	}
+
+	/**
+	 * Compile the level pack
+	 * @param file The levels to compile, if null levels.txt is read from the classpath
+	 * @return The compiled level pack
+	 * @throws IOException If there was an issue reading the levels
+	 */
+	private static ByteBuffer compile(final File file) throws IOException
+	{
+		final InputStream inputStream = (file != null) ? new FileInputStream(file) : Analyzer.class.getClassLoader().getResourceAsStream(LevelPack.SOURCE_FILE_NAME);
+
+		if (inputStream == null)
+			throw new IOException(LevelPack.SOURCE_FILE_NAME + " not found on the classpath");
+
+		try
+		{
+			return LevelPack.compile(inputStream, Bricks.ROWS_NORMAL, Bricks.COLS_NORMAL);
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Add up the games of each level
+	 * @param games Every game played
+	 * @param levels Object containing every level layout
+	 * @param from The first level played
+	 * @param to The last level played
+	 * @return The report of each level
+	 */
+	private static List<Report> aggregate(final List<Game> games, final Levels levels, final int from, final int to)
+	{
+		final List<Report> reports = new ArrayList<>();
+
+		//used to count the bricks of each level
+		final Bricks bricks = new Bricks();
+
+		for (int level = from; level <= to; level++)
+		{
+			final Report report = new Report();
+			report.level = level;
+
+			levels.populate(bricks, level, new Rng(0));
+			report.bricks = bricks.getBeginTotal() + bricks.getSolidCount();
+			report.solidRatio = (report.bricks > 0) ? (double)bricks.getSolidCount() / report.bricks : 0;
+
+			reports.add(report);
+		}
+
+		//the steps of the cleared games of each level, with and without power ups
+		final int count = to - from + 1;
+		final int[] runs = new int[count], runsNoPowerups = new int[count];
+		final int[] clears = new int[count], clearsNoPowerups = new int[count];
+		final long[] steps = new long[count], stepsNoPowerups = new long[count];
+		final List<List<Integer>> clearSteps = new ArrayList<>();
+
+		for (int i = 0; i < count; i++)
+		{
+			clearSteps.add(new ArrayList<Integer>());
+		}
+
+		for (Game game : games)
+		{
+			final int i = game.level - from;
+			final Report report = reports.get(i);
+
+			if (game.powerups)
+			{
+				runs[i]++;
+				steps[i] += game.steps;
+				report.paddleHits += game.paddleHits;
+				report.ballsLost += game.ballsLost;
+				report.powerups += game.collected;
+
+				if (game.result == Result.Cleared)
+				{
+					clears[i]++;
+					clearSteps.get(i).add(game.steps);
+				}
+			}
+			else
+			{
+				runsNoPowerups[i]++;
+				stepsNoPowerups[i] += game.steps;
+
+				if (game.result == Result.Cleared)
+					clearsNoPowerups[i]++;
+			}
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			final Report report = reports.get(i);
+
+			report.clearRate = (double)clears[i] / runs[i];
+			report.clearRateNoPowerups = (double)clearsNoPowerups[i] / runsNoPowerups[i];
+			report.paddleHits /= runs[i];
+			report.ballsLost /= runs[i];
+			report.powerups /= runs[i];
+
+			//the median time of the games that were cleared
+			final List<Integer> cleared = clearSteps.get(i);
+
+			if (cleared.isEmpty())
+			{
+				report.medianSeconds = Double.NaN;
+			}
+			else
+			{
+				final Integer[] sorted = cleared.toArray(new Integer[cleared.size()]);
+				Arrays.sort(sorted);
+				report.medianSeconds = (double)sorted[sorted.length / 2] / FPS;
+			}
+
+			//the time played for each clear, failed games count as time lost
+			report.expectedSeconds = (clears[i] > 0) ? (double)steps[i] / clears[i] / FPS : Double.POSITIVE_INFINITY;
+			report.expectedSecondsNoPowerups = (clearsNoPowerups[i] > 0) ? (double)stepsNoPowerups[i] / clearsNoPowerups[i] / FPS : Double.POSITIVE_INFINITY;
+
+			//0 = power ups don't matter, 1 = can't clear without them, negative = easier without them
+			if (Double.isInfinite(report.expectedSeconds))
+				report.powerupDependence = Double.NaN;
+			else if (Double.isInfinite(report.expectedSecondsNoPowerups))
+				report.powerupDependence = 1.0;
+			else
+				report.powerupDependence = 1.0 - (report.expectedSeconds / report.expectedSecondsNoPowerups);
+		}
+
+		//rank by the time it takes to clear, the levels that can't be cleared are last
+		final Report[] ranked = reports.toArray(new Report[reports.size()]);
+
+		Arrays.sort(ranked, (a, b) -> Double.compare(a.expectedSeconds, b.expectedSeconds));
+
+		for (int i = 0; i < ranked.length; i++)
+		{
+			ranked[i].rank = i + 1;
+		}
+
+		return reports;
+	}
+
+	private static void writeCsv(final PrintStream printStream, final List<Report> reports)
+	{
+		printStream.println("level,rank,bricks,solid_ratio,clear_rate,median_seconds,expected_seconds,paddle_hits,balls_lost,powerups,clear_rate_no_powerups,expected_seconds_no_powerups,powerup_dependence");
+
+		for (Report report : reports)
+		{
+			printStream.println(String.format(Locale.US, "%d,%d,%d,%.3f,%.3f,%s,%s,%.1f,%.2f,%.2f,%.3f,%s,%s",
+				report.level, report.rank, report.bricks, report.solidRatio,
+				report.clearRate, format(report.medianSeconds), format(report.expectedSeconds),
+				report.paddleHits, report.ballsLost, report.powerups,
+				report.clearRateNoPowerups, format(report.expectedSecondsNoPowerups), format(report.powerupDependence)));
+		}
+	}
+
+	private static void writeJson(final PrintStream printStream, final List<Report> reports)
+	{
+		printStream.println("[");
+
+		for (int i = 0; i < reports.size(); i++)
+		{
+			final Report report = reports.get(i);
+
+			printStream.print(String.format(Locale.US,
+				"  {\"level\": %d, \"rank\": %d, \"bricks\": %d, \"solidRatio\": %.3f, \"clearRate\": %.3f, \"medianSeconds\": %s, \"expectedSeconds\": %s, " +
+				"\"paddleHits\": %.1f, \"ballsLost\": %.2f, \"powerups\": %.2f, \"clearRateNoPowerups\": %.3f, \"expectedSecondsNoPowerups\": %s, \"powerupDependence\": %s}",
+				report.level, report.rank, report.bricks, report.solidRatio,
+				report.clearRate, json(report.medianSeconds), json(report.expectedSeconds),
+				report.paddleHits, report.ballsLost, report.powerups,
+				report.clearRateNoPowerups, json(report.expectedSecondsNoPowerups), json(report.powerupDependence)));
+
+			printStream.println((i < reports.size() - 1) ? "," : "");
+		}
+
+		printStream.println("]");
+	}
+
+	/**
+	 * Format a value for the csv, a value we couldn't measure is left empty
+	 */
+	private static String format(final double value)
+	{
+		return (Double.isNaN(value) || Double.isInfinite(value)) ? "" : String.format(Locale.US, "%.3f", value);
+	}
+
+	/**
+	 * Format a value for json, a value we couldn't measure is null
+	 */
+	private static String json(final double value)
+	{
+		return (Double.isNaN(value) || Double.isInfinite(value)) ? "null" : String.format(Locale.US, "%.3f", value);
+	}
+}
@@ -0,0 +1,104 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.LevelPack;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.random.Rng;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The representative boards we measure the simulation against
+ */
+public enum Board
+{
+	//no bricks at all, only the walls and paddle
+	EMPTY,
+
+	//the level from levels.txt with the most bricks
+	DENSE,
+
+	//every brick is unbreakable so the balls never run out of targets
+	SOLID;
+
+	/**
+	 * Create the levels containing this board
+	 * @return Levels object where the board is at the index returned by {@link #getIndex(Levels)}
+	 * @throws IOException If there was an issue reading the levels
+	 */
+	public Levels createLevels() throws IOException
+	{
+		switch (this)
+		{
+			case EMPTY:
+				return create(Levels.BRICK_EMPTY);
+
+			case SOLID:
+				return create(Levels.BRICK_UNBREAKABLE);
+
+			case DENSE:
+			default:
+				final InputStream inputStream = Board.class.getClassLoader().getResourceAsStream(LevelPack.SOURCE_FILE_NAME);
+
+				if (inputStream == null)
+					throw new IOException(LevelPack.SOURCE_FILE_NAME + " not found on the classpath");
+
+				return new Levels(LevelPack.compile(inputStream, Bricks.ROWS_NORMAL, Bricks.COLS_NORMAL));
+		}
+	}
+
+	/**
+	 * Get the index of the board
+	 * @param levels The levels created by {@link #createLevels()}
+	 * @return The index of the level we want to populate
+	 */
+	public int getIndex(final Levels levels)
+	{
+		//the synthesized boards only contain a single level
+		if (this != DENSE)
+			return 0;
+
+		//object used to count the bricks, the colors don't matter here
+		final Bricks bricks = new Bricks();
+
+		int index = 0, max = -1;
+
+		for (int i = 0; i < levels.getSize(); i++)
+		{
+			levels.populate(bricks, i, new Rng(0));
+
+			if (bricks.getBeginTotal() > max)
+			{
+				max = bricks.getBeginTotal();
+				index = i;
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * Create a single level where every brick has the same code
+	 * @param code The brick code
+	 * @return Levels object containing a single level
+	 * @throws IOException If there was an issue reading the levels
+	 */
+	private static Levels create(final String code) throws IOException
+	{
+		final StringBuilder builder = new StringBuilder();
+
+		for (int row = 0; row < Bricks.ROWS_NORMAL; row++)
+		{
+			for (int col = 0; col < Bricks.COLS_NORMAL; col++)
+			{
+				builder.append(code);
+			}
+
+			builder.append("\n");
+		}
+
+		return new Levels(LevelPack.compile(new ByteArrayInputStream(builder.toString().getBytes("UTF-8")), Bricks.ROWS_NORMAL, Bricks.COLS_NORMAL));
+	}
+}
@@ -0,0 +1,74 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.brick.Brick;
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.random.Rng;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the cost of visiting every brick on the board the way the renderer does each frame
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BricksBenchmark
+{
+	//the board we are scanning
+	@Param({"EMPTY", "DENSE", "SOLID"})
+	public Board board;
+
+	//the bricks we scan
+	private Bricks bricks;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		final Levels levels = board.createLevels();
+		this.bricks = new Bricks();
+		levels.populate(bricks, board.getIndex(levels), new Rng(0));
+	}
+
+	@Benchmark
+	public double scan()
+	{
+		//add up what the renderer would read so nothing is optimized away
+		double total = 0;
+
+		final int rows = bricks.getRows(), cols = bricks.getCols();
+
+		for (int row = 0; row < rows; row++)
+		{
+			final double y = Bricks.getBrickY(row);
+			double x = Bricks.getBrickX(0);
+
+			for (int col = 0; col < cols; col++, x += Brick.WIDTH_NORMAL)
+			{
+				final int index = (row * cols) + col;
+
+				if (bricks.isAlive(index))
+					total += x + y + bricks.getKey(index).ordinal() + bricks.getTransparency(index);
+			}
+		}
+
+		return total;
+	}
+}
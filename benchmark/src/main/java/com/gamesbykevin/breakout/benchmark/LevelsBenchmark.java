@@ -0,0 +1,65 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.random.Rng;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the cost of populating the bricks when a level is started
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelsBenchmark
+{
+	//the board we are populating
+	@Param({"EMPTY", "DENSE", "SOLID"})
+	public Board board;
+
+	//the levels containing our board
+	private Levels levels;
+
+	//the index of our board
+	private int index;
+
+	//the bricks we populate
+	private Bricks bricks;
+
+	//object used to pick colors and bonuses
+	private Rng random;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		this.levels = board.createLevels();
+		this.index = board.getIndex(levels);
+		this.random = new Rng(0);
+		this.bricks = new Bricks();
+	}
+
+	@Benchmark
+	public Bricks populate()
+	{
+		levels.populate(bricks, index, random);
+		return bricks;
+	}
+}
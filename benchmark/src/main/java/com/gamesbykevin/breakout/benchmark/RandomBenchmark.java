@@ -0,0 +1,58 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.random.Rng;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the cost of our generator with {@link java.util.Random} for the calls the game makes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomBenchmark
+{
+	//a bound that isn't a power of 2, like the number of brick colors
+	private static final int BOUND = 9;
+
+	//the generator used by the game
+	private Rng rng;
+
+	//the generator we replaced
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		this.rng = new Rng(0);
+		this.random = new Random(0);
+	}
+
+	@Benchmark
+	public int rng()
+	{
+		return rng.nextInt(BOUND);
+	}
+
+	@Benchmark
+	public int random()
+	{
+		return random.nextInt(BOUND);
+	}
+}
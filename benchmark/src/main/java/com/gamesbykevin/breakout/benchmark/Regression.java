@@ -0,0 +1,293 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.bot.Autoplay;
+import com.gamesbykevin.breakout.bot.Autoplay.Result;
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.level.LevelPack;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.replay.Recorder;
+import com.gamesbykevin.breakout.replay.Replay;
+import com.gamesbykevin.breakout.simulation.World;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Check the simulation still plays out exactly the same way.<br>
+ * First levels.txt is compiled and every level is read back and compared to the text.
+ * Then the bot plays each level in the corpus while the input is recorded, the attempt is replayed in a new world
+ * and the final hash of both has to match the hash in the corpus. A different hash means the simulation changed,
+ * if that was on purpose write the corpus again with update=true.<br>
+ * usage: ./gradlew :benchmark:regression -PregressionArgs="update=true"
+ */
+public class Regression
+{
+	//the first line of the corpus
+	private static final String HEADER = "#level seed steps hash";
+
+	public static void main(final String[] args) throws IOException
+	{
+		File corpus = new File("regression.txt");
+		boolean update = false;
+
+		for (String arg : args)
+		{
+			final String[] pair = arg.split("=", 2);
+
+			if (pair.length != 2)
+				throw new IllegalArgumentException("Expected key=value: " + arg);
+
+			switch (pair[0])
+			{
+				case "corpus":
+					corpus = new File(pair[1]);
+					break;
+
+				case "update":
+					update = Boolean.parseBoolean(pair[1]);
+					break;
+
+				default:
+					throw new IllegalArgumentException("Unknown argument: " + arg);
+			}
+		}
+
+		final List<String> failures = new ArrayList<>();
+
+		//the pack has to contain exactly what the text contains
+		final byte[] text = readLevels();
+		final Levels levels = checkPack(text, failures);
+
+		//every level with seed 0 unless the corpus says otherwise
+		final Map<Integer, long[]> expected = (update || !corpus.isFile()) ? new LinkedHashMap<Integer, long[]>() : readCorpus(corpus);
+
+		if (expected.isEmpty())
+		{
+			for (int level = 0; level < levels.getSize(); level++)
+			{
+				expected.put(level, null);
+			}
+		}
+
+		final Autoplay autoplay = new Autoplay();
+		final Recorder recorder = new Recorder();
+		final World world = new World(0);
+
+		final StringBuilder builder = new StringBuilder(HEADER).append('\n');
+
+		for (Map.Entry<Integer, long[]> entry : expected.entrySet())
+		{
+			final int level = entry.getKey();
+			final long seed = (entry.getValue() != null) ? entry.getValue()[0] : 0;
+
+			//play the level while recording the input
+			final Result result = autoplay.play(levels, level, seed, true, recorder, null);
+			final long hash = Replay.hash(autoplay.getWorld());
+
+			//the same input has to end the same way in a new world
+			final Replay replay = new Replay(recorder.toByteArray());
+			final long replayed = replay.play(world, levels);
+
+			if (replayed != hash || replay.getSteps() != autoplay.getSteps())
+				failures.add(String.format("level %d: played %d steps to %016x, replayed %d steps to %016x", level, autoplay.getSteps(), hash, replay.getSteps(), replayed));
+
+			//the hash can't change between code changes
+			if (entry.getValue() != null && (entry.getValue()[1] != autoplay.getSteps() || entry.getValue()[2] != hash))
+				failures.add(String.format("level %d: expected %d steps to %016x, played %d steps to %016x (%s)", level, entry.getValue()[1], entry.getValue()[2], autoplay.getSteps(), hash, result));
+
+			builder.append(String.format("%d %d %d %016x%n", level, seed, autoplay.getSteps(), hash));
+		}
+
+		if (update)
+		{
+			final Writer writer = new OutputStreamWriter(new FileOutputStream(corpus), "UTF-8");
+
+			try
+			{
+				writer.write(builder.toString());
+			}
+			finally
+			{
+				writer.close();
+			}
+
+			System.out.println("wrote " + expected.size() + " levels to " + corpus);
+		}
+
+		for (String failure : failures)
+		{
+			System.out.println(failure);
+		}
+
+		System.out.println(String.format("checked %d levels, %d failures", expected.size(), failures.size()));
+
+		if (!failures.isEmpty())
+			System.exit(1);
+	}
+
+	/**
+	 * Read levels.txt from the classpath
+	 * @return The contents of the file
+	 * @throws IOException If the file isn't on the classpath
+	 */
+	private static byte[] readLevels() throws IOException
+	{
+		final InputStream inputStream = Regression.class.getClassLoader().getResourceAsStream(LevelPack.SOURCE_FILE_NAME);
+
+		if (inputStream == null)
+			throw new IOException(LevelPack.SOURCE_FILE_NAME + " not found on the classpath");
+
+		try
+		{
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+
+			int length;
+
+			while ((length = inputStream.read(buffer)) != -1)
+			{
+				output.write(buffer, 0, length);
+			}
+
+			return output.toByteArray();
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Compile the levels and compare every cell of the pack to the text
+	 * @param text The contents of levels.txt
+	 * @param failures Where we add what didn't match
+	 * @return The levels read from the pack
+	 * @throws IOException If the levels can't be compiled or read
+	 */
+	private static Levels checkPack(final byte[] text, final List<String> failures) throws IOException
+	{
+		//both ways of compiling have to write the same pack
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		LevelPack.compile(new ByteArrayInputStream(text), output, Bricks.ROWS_NORMAL, Bricks.COLS_NORMAL);
+		final ByteBuffer pack = LevelPack.compile(new ByteArrayInputStream(text), Bricks.ROWS_NORMAL, Bricks.COLS_NORMAL);
+
+		if (!Arrays.equals(output.toByteArray(), pack.array()))
+			failures.add("level pack: compiling to a stream and to a buffer are different");
+
+		final Levels levels = new Levels(pack);
+
+		//split the text into levels the same way the text format is described
+		final List<List<String>> expected = new ArrayList<>();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(text), "UTF-8"));
+
+		List<String> rows = new ArrayList<>();
+		String line;
+
+		while ((line = reader.readLine()) != null)
+		{
+			if (line.contains(LevelPack.LEVEL_SEPARATOR))
+			{
+				if (!rows.isEmpty())
+					expected.add(rows);
+
+				rows = new ArrayList<>();
+			}
+			else
+			{
+				rows.add(line);
+			}
+		}
+
+		if (!rows.isEmpty())
+			expected.add(rows);
+
+		if (levels.getSize() != expected.size())
+		{
+			failures.add(String.format("level pack: expected %d levels, read %d", expected.size(), levels.getSize()));
+			return levels;
+		}
+
+		//every brick in the text has to be alive after populating, everything else has to be empty
+		final World world = new World(0);
+
+		for (int level = 0; level < levels.getSize(); level++)
+		{
+			world.reset(levels, level, 0);
+
+			final Bricks bricks = world.getBricks();
+			final List<String> levelRows = expected.get(level);
+
+			for (int row = 0; row < bricks.getRows(); row++)
+			{
+				for (int col = 0; col < bricks.getCols(); col++)
+				{
+					final String cells = (row < levelRows.size()) ? levelRows.get(row) : "";
+					final boolean brick = (col < cells.length() && cells.charAt(col) != LevelPack.CELL_EMPTY);
+
+					if (bricks.isAlive(bricks.getIndex(row, col)) != brick)
+					{
+						failures.add(String.format("level pack: level %d row %d col %d doesn't match the text", level, row, col));
+						break;
+					}
+				}
+			}
+		}
+
+		return levels;
+	}
+
+	/**
+	 * Read the corpus
+	 * @param corpus The file written with update=true
+	 * @return The seed, steps and hash of each level, in order
+	 * @throws IOException If there was an issue reading the file
+	 */
+	private static Map<Integer, long[]> readCorpus(final File corpus) throws IOException
+	{
+		final Map<Integer, long[]> expected = new LinkedHashMap<>();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(corpus), "UTF-8"));
+
+		try
+		{
+			String line;
+
+			while ((line = reader.readLine()) != null)
+			{
+				line = line.trim();
+
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				final String[] values = line.split(" ");
+
+				if (values.length != 4)
+					throw new IOException("Expected level, seed, steps and hash: " + line);
+
+				expected.put(Integer.parseInt(values[0]), new long[] {
+					Long.parseLong(values[1]), Long.parseLong(values[2]), Long.parseUnsignedLong(values[3], 16)
+				});
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		return expected;
+	}
+}
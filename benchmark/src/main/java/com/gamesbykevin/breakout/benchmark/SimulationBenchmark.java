@@ -0,0 +1,208 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.ball.Balls;
+import com.gamesbykevin.breakout.brick.Bricks;
+import com.gamesbykevin.breakout.laser.Laser;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.simulation.World;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the cost of a single frame for each part of the simulation.<br>
+ * Every invocation starts from the same freshly populated board and advances {@link #FRAMES} frames,
+ * so the reported time is per frame. Run with -prof gc to get the bytes allocated per frame
+ * (the populate done in the setup allocates nothing, see {@link LevelsBenchmark})
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark
+{
+	/**
+	 * How many frames do we advance per invocation (1 second of game time)
+	 */
+	public static final int FRAMES = World.FPS;
+
+	/**
+	 * The number of power ups falling when busy
+	 */
+	public static final int POWERUPS = 8;
+
+	/**
+	 * The vertical space between each laser when busy
+	 */
+	public static final int LASER_SPACING = 120;
+
+	//the board we are measuring
+	@Param({"EMPTY", "DENSE", "SOLID"})
+	public Board board;
+
+	//do we have the maximum number of balls, lasers and falling power ups
+	@Param({"false", "true"})
+	public boolean busy;
+
+	//how the balls collide with the bricks
+	@Param({"Swept", "Overlap"})
+	public Balls.Collision collision;
+
+	//the levels containing our board
+	private Levels levels;
+
+	//the index of our board
+	private int index;
+
+	//the world we are updating
+	private World world;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException
+	{
+		this.levels = board.createLevels();
+		this.index = board.getIndex(levels);
+		Balls.COLLISION = collision;
+
+		//create the world once so the setup allocates as little as possible
+		this.world = new World(0);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation()
+	{
+		//populate the board
+		world.reset(levels, index, 0);
+
+		if (busy)
+		{
+			//add balls until we reach the limit
+			for (int i = 1; i < Balls.MAX_BALL_LIMIT; i++)
+			{
+				world.getBalls().add();
+			}
+
+			//spawn power ups at the first bricks found
+			int count = 0;
+
+			for (int index = 0; index < world.getBricks().getRows() * world.getBricks().getCols() && count < POWERUPS; index++)
+			{
+				if (world.getBricks().isAlive(index))
+				{
+					world.getPowerups().add(world.getBricks().getBrick(index));
+					count++;
+				}
+			}
+
+			//burst particles from every live brick as if a fireball swept the board
+			for (int index = 0; index < world.getBricks().getRows() * world.getBricks().getCols(); index++)
+			{
+				if (world.getBricks().isAlive(index))
+					world.getParticles().emit(Bricks.EMITTER, world.getBricks().getBrick(index).getX(), world.getBricks().getBrick(index).getY());
+			}
+
+			//turn on the lasers and place a couple of shots in flight
+			world.getPaddle().setLaser(true);
+			world.getPaddle().getLasers().addLasers(world.getPaddle());
+			world.getPaddle().getLasers().addLasers(world.getPaddle());
+
+			for (int i = 0; i < world.getPaddle().getLasers().getLasers().size(); i++)
+			{
+				Laser laser = world.getPaddle().getLasers().getLasers().get(i);
+				laser.setY(laser.getY() - ((i / 2) * LASER_SPACING));
+			}
+		}
+
+		//release the ball(s) from the paddle
+		world.getBalls().setFrozen(false);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public World step()
+	{
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			world.step();
+			world.dispatchEvents();
+		}
+
+		return world;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public World balls()
+	{
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			world.getBalls().update(world);
+		}
+
+		return world;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public World lasers()
+	{
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			world.getPaddle().getLasers().update(world);
+		}
+
+		return world;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public World powerups()
+	{
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			world.getPowerups().update(world);
+		}
+
+		return world;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public World particles()
+	{
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			world.getParticles().update(world);
+		}
+
+		return world;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public World paddle()
+	{
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			world.getPaddle().update(world);
+		}
+
+		return world;
+	}
+}
@@ -0,0 +1,151 @@
+package com.gamesbykevin.breakout.benchmark;
+
+import com.gamesbykevin.breakout.bot.Autoplay;
+import com.gamesbykevin.breakout.bot.Autoplay.Result;
+import com.gamesbykevin.breakout.level.Levels;
+import com.gamesbykevin.breakout.profile.Histogram;
+import com.gamesbykevin.breakout.replay.Recorder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Let the bot play every level in levels.txt with a fixed seed and report how each level went.<br>
+ * For each level we report the steps it took, the balls lost, the most entities alive at once and the step time percentiles.
+ * A level that goes a minute without a brick being destroyed is flagged as stalled,
+ * usually only unbreakable bricks are left where the ball can reach them.
+ * The input of every flagged level is saved so it can be replayed.<br>
+ * usage: ./gradlew :benchmark:soak -PsoakArgs="seed=0 from=0 to=524 out=build/soak"
+ */
+public class Soak
+{
+	//the step times are kept apart up to 1 second, each within 1/64 of its bucket
+	private static final long HIGHEST_NANOS = 1000000000L;
+	private static final int BITS = 7;
+
+	public static void main(final String[] args) throws IOException
+	{
+		long seed = 0;
+		int from = 0, to = Integer.MAX_VALUE;
+		File out = new File("build/soak");
+
+		for (String arg : args)
+		{
+			final String[] pair = arg.split("=", 2);
+
+			if (pair.length != 2)
+				throw new IllegalArgumentException("Expected key=value: " + arg);
+
+			switch (pair[0])
+			{
+				case "seed":
+					seed = Long.parseLong(pair[1]);
+					break;
+
+				case "from":
+					from = Integer.parseInt(pair[1]);
+					break;
+
+				case "to":
+					to = Integer.parseInt(pair[1]);
+					break;
+
+				case "out":
+					out = new File(pair[1]);
+					break;
+
+				default:
+					throw new IllegalArgumentException("Unknown argument: " + arg);
+			}
+		}
+
+		final Levels levels = Board.DENSE.createLevels();
+
+		to = Math.min(to, levels.getSize() - 1);
+
+		final Autoplay autoplay = new Autoplay();
+		final Recorder recorder = new Recorder();
+
+		//the time of every step in the level, and of every step in the soak
+		final long[] times = new long[Autoplay.MAX_STEPS];
+		final Histogram histogram = new Histogram(HIGHEST_NANOS, BITS);
+
+		final List<String> flagged = new ArrayList<>();
+		final int[] results = new int[Result.values().length];
+
+		long totalSteps = 0;
+		final long begin = System.nanoTime();
+
+		System.out.println(String.format("%5s %-8s %6s %5s %5s %8s %8s %8s %8s", "level", "result", "steps", "lost", "peak", "p50 ns", "p99 ns", "max ns", "left"));
+
+		for (int level = from; level <= to; level++)
+		{
+			final Result result = autoplay.play(levels, level, seed, true, recorder, times);
+			final int steps = autoplay.getSteps();
+
+			for (int i = 0; i < steps; i++)
+			{
+				histogram.record(times[i]);
+			}
+
+			results[result.ordinal()]++;
+			totalSteps += steps;
+
+			Arrays.sort(times, 0, steps);
+
+			System.out.println(String.format("%5d %-8s %6d %5d %5d %8d %8d %8d %8d",
+				level, result, steps, autoplay.getBallsLost(), autoplay.getPeak(),
+				getPercentile(times, steps, 0.50), getPercentile(times, steps, 0.99), (steps > 0) ? times[steps - 1] : 0,
+				autoplay.getWorld().getBricks().getCount()));
+
+			//keep the input of the flagged levels so they can be replayed
+			if (result != Result.Cleared)
+			{
+				flagged.add(level + " " + result);
+
+				if (!out.isDirectory() && !out.mkdirs())
+					throw new IOException("Unable to create " + out);
+
+				final FileOutputStream outputStream = new FileOutputStream(new File(out, "level-" + level + ".replay"));
+
+				try
+				{
+					recorder.writeTo(outputStream);
+				}
+				finally
+				{
+					outputStream.close();
+				}
+			}
+		}
+
+		final double seconds = (System.nanoTime() - begin) / 1e9;
+
+		System.out.println();
+		System.out.println(String.format("cleared %d, stalled %d, timeout %d", results[Result.Cleared.ordinal()], results[Result.Stalled.ordinal()], results[Result.Timeout.ordinal()]));
+		System.out.println(String.format("%d steps in %.1f s, step time p50 %d ns, p99 %d ns, p99.9 %d ns",
+			totalSteps, seconds, histogram.getPercentile(0.50), histogram.getPercentile(0.99), histogram.getPercentile(0.999)));
+
+		if (!flagged.isEmpty())
+			System.out.println("flagged levels (replays in " + out + "): " + flagged);
+	}
+
+	/**
+	 * Get the percentile of sorted times
+	 * @param times The sorted times
+	 * @param length The number of times
+	 * @param percentile The percentile we want (0.0 - 1.0)
+	 * @return The time at the percentile
+	 */
+	private static long getPercentile(final long[] times, final int length, final double percentile)
+	{
+		if (length == 0)
+			return 0;
+
+		return times[(int)Math.min(length - 1, (long)(percentile * length))];
+	}
+}